@@ -0,0 +1,73 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of one transaction and one statement per entity (what {@code addPart} and
+ * {@code addAffectLog} cost per call) against the batched bulk paths backed by pooled ids.
+ * Scores are entities inserted per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class BulkInsertBenchmark {
+
+    private static final int BULK = 1_000;
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public void participantsOneByOne(SeededDatabase db) {
+        for (Participant participant : participants()) {
+            db.eventServices.addParticipant(participant);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public List<Participant> participantsBatched(SeededDatabase db) {
+        return db.eventServices.addParticipants(participants());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public void logisticsOneByOne(SeededDatabase db) {
+        for (Logistics logistics : logistics()) {
+            db.eventServices.addAffectLog(logistics, SeededDatabase.eventDescription(2));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public List<Logistics> logisticsBatched(SeededDatabase db) {
+        return db.eventServices.addAffectLogs(logistics(), SeededDatabase.eventDescription(2));
+    }
+
+    private static List<Participant> participants() {
+        List<Participant> participants = new ArrayList<>(BULK);
+        for (int i = 0; i < BULK; i++) {
+            Participant participant = new Participant();
+            participant.setNom("Bulk" + i);
+            participant.setPrenom("Participant");
+            participant.setTache(Tache.INVITE);
+            participants.add(participant);
+        }
+        return participants;
+    }
+
+    private static List<Logistics> logistics() {
+        List<Logistics> logistics = new ArrayList<>(BULK);
+        for (int i = 0; i < BULK; i++) {
+            logistics.add(new Logistics(0, "Bulk item " + i, i % 2 == 0, 3.5f, 2));
+        }
+        return logistics;
+    }
+}
@@ -0,0 +1,102 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.EventIntervalIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Events active during [d1, d2]" answered by {@link EventIntervalIndex} against the SQL overlap
+ * query it replaces ({@code dateDebut <= d2 and dateFin >= d1}, which no single B-tree index can
+ * bound on both sides). Windows are one week wide, spread over the seeded ten years.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class EventIntervalIndexBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 10 * 365;
+    private static final int WINDOW_DAYS = 7;
+    private static final int CHUNK = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class SeededEvents {
+
+        @Param({"10000", "1000000"})
+        public int events;
+
+        ConfigurableApplicationContext context;
+        EventIntervalIndex index;
+        EventRepository eventRepository;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SeededDatabase.boot("intervals" + events);
+            index = context.getBean(EventIntervalIndex.class);
+            eventRepository = context.getBean(EventRepository.class);
+            seed(context.getBean(JdbcTemplate.class));
+            index.rebuild();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.getBean(JdbcTemplate.class).execute("drop all objects");
+            context.close();
+        }
+
+        private void seed(JdbcTemplate jdbcTemplate) {
+            // Mostly short events, with one in twenty lasting up to three months
+            Random random = new Random(7);
+            List<Object[]> rows = new ArrayList<>(CHUNK);
+            for (int idEvent = 1; idEvent <= events; idEvent++) {
+                LocalDate dateDebut = FIRST_DAY.plusDays(random.nextInt(DAYS));
+                int length = random.nextInt(20) == 0 ? random.nextInt(90) : random.nextInt(4);
+                rows.add(new Object[]{idEvent, "Event " + idEvent, dateDebut, dateDebut.plusDays(length), 0f});
+                if (rows.size() == CHUNK || idEvent == events) {
+                    jdbcTemplate.batchUpdate("insert into event (id_event, description, date_debut, date_fin, cout) values (?, ?, ?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Windows {
+        final Random random = new Random(11);
+
+        LocalDate next() {
+            return FIRST_DAY.plusDays(random.nextInt(DAYS));
+        }
+    }
+
+    @Benchmark
+    public int[] indexOverlap(SeededEvents db, Windows windows) {
+        LocalDate dateDebut = windows.next();
+        return db.index.findOverlapping(dateDebut, dateDebut.plusDays(WINDOW_DAYS));
+    }
+
+    @Benchmark
+    public List<Integer> sqlOverlap(SeededEvents db, Windows windows) {
+        LocalDate dateDebut = windows.next();
+        return db.eventRepository.findIdsOverlapping(dateDebut, dateDebut.plusDays(WINDOW_DAYS));
+    }
+
+    @Benchmark
+    public void indexUpdate(SeededEvents db, Windows windows) {
+        // Moves an existing event, i.e. one delete and one insert in the tree
+        int idEvent = 1 + windows.random.nextInt(db.events);
+        LocalDate dateDebut = windows.next();
+        db.index.onEventChange(new EventChange(idEvent, "Event " + idEvent, dateDebut, dateDebut.plusDays(2)));
+    }
+}
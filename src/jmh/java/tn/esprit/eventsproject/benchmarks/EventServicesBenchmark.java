@@ -0,0 +1,67 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot paths of {@code EventServicesImpl}, called through the Spring proxies (transactions and
+ * {@code PerformanceAspect} included). Run with {@code -prof gc} (the default {@code jmh.args}) to get
+ * the allocation rate next to throughput and latency percentiles.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class EventServicesBenchmark {
+
+    private static final int PARTICIPANTS_PER_EVENT = 100;
+    private static final AtomicInteger NEXT_EVENT = new AtomicInteger();
+
+    @Benchmark
+    public void getLogisticsDates(SeededDatabase db, Blackhole blackhole) {
+        // About a month of events, i.e. ~3% of the seeded range
+        LocalDate dateDebut = SeededDatabase.FIRST_DAY.plusDays(180);
+        blackhole.consume(db.eventServices.getLogisticsDates(dateDebut, dateDebut.plusDays(30)));
+    }
+
+    @Benchmark
+    public void calculCout(SeededDatabase db) {
+        db.eventServices.calculCout();
+    }
+
+    @Benchmark
+    public Event addAffectEvenParticipant(SeededDatabase db) {
+        Event event = new Event();
+        event.setDescription("Benchmark event " + NEXT_EVENT.incrementAndGet());
+        event.setDateDebut(SeededDatabase.FIRST_DAY);
+        event.setDateFin(SeededDatabase.FIRST_DAY.plusDays(1));
+        Set<Participant> participants = new HashSet<>();
+        for (int i = 1; i <= PARTICIPANTS_PER_EVENT; i++) {
+            Participant participant = new Participant();
+            participant.setIdPart(SeededDatabase.ORGANISER_ID + i);
+            participants.add(participant);
+        }
+        event.setParticipants(participants);
+        return db.eventServices.addAffectEvenParticipant(event);
+    }
+
+    @Benchmark
+    public Logistics addAffectLog(SeededDatabase db) {
+        Logistics logistics = new Logistics();
+        logistics.setDescription("Benchmark chairs");
+        logistics.setReserve(true);
+        logistics.setPrixUnit(4.5f);
+        logistics.setQuantite(10);
+        return db.eventServices.addAffectLog(logistics, SeededDatabase.eventDescription(1));
+    }
+}
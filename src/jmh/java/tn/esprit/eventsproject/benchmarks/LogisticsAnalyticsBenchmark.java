@@ -0,0 +1,93 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tn.esprit.eventsproject.dto.CostRollup;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.services.CostRollups;
+import tn.esprit.eventsproject.services.EventCostEngine;
+import tn.esprit.eventsproject.services.LogisticsColumnStore;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserved logistics cost of a month of events, summed from the {@code Logistics} objects returned by
+ * {@code getLogisticsDates} against a scan of {@link LogisticsColumnStore} and a lookup in
+ * {@link CostRollups}, plus daily and weekly breakdowns of the whole seeded range. Run with {@code -prof gc} (the default {@code jmh.args}) to
+ * compare the allocation rate and GC count of both paths.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class LogisticsAnalyticsBenchmark {
+
+    private static final LocalDate MONTH_START = SeededDatabase.FIRST_DAY.plusDays(180);
+    private static final LocalDate MONTH_END = MONTH_START.plusDays(30);
+
+    @State(Scope.Benchmark)
+    public static class LoadedStore {
+        LogisticsColumnStore store;
+
+        @Setup(Level.Trial)
+        public void load(SeededDatabase db) {
+            // The store was loaded when the application started, before the database was seeded
+            store = db.context.getBean(LogisticsColumnStore.class);
+            store.rebuild();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoadedRollups {
+        CostRollups rollups;
+
+        @Setup(Level.Trial)
+        public void load(SeededDatabase db) {
+            rollups = db.context.getBean(CostRollups.class);
+            rollups.rebuild();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Buckets {
+        final double[] month = new double[1];
+        final double[] weeks = new double[(SeededDatabase.DAYS + 6) / 7];
+    }
+
+    @Benchmark
+    public double entityMonthCost(SeededDatabase db) {
+        double cost = 0;
+        for (Logistics logistics : db.eventServices.getLogisticsDates(MONTH_START, MONTH_END)) {
+            cost += EventCostEngine.costOf(logistics);
+        }
+        return cost;
+    }
+
+    @Benchmark
+    public double columnMonthCost(LoadedStore loaded, Buckets buckets) {
+        buckets.month[0] = 0;
+        loaded.store.costPerDateBucket(MONTH_START, MONTH_END, 31, true, buckets.month);
+        return buckets.month[0];
+    }
+
+    @Benchmark
+    public double[] columnWeeklyCosts(LoadedStore loaded, Buckets buckets) {
+        Arrays.fill(buckets.weeks, 0);
+        loaded.store.costPerDateBucket(SeededDatabase.FIRST_DAY, SeededDatabase.FIRST_DAY.plusDays(SeededDatabase.DAYS - 1),
+                7, true, buckets.weeks);
+        return buckets.weeks;
+    }
+
+    @Benchmark
+    public List<CostRollup.Period> rollupMonthCost(LoadedRollups loaded) {
+        return loaded.rollups.monthly(MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<CostRollup.Period> rollupDailyCosts(LoadedRollups loaded) {
+        return loaded.rollups.daily(SeededDatabase.FIRST_DAY, SeededDatabase.FIRST_DAY.plusDays(SeededDatabase.DAYS - 1));
+    }
+}
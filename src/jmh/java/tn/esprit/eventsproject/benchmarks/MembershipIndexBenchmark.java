@@ -0,0 +1,125 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.dto.MembershipFootprint;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.MembershipIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership queries answered by {@link MembershipIndex} against the {@code participant_events} joins
+ * they replace. One participant in ten is an organiser on 200 events, the others are invitees on 10,
+ * all drawn from {@code participants / 5} events. The footprint of the loaded index is printed once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class MembershipIndexBenchmark {
+
+    private static final int CHUNK = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class SeededMemberships {
+
+        @Param({"10000", "100000"})
+        public int participants;
+
+        ConfigurableApplicationContext context;
+        MembershipIndex index;
+        ParticipantRepository participantRepository;
+        int events;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SeededDatabase.boot("membership" + participants);
+            index = context.getBean(MembershipIndex.class);
+            participantRepository = context.getBean(ParticipantRepository.class);
+            events = participants / 5;
+            seed(context.getBean(JdbcTemplate.class));
+            index.rebuild();
+            MembershipFootprint footprint = index.footprint();
+            System.out.printf("%nMembership index: %d participants, %d events, %d links, %d heap bytes (%.1f per link), %d serialized bytes%n",
+                    footprint.getParticipants(), footprint.getEvents(), footprint.getLinks(),
+                    footprint.getHeapBytes(), footprint.getBytesPerLink(), footprint.getSerializedBytes());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.getBean(JdbcTemplate.class).execute("drop all objects");
+            context.close();
+        }
+
+        private void seed(JdbcTemplate jdbcTemplate) {
+            List<Object[]> rows = new ArrayList<>(CHUNK);
+            for (int idEvent = 1; idEvent <= events; idEvent++) {
+                rows.add(new Object[]{idEvent, "Event " + idEvent, 0f});
+                if (rows.size() == CHUNK || idEvent == events) {
+                    jdbcTemplate.batchUpdate("insert into event (id_event, description, cout) values (?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+            Random random = new Random(17);
+            List<Object[]> people = new ArrayList<>(CHUNK);
+            List<Object[]> links = new ArrayList<>(CHUNK);
+            for (int idPart = 1; idPart <= participants; idPart++) {
+                boolean organiser = isOrganiser(idPart);
+                people.add(new Object[]{idPart, "Nom" + idPart, "Prenom" + idPart, organiser ? "ORGANISATEUR" : "INVITE"});
+                int participant = idPart;
+                random.ints(1, events + 1).distinct().limit(organiser ? 200 : 10)
+                        .forEach(idEvent -> links.add(new Object[]{participant, idEvent}));
+                if (people.size() == CHUNK || idPart == participants) {
+                    jdbcTemplate.batchUpdate("insert into participant (id_part, nom, prenom, tache) values (?, ?, ?, ?)", people);
+                    jdbcTemplate.batchUpdate("insert into participant_events (participants_id_part, events_id_event) values (?, ?)", links);
+                    people.clear();
+                    links.clear();
+                }
+            }
+        }
+    }
+
+    static boolean isOrganiser(int idPart) {
+        return idPart % 10 == 0;
+    }
+
+    @State(Scope.Thread)
+    public static class Picks {
+        final Random random = new Random(23);
+
+        Set<Integer> organisers(SeededMemberships db) {
+            int first = 10 * (1 + random.nextInt(db.participants / 10));
+            int second = 10 * (1 + random.nextInt(db.participants / 10));
+            return first == second ? Set.of(first) : Set.of(first, second);
+        }
+    }
+
+    @Benchmark
+    public int[] indexSharedEvents(SeededMemberships db, Picks picks) {
+        return db.index.findSharedEvents(picks.organisers(db));
+    }
+
+    @Benchmark
+    public List<Integer> sqlSharedEvents(SeededMemberships db, Picks picks) {
+        Set<Integer> organisers = picks.organisers(db);
+        return db.participantRepository.findSharedEventIds(organisers, organisers.size());
+    }
+
+    @Benchmark
+    public boolean indexIsMember(SeededMemberships db, Picks picks) {
+        return db.index.isMember(1 + picks.random.nextInt(db.participants), 1 + picks.random.nextInt(db.events));
+    }
+
+    @Benchmark
+    public Set<Integer> sqlIsMember(SeededMemberships db, Picks picks) {
+        return db.participantRepository.findIdsAlreadyInEvent(1 + picks.random.nextInt(db.events),
+                Set.of(1 + picks.random.nextInt(db.participants)));
+    }
+}
@@ -0,0 +1,121 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import tn.esprit.eventsproject.dto.EventView;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One response of {@code events} events with 20 participants and 5 logistics each, written as the
+ * entities the endpoints used to return against {@link EventView}s, with and without Blackbird and with
+ * a {@code ?fields=idEvent,description} fieldset. The entities' participants have no events: with them
+ * the graph cycles and cannot be written at all. Raw and gzipped sizes are printed once; run with
+ * {@code -prof gc} for the allocation per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ResponseSerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Response {
+
+        @Param({"100", "1000"})
+        public int events;
+
+        List<Event> entities;
+        List<EventView> views;
+        ObjectWriter plain;
+        ObjectWriter blackbird;
+        ObjectWriter sparse;
+
+        @Setup(Level.Trial)
+        public void build() {
+            entities = IntStream.rangeClosed(1, events).mapToObj(Response::event).collect(Collectors.toList());
+            views = entities.stream().map(EventView::of).collect(Collectors.toList());
+            SimpleFilterProvider all = new SimpleFilterProvider()
+                    .addFilter(EventView.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll());
+            plain = mapper().writer(all);
+            blackbird = mapper().registerModule(new BlackbirdModule()).writer(all);
+            sparse = mapper().registerModule(new BlackbirdModule()).writer(new SimpleFilterProvider()
+                    .addFilter(EventView.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept("idEvent", "description")));
+            System.out.printf("%n%d events: entities %s, views %s, sparse views %s (raw / gzip bytes)%n", events,
+                    sizes(plain, entities), sizes(plain, views), sizes(sparse, views));
+        }
+
+        private static ObjectMapper mapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+
+        private static Event event(int idEvent) {
+            LocalDate day = LocalDate.of(2024, 1, 1).plusDays(idEvent % 365);
+            Set<Participant> participants = IntStream.range(0, 20)
+                    .mapToObj(i -> new Participant(idEvent * 20 + i, "Nom" + i, "Prenom" + i,
+                            i == 0 ? Tache.ORGANISATEUR : Tache.INVITE, null))
+                    .collect(Collectors.toCollection(HashSet::new));
+            Set<Logistics> logistics = IntStream.range(0, 5)
+                    .mapToObj(i -> new Logistics(idEvent * 5 + i, "Logistics " + i, i % 2 == 0, 12.5f, i + 1))
+                    .collect(Collectors.toCollection(HashSet::new));
+            return new Event(idEvent, "Event " + idEvent, day, day.plusDays(2), 62.5f, 0, participants, logistics);
+        }
+
+        private static String sizes(ObjectWriter writer, Object value) {
+            try {
+                byte[] raw = writer.writeValueAsBytes(value);
+                ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+                try (OutputStream out = new GZIPOutputStream(gzipped)) {
+                    out.write(raw);
+                }
+                return raw.length + " / " + gzipped.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] entities(Response response) throws IOException {
+        return response.plain.writeValueAsBytes(response.entities);
+    }
+
+    @Benchmark
+    public byte[] views(Response response) throws IOException {
+        // Mapping included, as in the controller
+        return response.plain.writeValueAsBytes(response.entities.stream().map(EventView::of).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public byte[] viewsBlackbird(Response response) throws IOException {
+        return response.blackbird.writeValueAsBytes(response.entities.stream().map(EventView::of).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public byte[] sparseViewsBlackbird(Response response) throws IOException {
+        return response.sparse.writeValueAsBytes(response.entities.stream().map(EventView::of).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,121 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.dto.ConflictReport;
+import tn.esprit.eventsproject.services.ScheduleConflictService;
+import tn.esprit.eventsproject.services.ScheduleSweep;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full schedule conflict scan: the in-memory {@link ScheduleSweep} alone over pre-sorted bookings, and
+ * the {@code getScheduleConflicts} report including the sorted database stream. Every participant is
+ * an organiser booked on ten events of one to four days spread over a year, so a few overlap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ScheduleSweepBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int EVENTS = 20_000;
+    private static final int BOOKINGS_PER_PARTICIPANT = 10;
+    private static final int CHUNK = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Bookings {
+
+        @Param({"10000", "100000"})
+        public int participants;
+
+        ConfigurableApplicationContext context;
+        ScheduleConflictService conflictService;
+        // Sorted by (participant, start day), as the repository streams them
+        int[] idParts;
+        int[] idEvents;
+        int[] starts;
+        int[] ends;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SeededDatabase.boot("schedule" + participants);
+            conflictService = context.getBean(ScheduleConflictService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            Random random = new Random(5);
+            int[] eventStart = new int[EVENTS + 1];
+            int[] eventEnd = new int[EVENTS + 1];
+            List<Object[]> rows = new ArrayList<>(CHUNK);
+            for (int idEvent = 1; idEvent <= EVENTS; idEvent++) {
+                LocalDate dateDebut = FIRST_DAY.plusDays(random.nextInt(365));
+                LocalDate dateFin = dateDebut.plusDays(random.nextInt(4));
+                eventStart[idEvent] = (int) dateDebut.toEpochDay();
+                eventEnd[idEvent] = (int) dateFin.toEpochDay();
+                rows.add(new Object[]{idEvent, "Event " + idEvent, dateDebut, dateFin, 0f});
+                if (rows.size() == CHUNK || idEvent == EVENTS) {
+                    jdbcTemplate.batchUpdate("insert into event (id_event, description, date_debut, date_fin, cout) values (?, ?, ?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+
+            int bookings = participants * BOOKINGS_PER_PARTICIPANT;
+            idParts = new int[bookings];
+            idEvents = new int[bookings];
+            starts = new int[bookings];
+            ends = new int[bookings];
+            List<Object[]> people = new ArrayList<>(CHUNK);
+            List<Object[]> links = new ArrayList<>(CHUNK);
+            int next = 0;
+            for (int idPart = 1; idPart <= participants; idPart++) {
+                people.add(new Object[]{idPart, "Nom" + idPart, "Prenom" + idPart, "ORGANISATEUR"});
+                // Distinct event IDs in start order, which is what the repository returns
+                int[] picked = random.ints(1, EVENTS + 1).distinct().limit(BOOKINGS_PER_PARTICIPANT)
+                        .boxed().sorted((a, b) -> eventStart[a] != eventStart[b] ? Integer.compare(eventStart[a], eventStart[b]) : Integer.compare(a, b))
+                        .mapToInt(Integer::intValue).toArray();
+                for (int idEvent : picked) {
+                    idParts[next] = idPart;
+                    idEvents[next] = idEvent;
+                    starts[next] = eventStart[idEvent];
+                    ends[next] = eventEnd[idEvent];
+                    next++;
+                    links.add(new Object[]{idPart, idEvent});
+                }
+                if (people.size() == CHUNK || idPart == participants) {
+                    jdbcTemplate.batchUpdate("insert into participant (id_part, nom, prenom, tache) values (?, ?, ?, ?)", people);
+                    jdbcTemplate.batchUpdate("insert into participant_events (participants_id_part, events_id_event) values (?, ?)", links);
+                    people.clear();
+                    links.clear();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.getBean(JdbcTemplate.class).execute("drop all objects");
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long sweepInMemory(Bookings bookings, Blackhole blackhole) {
+        ScheduleSweep sweep = new ScheduleSweep((idPart, first, second, from, to) -> blackhole.consume(second));
+        for (int i = 0; i < bookings.idParts.length; i++) {
+            sweep.add(bookings.idParts[i], bookings.idEvents[i], bookings.starts[i], bookings.ends[i]);
+        }
+        return sweep.getBookings();
+    }
+
+    @Benchmark
+    public ConflictReport reportFromDatabase(Bookings bookings) {
+        return bookings.conflictService.getScheduleConflicts(100);
+    }
+}
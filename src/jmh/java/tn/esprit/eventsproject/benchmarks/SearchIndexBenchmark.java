@@ -0,0 +1,123 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.dto.SearchResult;
+import tn.esprit.eventsproject.services.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Participant name searches answered by {@link SearchIndex} against a {@code like} scan of the table.
+ * Last names are built from three of 24 syllables (about 14,000 of them) and first names drawn from 40,
+ * so that short prefixes match a large share of the participants. The load time is printed once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class SearchIndexBenchmark {
+
+    private static final int CHUNK = 10_000;
+    private static final int LIMIT = 20;
+    private static final String[] SYLLABLES = {"ben", "tou", "nsi", "tra", "bel", "si", "ham", "ma", "di", "ka",
+            "rim", "sa", "lah", "jer", "bi", "ga", "lou", "cha", "bou", "zid", "mar", "zou", "ki", "na"};
+    private static final String[] FIRST_NAMES = {"Ahmed", "Amira", "Mohamed", "Yassine", "Salma", "Amine", "Sami",
+            "Mariem", "Youssef", "Ines", "Khalil", "Nour", "Aziz", "Rania", "Omar", "Leila", "Hamza", "Sarra", "Bilel",
+            "Asma", "Walid", "Hela", "Karim", "Olfa", "Mehdi", "Eya", "Hatem", "Rim", "Fares", "Emna", "Anis", "Dorra",
+            "Slim", "Ons", "Sofiene", "Wafa", "Tarek", "Najla", "Zied", "Imen"};
+
+    @State(Scope.Benchmark)
+    public static class SeededNames {
+
+        @Param({"100000", "1000000"})
+        public int participants;
+
+        ConfigurableApplicationContext context;
+        SearchIndex index;
+        JdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SeededDatabase.boot("search" + participants);
+            index = context.getBean(SearchIndex.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            seed();
+            long start = System.nanoTime();
+            index.rebuild();
+            System.out.printf("%nSearch index: %d participants loaded in %d ms%n",
+                    participants, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            jdbcTemplate.execute("drop all objects");
+            context.close();
+        }
+
+        private void seed() {
+            Random random = new Random(17);
+            List<Object[]> people = new ArrayList<>(CHUNK);
+            for (int idPart = 1; idPart <= participants; idPart++) {
+                people.add(new Object[]{idPart, lastName(random), FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], "INVITE"});
+                if (people.size() == CHUNK || idPart == participants) {
+                    jdbcTemplate.batchUpdate("insert into participant (id_part, nom, prenom, tache) values (?, ?, ?, ?)", people);
+                    people.clear();
+                }
+            }
+        }
+    }
+
+    static String lastName(Random random) {
+        String name = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                + SYLLABLES[random.nextInt(SYLLABLES.length)];
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    @State(Scope.Thread)
+    public static class Picks {
+        final Random random = new Random(23);
+
+        String lastName() {
+            return SearchIndexBenchmark.lastName(random);
+        }
+
+        String firstName() {
+            return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        }
+    }
+
+    @Benchmark
+    public SearchResult indexFullName(SeededNames db, Picks picks) {
+        return db.index.searchParticipants(picks.lastName() + " " + picks.firstName(), LIMIT);
+    }
+
+    @Benchmark
+    public SearchResult indexShortPrefix(SeededNames db, Picks picks) {
+        return db.index.searchParticipants(picks.lastName().substring(0, 2), LIMIT);
+    }
+
+    @Benchmark
+    public SearchResult indexPrefixes(SeededNames db, Picks picks) {
+        return db.index.searchParticipants(picks.lastName().substring(0, 5) + " " + picks.firstName().substring(0, 2), LIMIT);
+    }
+
+    // One letter dropped from the last name: no exact or prefix match for it
+    @Benchmark
+    public SearchResult indexTypo(SeededNames db, Picks picks) {
+        String name = picks.lastName();
+        int dropped = 1 + picks.random.nextInt(name.length() - 1);
+        return db.index.searchParticipants(name.substring(0, dropped) + name.substring(dropped + 1), LIMIT);
+    }
+
+    @Benchmark
+    public List<Integer> sqlPrefix(SeededNames db, Picks picks) {
+        return db.jdbcTemplate.queryForList("select id_part from participant where lower(nom) like ? order by id_part limit ?",
+                Integer.class, picks.lastName().substring(0, 5).toLowerCase() + "%", LIMIT);
+    }
+}
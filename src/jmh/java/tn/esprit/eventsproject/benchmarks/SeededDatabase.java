@@ -0,0 +1,142 @@
+package tn.esprit.eventsproject.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.EventsProjectApplication;
+import tn.esprit.eventsproject.config.IdSequenceMigration;
+import tn.esprit.eventsproject.services.IEventServices;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against an in-memory H2 database and seeds it through plain JDBC batches:
+ * {@code logisticsRows / LOGISTICS_PER_EVENT} events spread over three years, the reserved third of
+ * the logistics rows priced, one "Tounsi Ahmed" organiser on every 100th event and a pool of invitees.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    public static final int LOGISTICS_PER_EVENT = 50;
+    public static final int INVITEES = 2_000;
+    public static final int ORGANISER_ID = 1;
+    public static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 1);
+    public static final int DAYS = 3 * 365;
+
+    private static final int CHUNK = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int logisticsRows;
+
+    public ConfigurableApplicationContext context;
+    public IEventServices eventServices;
+    public JdbcTemplate jdbcTemplate;
+    public int events;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = boot("bench" + logisticsRows);
+        eventServices = context.getBean(IEventServices.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        events = Math.max(1, logisticsRows / LOGISTICS_PER_EVENT);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        jdbcTemplate.execute("drop all objects");
+        context.close();
+    }
+
+    /**
+     * Starts the application on an empty in-memory database. The test classes are on the benchmark
+     * classpath, so their nested {@code @TestConfiguration}s are kept out of the component scan.
+     */
+    public static ConfigurableApplicationContext boot(String database) {
+        return new SpringApplicationBuilder(EventsProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "events.cost.reconcile-cron=-",
+                        "logging.level.root=warn")
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton(ExcludeTestConfigurations.class.getName(), new ExcludeTestConfigurations()))
+                .run();
+    }
+
+    public static String eventDescription(int idEvent) {
+        return "Event " + idEvent;
+    }
+
+    private void seed() {
+        List<Object[]> participants = new ArrayList<>();
+        participants.add(new Object[]{ORGANISER_ID, "Tounsi", "Ahmed", "ORGANISATEUR"});
+        for (int i = 1; i <= INVITEES; i++) {
+            participants.add(new Object[]{ORGANISER_ID + i, "Nom" + i, "Prenom" + i, "INVITE"});
+        }
+        jdbcTemplate.batchUpdate("insert into participant (id_part, nom, prenom, tache) values (?, ?, ?, ?)", participants);
+
+        float[] costs = new float[events + 1];
+        for (int idLog = 1; idLog <= logisticsRows; idLog++) {
+            if (isReserved(idLog)) {
+                costs[eventOf(idLog)] += prixUnit(idLog) * quantite(idLog);
+            }
+        }
+        List<Object[]> eventRows = new ArrayList<>(events);
+        List<Object[]> organiserLinks = new ArrayList<>();
+        for (int idEvent = 1; idEvent <= events; idEvent++) {
+            LocalDate dateDebut = FIRST_DAY.plusDays(idEvent % DAYS);
+            eventRows.add(new Object[]{idEvent, eventDescription(idEvent), dateDebut, dateDebut.plusDays(1 + idEvent % 3), costs[idEvent]});
+            if (idEvent % 100 == 1) {
+                organiserLinks.add(new Object[]{ORGANISER_ID, idEvent});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into event (id_event, description, date_debut, date_fin, cout) values (?, ?, ?, ?, ?)", eventRows);
+        jdbcTemplate.batchUpdate("insert into participant_events (participants_id_part, events_id_event) values (?, ?)", organiserLinks);
+
+        List<Object[]> logistics = new ArrayList<>(CHUNK);
+        List<Object[]> links = new ArrayList<>(CHUNK);
+        for (int idLog = 1; idLog <= logisticsRows; idLog++) {
+            logistics.add(new Object[]{idLog, "Logistics item " + idLog, isReserved(idLog), prixUnit(idLog), quantite(idLog)});
+            links.add(new Object[]{eventOf(idLog), idLog});
+            if (logistics.size() == CHUNK || idLog == logisticsRows) {
+                jdbcTemplate.batchUpdate("insert into logistics (id_log, description, reserve, prix_unit, quantite) values (?, ?, ?, ?, ?)", logistics);
+                jdbcTemplate.batchUpdate("insert into event_logistics (event_id_event, logistics_id_log) values (?, ?)", links);
+                logistics.clear();
+                links.clear();
+            }
+        }
+        context.getBean(IdSequenceMigration.class).alignSequences();
+    }
+
+    private int eventOf(int idLog) {
+        return Math.min((idLog - 1) / LOGISTICS_PER_EVENT + 1, events);
+    }
+
+    private static boolean isReserved(int idLog) {
+        return idLog % 3 == 0;
+    }
+
+    private static float prixUnit(int idLog) {
+        return idLog % 100 + 0.5f;
+    }
+
+    private static int quantite(int idLog) {
+        return idLog % 10 + 1;
+    }
+
+    private static final class ExcludeTestConfigurations extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+}
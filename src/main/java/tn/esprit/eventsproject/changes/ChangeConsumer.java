@@ -0,0 +1,21 @@
+package tn.esprit.eventsproject.changes;
+
+/**
+ * Node-local state kept in step with the changes. The changes made on this node arrive through the
+ * after-commit application events; {@code OutboxRelay} hands over the ones made on other nodes by
+ * calling the same methods, once each.
+ */
+public interface ChangeConsumer {
+
+    default void onEventChange(EventChange change) {
+    }
+
+    default void onParticipantChange(ParticipantChange change) {
+    }
+
+    default void onParticipationChange(ParticipationChange change) {
+    }
+
+    default void onLogisticsChange(LogisticsChange change) {
+    }
+}
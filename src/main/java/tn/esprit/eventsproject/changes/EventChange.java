@@ -0,0 +1,16 @@
+package tn.esprit.eventsproject.changes;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the services whenever an event is created or updated.
+ */
+@Value
+public class EventChange {
+    int idEvent;
+    String description;
+    LocalDate dateDebut;
+    LocalDate dateFin;
+}
@@ -0,0 +1,15 @@
+package tn.esprit.eventsproject.changes;
+
+import lombok.Value;
+
+/**
+ * Published by the services whenever a logistics row is added to an event.
+ */
+@Value
+public class LogisticsChange {
+    int idEvent;
+    int idLog;
+    boolean reserve;
+    float prixUnit;
+    int quantite;
+}
@@ -0,0 +1,32 @@
+package tn.esprit.eventsproject.changes;
+
+import lombok.Value;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by the services whenever a participant is saved. {@code eventIds} is its whole event set,
+ * which replaces the previous one.
+ */
+@Value
+public class ParticipantChange {
+    int idPart;
+    String nom;
+    String prenom;
+    Tache tache;
+    Set<Integer> eventIds;
+
+    public static ParticipantChange of(Participant participant) {
+        Set<Integer> eventIds = Optional.ofNullable(participant.getEvents()).orElse(Collections.emptySet()).stream()
+                .map(Event::getIdEvent)
+                .collect(Collectors.toSet());
+        return new ParticipantChange(participant.getIdPart(), participant.getNom(), participant.getPrenom(),
+                participant.getTache(), eventIds);
+    }
+}
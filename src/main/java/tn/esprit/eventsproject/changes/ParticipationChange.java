@@ -0,0 +1,14 @@
+package tn.esprit.eventsproject.changes;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Published by the services whenever participants are added to an event.
+ */
+@Value
+public class ParticipationChange {
+    int idEvent;
+    Set<Integer> participantIds;
+}
@@ -0,0 +1,95 @@
+package tn.esprit.eventsproject.config;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limit that adapts to latency (additive increase, multiplicative decrease): a request
+ * completing slower than the target shrinks it by a tenth, one completing in time while at least half
+ * the limit is in use grows it by one. The requests that were in flight when it shrank are let through
+ * first, so one slow spell shrinks it once, not once per request it caught. Writes may only take {@code writeShare} of it and bulk writes
+ * {@code bulkShare}, so that past that point the remaining slots are left to reads.
+ */
+public class AdaptiveLimit {
+
+    public enum Priority {
+        READ, WRITE, BULK
+    }
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double writeShare;
+    private final double bulkShare;
+    private int limit;
+    private int inFlight;
+    // Requests in flight at the last decrease that have not completed yet
+    private int draining;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+                         double writeShare, double bulkShare) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (writeShare <= 0 || writeShare > 1 || bulkShare <= 0 || bulkShare > writeShare) {
+            throw new IllegalArgumentException("Shares must satisfy 0 < bulk <= write <= 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.writeShare = writeShare;
+        this.bulkShare = bulkShare;
+    }
+
+    public synchronized boolean tryAcquire(Priority priority) {
+        if (inFlight >= slots(priority)) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Frees the slot of a request that took {@code latencyNanos}. Only {@code sampled} requests move the
+     * limit: the ones that are long by design (bulk imports, streams, range reads) say nothing about the load.
+     */
+    public synchronized void release(long latencyNanos, boolean sampled) {
+        inFlight--;
+        boolean drained = draining == 0;
+        if (!drained) {
+            draining--;
+        }
+        if (!sampled) {
+            return;
+        }
+        if (latencyNanos > latencyTargetNanos) {
+            if (drained) {
+                limit = Math.max(minLimit, (int) (limit * BACKOFF));
+                draining = inFlight;
+            }
+        } else if ((inFlight + 1) * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private int slots(Priority priority) {
+        switch (priority) {
+            case WRITE:
+                return Math.max(1, (int) (limit * writeShare));
+            case BULK:
+                return Math.max(1, (int) (limit * bulkShare));
+            default:
+                return limit;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package tn.esprit.eventsproject.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Puts an {@link AdmissionControlFilter} in front of the {@code /event} endpoints unless
+ * {@code events.admission.enabled} is false. Actuator endpoints are left out, so health checks and
+ * scrapes still get through under load.
+ */
+@Configuration
+@ConditionalOnProperty(name = "events.admission.enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveLimit admissionLimit(@Value("${events.admission.initial-limit:20}") int initialLimit,
+                                       @Value("${events.admission.min-limit:4}") int minLimit,
+                                       @Value("${events.admission.max-limit:200}") int maxLimit,
+                                       @Value("${events.admission.latency-target:250ms}") Duration latencyTarget,
+                                       @Value("${events.admission.write-share:0.75}") double writeShare,
+                                       @Value("${events.admission.bulk-share:0.25}") double bulkShare) {
+        return new AdaptiveLimit(initialLimit, minLimit, maxLimit, latencyTarget, writeShare, bulkShare);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdaptiveLimit admissionLimit,
+            MeterRegistry meterRegistry,
+            @Value("${events.admission.client-rate:20}") double clientRate,
+            @Value("${events.admission.client-burst:40}") int clientBurst,
+            @Value("${events.admission.client-stripes:4096}") int clientStripes) {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(clientStripes, clientRate, clientBurst, System::nanoTime);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(admissionLimit, rateLimiter, meterRegistry));
+        registration.addUrlPatterns("/event/*");
+        // Ahead of everything that reads the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,166 @@
+package tn.esprit.eventsproject.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tn.esprit.eventsproject.config.AdaptiveLimit.Priority;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of the {@code /event} endpoints, before the request body is read. Writes
+ * are rate limited per client (429) and every request needs a slot of the {@link AdaptiveLimit} (503);
+ * both answers carry a Retry-After. Requests are counted in {@code events.admission.requests}, tagged
+ * with their priority and outcome.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    // Many records per request, or a full recompute
+    private static final List<String> BULK_PATHS = List.of(
+            "/event/import/", "/event/addParts", "/event/addAffectLogs/", "/event/analytics/costs/rebuild");
+    // Reads over a date range or a whole table, slow by design: sampling them would throttle the cheap requests
+    private static final List<String> SCAN_PATHS = List.of("/event/getLogs/", "/event/analytics/", "/event/conflicts");
+    private static final String LONG_POLL_SUFFIX = "/poll";
+
+    private final AdaptiveLimit limit;
+    private final ClientRateLimiter rateLimiter;
+    private final Map<Priority, Map<Outcome, Counter>> requests = new EnumMap<>(Priority.class);
+
+    private enum Outcome {
+        ADMITTED, THROTTLED, SHED
+    }
+
+    public AdmissionControlFilter(AdaptiveLimit limit, ClientRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.limit = limit;
+        this.rateLimiter = rateLimiter;
+        for (Priority priority : Priority.values()) {
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, Counter.builder("events.admission.requests")
+                        .description("Requests to the /event endpoints by admission outcome")
+                        .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry));
+            }
+            requests.put(priority, counters);
+        }
+        Gauge.builder("events.admission.limit", limit, AdaptiveLimit::getLimit)
+                .description("Current concurrency limit of the /event endpoints")
+                .register(meterRegistry);
+        Gauge.builder("events.admission.in-flight", limit, AdaptiveLimit::getInFlight)
+                .description("Admitted requests still running")
+                .register(meterRegistry);
+    }
+
+    static Priority classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return Priority.READ;
+        }
+        String path = pathOf(request);
+        return BULK_PATHS.stream().anyMatch(path::startsWith) ? Priority.BULK : Priority.WRITE;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Priority priority = classify(request);
+        if (priority != Priority.READ) {
+            long waitNanos = rateLimiter.tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Too many writes from this client");
+                requests.get(priority).get(Outcome.THROTTLED).increment();
+                return;
+            }
+        }
+        if (!limit.tryAcquire(priority)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 0, "Server busy");
+            requests.get(priority).get(Outcome.SHED).increment();
+            return;
+        }
+        requests.get(priority).get(Outcome.ADMITTED).increment();
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted() && !pathOf(request).endsWith(LONG_POLL_SUFFIX)) {
+                // Streams keep their slot until they complete, without moving the limit
+                request.getAsyncContext().addListener(new Release(released, start));
+            } else if (released.compareAndSet(false, true)) {
+                // A long poll waits idle, so it gives its slot back at once
+                limit.release(System.nanoTime() - start, priority != Priority.BULK && !request.isAsyncStarted()
+                        && SCAN_PATHS.stream().noneMatch(pathOf(request)::startsWith));
+            }
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long waitNanos, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        // Whole seconds, rounded up
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds)));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    private final class Release implements AsyncListener {
+        private final AtomicBoolean released;
+        private final long start;
+
+        Release(AtomicBoolean released, long start) {
+            this.released = released;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when the request goes async again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package tn.esprit.eventsproject.config;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per client, refilled at {@code ratePerSecond} up to {@code burst}. Clients are hashed
+ * onto a fixed array of buckets, each with its own lock, so memory stays bounded whatever the number of
+ * clients; two clients sharing a bucket share its rate.
+ */
+public class ClientRateLimiter {
+
+    private final Bucket[] buckets;
+    private final double ratePerNano;
+    private final double burst;
+    private final LongSupplier clock;
+
+    public ClientRateLimiter(int stripes, double ratePerSecond, int burst, LongSupplier clock) {
+        if (stripes < 1 || ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Stripes, rate and burst must be positive");
+        }
+        this.buckets = new Bucket[stripes];
+        this.ratePerNano = ratePerSecond / 1e9;
+        this.burst = burst;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        for (int i = 0; i < stripes; i++) {
+            buckets[i] = new Bucket(burst, now);
+        }
+    }
+
+    /**
+     * Takes a token for {@code client}. Returns 0 when one was available, otherwise the number of
+     * nanoseconds until there will be one.
+     */
+    public long tryAcquire(String client) {
+        Bucket bucket = buckets[Math.floorMod(client.hashCode() * 0x9E3779B9, buckets.length)];
+        synchronized (bucket) {
+            long now = clock.getAsLong();
+            bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.refilledAt) * ratePerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / ratePerNano);
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
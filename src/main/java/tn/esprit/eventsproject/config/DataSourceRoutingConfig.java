@@ -0,0 +1,91 @@
+package tn.esprit.eventsproject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, enabled by listing replica JDBC URLs in {@code events.datasource.replica-urls}:
+ * the {@code spring.datasource} pool becomes the primary of a {@link ReplicaRoutingDataSource} and every
+ * pool, primary included, reports its Hikari metrics tagged with its pool name. Read-only transactions no
+ * longer fill the second-level cache, see {@link ReplicaReadJpaDialect}. Without replicas Spring Boot's
+ * single data source is left as it is.
+ */
+@Configuration
+@ConditionalOnProperty("events.datasource.replica-urls")
+public class DataSourceRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${events.datasource.replica-urls}") String[] replicaUrls,
+            @Value("${events.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${events.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${events.datasource.replica-pool-size:10}") int replicaPoolSize,
+            @Value("${events.datasource.replica-connection-timeout:1s}") Duration replicaConnectionTimeout,
+            @Value("${events.datasource.replica-max-lag:5s}") Duration maxLag) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // The spring.datasource.hikari settings Spring Boot applies to its own pool
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(replicaUrls[i].trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            // A replica that is down costs a read this long before it falls back to the primary
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            // Nor does it stop the application from starting
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        // Takes the connection at the first statement, once the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Static, so that it is registered before the entity manager factory is created
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Set before initialization, so the factory does not take the vendor adapter's dialect
+                if (bean instanceof AbstractEntityManagerFactoryBean) {
+                    ((AbstractEntityManagerFactoryBean) bean).setJpaDialect(new ReplicaReadJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package tn.esprit.eventsproject.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Named leases stored in {@code scheduler_lease}, so a scheduled job runs on one replica only.
+ * Acquiring is a single conditional update (or insert for a new lease): it succeeds when this
+ * node already owns the lease or the previous owner let it expire. Expiry times come from the
+ * node clocks, so the lease duration must be well above the expected clock skew.
+ */
+@Slf4j
+@Component
+public class DatabaseLease {
+
+    private static final String TAKE_OVER =
+            "update scheduler_lease set owner = ?, expires_at = ? where name = ? and (owner = ? or expires_at < ?)";
+    private static final String CREATE = "insert into scheduler_lease (name, owner, expires_at) values (?, ?, ?)";
+    private static final String RELEASE = "delete from scheduler_lease where name = ? and owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public DatabaseLease(JdbcTemplate jdbcTemplate, @Value("${events.scheduler.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        // "pid@hostname" tells replicas (and restarts of the same container) apart
+        this.nodeId = nodeId == null || nodeId.isEmpty() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Takes or renews the lease for {@code duration}. Returns {@code false} when another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        Instant now = Instant.now();
+        Timestamp expiresAt = Timestamp.from(now.plus(duration));
+        if (jdbcTemplate.update(TAKE_OVER, nodeId, expiresAt, name, nodeId, Timestamp.from(now)) == 1) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(CREATE, name, nodeId, expiresAt) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Someone else holds it, or created it first
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        if (jdbcTemplate.update(RELEASE, name, nodeId) == 1) {
+            log.info("Released lease {}", name);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package tn.esprit.eventsproject.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves the ID sequences above the rows that were inserted with IDENTITY columns, so the
+ * pooled generators never hand out an ID that is already taken. Runs at startup once Hibernate
+ * has created the sequences (tables named {@code *_seq} on MySQL) and is a no-op once aligned.
+ */
+@Slf4j
+@Component
+public class IdSequenceMigration {
+
+    private static final Map<String, String> MAX_ID_BY_SEQUENCE = new LinkedHashMap<>();
+
+    static {
+        MAX_ID_BY_SEQUENCE.put("event_seq", "select coalesce(max(id_event), 0) from event");
+        MAX_ID_BY_SEQUENCE.put("participant_seq", "select coalesce(max(id_part), 0) from participant");
+        MAX_ID_BY_SEQUENCE.put("logistics_seq", "select coalesce(max(id_log), 0) from logistics");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        MAX_ID_BY_SEQUENCE.forEach((sequence, maxIdQuery) -> {
+            Long maxId = jdbcTemplate.queryForObject(maxIdQuery, Long.class);
+            if (maxId == null || maxId == 0) {
+                return;
+            }
+            if (dialect.supportsSequences()) {
+                Long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+                if (next != null && next <= maxId) {
+                    jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 1));
+                    log.info("Restarted sequence {} at {}", sequence, maxId + 1);
+                }
+            } else if (jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val <= ?", maxId + 1, maxId) > 0) {
+                log.info("Moved sequence table {} to {}", sequence, maxId + 1);
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package tn.esprit.eventsproject.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces Jackson's reflective getter and constructor calls with generated lambdas, which takes a good
+ * share off the CPU time of large list responses. Spring Boot registers the module on its ObjectMapper.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -1,22 +1,100 @@
 package tn.esprit.eventsproject.config;
 
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-@Slf4j
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every service method into a per-method Micrometer timer (p50/p99/p999/max, scraped
+ * through /actuator/prometheus) and counts the calls that throw. Meters are registered once per
+ * method, so the hot path is a map lookup, two {@link System#nanoTime()} reads and a record.
+ */
 @Aspect
 @Component
 public class PerformanceAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final ConcurrentMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public PerformanceAspect(MeterRegistry meterRegistry,
+                             @Value("${events.metrics.service-sample-rate:1.0}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
     @Around("execution(* tn.esprit.eventsproject.services.*.*(..))")
     public Object profile(ProceedingJoinPoint pjp) throws Throwable {
-        long start = System.currentTimeMillis();
-        Object obj = pjp.proceed();
-        long elapsedTime = System.currentTimeMillis() - start;
-        log.info(pjp.getSignature().getName() +" Method execution time: " + elapsedTime
-                +"milliseconds.");
-        return obj;
+        MethodMeters methodMeters = metersFor(pjp);
+        if (!sampled()) {
+            try {
+                return pjp.proceed();
+            } catch (Throwable t) {
+                methodMeters.errors.increment();
+                throw t;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            return pjp.proceed();
+        } catch (Throwable t) {
+            methodMeters.errors.increment();
+            throw t;
+        } finally {
+            methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private MethodMeters metersFor(ProceedingJoinPoint pjp) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.get(method);
+        if (methodMeters != null) {
+            return methodMeters;
+        }
+        String className = AopUtils.getTargetClass(pjp.getTarget()).getSimpleName();
+        return meters.computeIfAbsent(method, key -> register(className, key.getName()));
+    }
+
+    private MethodMeters register(String className, String methodName) {
+        Timer timer = Timer.builder("events.service.method")
+                .description("Service method latency")
+                .tag("class", className)
+                .tag("method", methodName)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter errors = Counter.builder("events.service.errors")
+                .description("Service method calls that threw")
+                .tag("class", className)
+                .tag("method", methodName)
+                .register(meterRegistry);
+        return new MethodMeters(timer, errors);
+    }
+
+    private static final class MethodMeters {
+        final Timer timer;
+        final Counter errors;
+
+        MethodMeters(Timer timer, Counter errors) {
+            this.timer = timer;
+            this.errors = errors;
+        }
     }
 }
@@ -0,0 +1,55 @@
+package tn.esprit.eventsproject.config;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * Keeps read-only transactions, which {@link ReplicaRoutingDataSource} may send to a lagging replica,
+ * from putting what they read into the second-level cache: their session only gets from it. Entries are
+ * put by the transactions on the primary, and the rows a replica has not caught up with yet stay out.
+ */
+class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    private static final String STORE_MODE = "javax.persistence.cache.storeMode";
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+        // Through the JPA property, which find() reads over the session's cache mode. The entity manager may
+        // outlive the transaction (open in view), so the mode is put back afterwards
+        Object previous = entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReadOnlyTransactionData(transactionData, entityManager, previous);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData) {
+            ReadOnlyTransactionData readOnly = (ReadOnlyTransactionData) transactionData;
+            readOnly.entityManager.setProperty(STORE_MODE, readOnly.previousStoreMode);
+            super.cleanupTransaction(readOnly.transactionData);
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static final class ReadOnlyTransactionData {
+        final Object transactionData;
+        final EntityManager entityManager;
+        final Object previousStoreMode;
+
+        ReadOnlyTransactionData(Object transactionData, EntityManager entityManager, Object previousStoreMode) {
+            this.transactionData = transactionData;
+            this.entityManager = entityManager;
+            this.previousStoreMode = previousStoreMode;
+        }
+    }
+}
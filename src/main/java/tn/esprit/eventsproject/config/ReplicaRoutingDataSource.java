@@ -0,0 +1,194 @@
+package tn.esprit.eventsproject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to the replicas, round-robin among those that
+ * answered the last check and lag the primary by at most {@code events.datasource.replica-max-lag};
+ * writes, reads outside a read-only transaction and reads with no replica available go to the primary.
+ * The lag comes from a heartbeat: every check stamps {@code replica_heartbeat} on the primary and reads
+ * the stamp back from each replica. Must sit behind a {@code LazyConnectionDataSourceProxy}, so that the
+ * connection is only taken once the transaction is known to be read-only.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+    private static final String READ_BEAT = "select beat from replica_heartbeat where id = 1";
+    private static final String UPDATE_BEAT = "update replica_heartbeat set beat = ? where id = 1";
+    private static final String CREATE_BEAT = "insert into replica_heartbeat (id, beat) values (1, ?)";
+
+    private final HikariDataSource primary;
+    private final JdbcTemplate primaryJdbc;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    // Last stamp written by this node, 0 before the first check
+    private long lastBeat;
+    private final Counter routedToPrimary;
+    private final Counter routedToReplica;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.maxLagMillis = maxLag.toMillis();
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool);
+            replicas.add(replica);
+            targets.put(replica.name, pool);
+            Gauge.builder("events.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .description("Heartbeat lag of the replica behind the primary, -1 when unknown")
+                    .baseUnit("milliseconds")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("events.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Whether read-only transactions are sent to the replica")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.routedToPrimary = routed(meterRegistry, PRIMARY);
+        this.routedToReplica = routed(meterRegistry, "replica");
+        this.fallbacks = routed(meterRegistry, "fallback");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            routedToPrimary.increment();
+            return primary.getConnection();
+        }
+        Replica replica;
+        while ((replica = nextAvailable()) != null) {
+            try {
+                Connection connection = replica.pool.getConnection();
+                routedToReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Skipped until a check finds it healthy again
+                replica.update(false, -1, e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Replica replica = nextAvailable();
+        return replica == null ? PRIMARY : replica.name;
+    }
+
+    /**
+     * Measures the lag of every replica, then stamps the primary for the next check.
+     */
+    @Scheduled(fixedDelayString = "${events.datasource.replica-check-ms:1000}")
+    public synchronized void checkReplicas() {
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicas) {
+            try {
+                List<Timestamp> beats = replica.jdbc.queryForList(READ_BEAT, Timestamp.class);
+                if (beats.isEmpty()) {
+                    replica.update(false, -1, "no heartbeat yet");
+                    continue;
+                }
+                // Against our last stamp, so a caught-up replica shows no lag whatever the check interval
+                long lag = Math.max(0, (lastBeat == 0 ? now : lastBeat) - beats.get(0).getTime());
+                replica.update(lag <= maxLagMillis, lag, lag <= maxLagMillis ? null : "lagging by " + lag + " ms");
+            } catch (DataAccessException e) {
+                replica.update(false, -1, e.getMessage());
+            }
+        }
+        try {
+            Timestamp beat = new Timestamp(now);
+            if (primaryJdbc.update(UPDATE_BEAT, beat) == 0) {
+                primaryJdbc.update(CREATE_BEAT, beat);
+            }
+            lastBeat = now;
+        } catch (DataIntegrityViolationException e) {
+            // Created by another node meanwhile
+            lastBeat = now;
+        } catch (DataAccessException e) {
+            log.warn("Could not stamp the replica heartbeat: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private Replica nextAvailable() {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("events.datasource.routed")
+                .description("Connections handed out, by data source")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource pool;
+        final JdbcTemplate jdbc;
+        // Unavailable until the first check has seen its heartbeat
+        volatile boolean available;
+        volatile long lagMillis = -1;
+
+        Replica(HikariDataSource pool) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+            this.jdbc = new JdbcTemplate(pool);
+        }
+
+        void update(boolean available, long lagMillis, String reason) {
+            if (this.available && !available) {
+                log.warn("Replica {} taken out of rotation: {}", name, reason);
+            } else if (!this.available && available) {
+                log.info("Replica {} back in rotation, {} ms behind", name, lagMillis);
+            }
+            this.available = available;
+            this.lagMillis = lagMillis;
+        }
+    }
+}
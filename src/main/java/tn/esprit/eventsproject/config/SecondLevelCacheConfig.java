@@ -0,0 +1,103 @@
+package tn.esprit.eventsproject.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.SharedCacheMode;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Turns on the Hibernate second-level and query caches, unless {@code events.cache.second-level.enabled}
+ * is false, on Caffeine-backed JCache regions bounded in size and time to live by the
+ * {@code events.cache.entities}, {@code .collections} and {@code .queries} settings. Regions not declared
+ * here make Hibernate fail at startup, so none ends up unbounded. Every region records Caffeine statistics
+ * and publishes them as {@code cache.*} meters tagged with its name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "events.cache.second-level.enabled", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    private static final List<Class<?>> ENTITIES = List.of(Event.class, Logistics.class, Participant.class);
+    private static final List<String> COLLECTIONS = List.of(
+            Event.class.getName() + ".participants",
+            Event.class.getName() + ".logistics",
+            Participant.class.getName() + ".events");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry,
+                                              @Value("${events.cache.entities.max-size:100000}") long entitySize,
+                                              @Value("${events.cache.entities.ttl:30m}") Duration entityTtl,
+                                              @Value("${events.cache.collections.max-size:20000}") long collectionSize,
+                                              @Value("${events.cache.collections.ttl:10m}") Duration collectionTtl,
+                                              @Value("${events.cache.queries.max-size:5000}") long querySize,
+                                              @Value("${events.cache.queries.ttl:5m}") Duration queryTtl) {
+        // One manager per application context, so test contexts never share regions
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        ENTITIES.forEach(entity -> createRegion(cacheManager, meterRegistry, entity.getName(), entitySize, entityTtl));
+        COLLECTIONS.forEach(role -> createRegion(cacheManager, meterRegistry, role, collectionSize, collectionTtl));
+        createRegion(cacheManager, meterRegistry, QUERY_RESULTS, querySize, queryTtl);
+        // One small entry per table; evicting one early would let stale query results through
+        createRegion(cacheManager, meterRegistry, UPDATE_TIMESTAMPS, 0, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            // Only the entities and collections marked @Cache
+            properties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    static String shortName(String region) {
+        return region.startsWith(Event.class.getPackageName() + ".")
+                ? region.substring(Event.class.getPackageName().length() + 1)
+                : region;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void createRegion(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                     String name, long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate entries are immutable snapshots: no need to copy them in and out
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        Cache<Object, Object> region = cacheManager.createCache(name, configuration);
+        CaffeineCacheMetrics.monitor(meterRegistry,
+                region.unwrap(com.github.benmanes.caffeine.cache.Cache.class), shortName(name));
+    }
+}
@@ -0,0 +1,93 @@
+package tn.esprit.eventsproject.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.eventsproject.dto.ImportReport;
+import tn.esprit.eventsproject.services.BulkImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Bulk counterparts of {@code addPart}, {@code addEvent} and {@code addAffectLog}. The request body
+ * is an NDJSON ({@code application/x-ndjson}) or CSV ({@code text/csv}, with a header line) upload.
+ * A client accepting {@code application/x-ndjson} is answered as the import goes: a line with the
+ * counts after each chunk, then the full report as the last line.
+ */
+@RequiredArgsConstructor
+@RequestMapping("event/import")
+@RestController
+public class BulkImportRestController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/participants", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ImportReport importParticipants(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        return bulkImportService.importParticipants(body, BulkImportService.Format.of(contentType));
+    }
+
+    @PostMapping(value = "/participants", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamImportParticipants(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        BulkImportService.Format format = BulkImportService.Format.of(contentType);
+        return withProgress(progress -> bulkImportService.importParticipants(body, format, progress));
+    }
+
+    @PostMapping(value = "/events", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ImportReport importEvents(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        return bulkImportService.importEvents(body, BulkImportService.Format.of(contentType));
+    }
+
+    @PostMapping(value = "/events", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamImportEvents(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        BulkImportService.Format format = BulkImportService.Format.of(contentType);
+        return withProgress(progress -> bulkImportService.importEvents(body, format, progress));
+    }
+
+    @PostMapping(value = "/logistics", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ImportReport importLogistics(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        return bulkImportService.importLogistics(body, BulkImportService.Format.of(contentType));
+    }
+
+    @PostMapping(value = "/logistics", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamImportLogistics(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        BulkImportService.Format format = BulkImportService.Format.of(contentType);
+        return withProgress(progress -> bulkImportService.importLogistics(body, format, progress));
+    }
+
+    // Each line is flushed as it is written, so the client sees every chunk once it is committed
+    private ResponseEntity<StreamingResponseBody> withProgress(Import upload) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                ImportReport report = upload.run(progress -> writeLine(generator, progress.progress()));
+                writeLine(generator, report);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) {
+        try {
+            objectMapper.writeValue(generator, value);
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Import {
+        ImportReport run(Consumer<ImportReport> progress) throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.CacheStatistics;
+import tn.esprit.eventsproject.services.SecondLevelCacheStats;
+
+@RequiredArgsConstructor
+@RequestMapping("event")
+@RestController
+public class CacheStatsRestController {
+
+    private final SecondLevelCacheStats cacheStats;
+
+    @GetMapping("/cache/stats")
+    public CacheStatistics getCacheStatistics(){
+        return cacheStats.statistics();
+    }
+}
@@ -0,0 +1,23 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+import tn.esprit.eventsproject.services.ChangeFeedService;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RequestMapping("event")
+@RestController
+public class ChangeFeedRestController {
+
+    private final ChangeFeedService changeFeedService;
+
+    // Change log from the given offset (the oldest retained one by default); continue from the last nextOffset
+    @GetMapping("/changes")
+    public List<ChangeRecord> getChanges(@RequestParam(value = "offset", required = false) Long offset,
+                                         @RequestParam(value = "limit", defaultValue = "100") int limit){
+        return changeFeedService.getChanges(offset, limit);
+    }
+}
@@ -0,0 +1,37 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.CostBuckets;
+import tn.esprit.eventsproject.dto.CostRollup;
+import tn.esprit.eventsproject.services.CostAnalyticsService;
+
+import java.time.LocalDate;
+
+@RequiredArgsConstructor
+@RequestMapping("event/analytics/costs")
+@RestController
+public class CostAnalyticsRestController {
+
+    private final CostAnalyticsService costAnalyticsService;
+
+    // Logistics cost per bucketDays-wide bucket of event start dates
+    @GetMapping("/{d1}/{d2}")
+    public CostBuckets getCostBuckets(@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin,
+                                      @RequestParam(value = "bucketDays", defaultValue = "7") int bucketDays){
+        return costAnalyticsService.getCostBuckets(date_debut, date_fin, bucketDays);
+    }
+    // Reserved cost per day / month of event start dates, read from the incremental rollups
+    @GetMapping("/daily/{d1}/{d2}")
+    public CostRollup getDailyCosts(@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin){
+        return costAnalyticsService.getCostRollup(CostRollup.Granularity.DAY, date_debut, date_fin);
+    }
+    @GetMapping("/monthly/{d1}/{d2}")
+    public CostRollup getMonthlyCosts(@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin){
+        return costAnalyticsService.getCostRollup(CostRollup.Granularity.MONTH, date_debut, date_fin);
+    }
+    @PostMapping("/rebuild")
+    public void rebuildCostRollups(){
+        costAnalyticsService.rebuildCostRollups();
+    }
+}
@@ -1,15 +1,42 @@
 package tn.esprit.eventsproject.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.eventsproject.dto.EventView;
+import tn.esprit.eventsproject.dto.LogisticsView;
+import tn.esprit.eventsproject.dto.ParticipantView;
+import tn.esprit.eventsproject.dto.RegistrationStatus;
 import tn.esprit.eventsproject.entities.Event;
 import tn.esprit.eventsproject.entities.Logistics;
 import tn.esprit.eventsproject.entities.Participant;
 import tn.esprit.eventsproject.services.IEventServices;
+import tn.esprit.eventsproject.services.LogisticsDatesService;
+import tn.esprit.eventsproject.services.ParticipantWriteBehind;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @RequestMapping("event")
@@ -17,25 +44,156 @@ import java.util.List;
 public class EventRestController {
     @Autowired
     private final IEventServices eventServices;
+    private final LogisticsDatesService logisticsDatesService;
+    private final ObjectMapper objectMapper;
+    // Spring MVC's async executor, applicationTaskExecutor
+    private final ThreadPoolTaskExecutor asyncExecutor;
 
     @PostMapping("/addPart")
-    public Participant addParticipant(@RequestBody Participant participant){
-        return eventServices.addParticipant(participant);
+    public ParticipantView addParticipant(@RequestBody Participant participant){
+        return ParticipantView.of(eventServices.addParticipant(participant));
+    }
+    // Returns at once with a ticket when registrations are written behind, see events.registration.write-behind
+    @PostMapping("/addPart/async")
+    public ResponseEntity<RegistrationStatus> addParticipantAsync(@RequestBody Participant participant){
+        RegistrationStatus status = eventServices.addParticipantAsync(participant);
+        if (status.getTicket() == null) {
+            return ResponseEntity.ok(status);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("tickets/" + status.getTicket()))
+                .body(status);
+    }
+    @GetMapping("/addPart/tickets/{ticket}")
+    public ResponseEntity<RegistrationStatus> getRegistration(@PathVariable("ticket") String ticket){
+        return ResponseEntity.of(eventServices.getRegistration(ticket));
+    }
+    @PostMapping("/addParts")
+    public List<ParticipantView> addParticipants(@RequestBody List<Participant> participants){
+        return views(eventServices.addParticipants(participants), ParticipantView::of);
     }
     @PostMapping("/addEvent/{id}")
-    public Event addEventPart(@RequestBody Event event, @PathVariable("id") int idPart){
-        return eventServices.addAffectEvenParticipant(event, idPart);
+    public EventView addEventPart(@RequestBody Event event, @PathVariable("id") int idPart){
+        return EventView.of(eventServices.addAffectEvenParticipant(event, idPart));
     }
     @PostMapping("/addEvent")
-    public Event addEvent(@RequestBody Event event){
-        return eventServices.addAffectEvenParticipant(event);
+    public EventView addEvent(@RequestBody Event event){
+        return EventView.of(eventServices.addAffectEvenParticipant(event));
     }
     @PutMapping("/addAffectLog/{description}")
-    public Logistics addAffectLog(@RequestBody Logistics logistics,@PathVariable("description") String descriptionEvent){
-        return eventServices.addAffectLog(logistics,descriptionEvent);
+    public LogisticsView addAffectLog(@RequestBody Logistics logistics,@PathVariable("description") String descriptionEvent){
+        return LogisticsView.of(eventServices.addAffectLog(logistics,descriptionEvent));
     }
+    @PutMapping("/addAffectLogs/{description}")
+    public List<LogisticsView> addAffectLogs(@RequestBody List<Logistics> logistics,@PathVariable("description") String descriptionEvent){
+        return views(eventServices.addAffectLogs(logistics,descriptionEvent), LogisticsView::of);
+    }
+    // overlap=true also returns events that started before d1 but are still running. The ETag changes with
+    // every write to the events of the range: If-None-Match with the current one gets a 304 without a query
     @GetMapping("/getLogs/{d1}/{d2}")
-    public List<Logistics> getLogistiquesDates (@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin){
-        return eventServices.getLogisticsDates(date_debut,date_fin);
+    public ResponseEntity<List<LogisticsView>> getLogistiquesDates (@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin,
+                                                                    @RequestParam(value = "overlap", defaultValue = "false") boolean overlap,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String version = logisticsDatesService.getLogisticsDatesVersion(date_debut, date_fin);
+        if (version != null && entityTags(ifNoneMatch).anyMatch(tag -> tag.equals("*") || tag.equals(version))) {
+            return notModified(version);
+        }
+        return logisticsDates(date_debut, date_fin, overlap, version);
+    }
+    // Long poll: answers at once unless If-None-Match holds the current ETag, then once the range changes,
+    // or with a 304 after timeout seconds
+    @GetMapping("/getLogs/{d1}/{d2}/poll")
+    public DeferredResult<ResponseEntity<List<LogisticsView>>> pollLogistiquesDates(@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin,
+                                                                                    @RequestParam(value = "overlap", defaultValue = "false") boolean overlap,
+                                                                                    @RequestParam(value = "timeout", defaultValue = "30") int timeout,
+                                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        DeferredResult<ResponseEntity<List<LogisticsView>>> result = new DeferredResult<>();
+        String seen = entityTags(ifNoneMatch).findFirst().orElse(null);
+        if (seen == null) {
+            result.setResult(logisticsDates(date_debut, date_fin, overlap, logisticsDatesService.getLogisticsDatesVersion(date_debut, date_fin)));
+            return result;
+        }
+        // Not on the thread that completes the wait, one of the few that wake every poll
+        logisticsDatesService.awaitLogisticsDatesChange(date_debut, date_fin, seen, Duration.ofSeconds(timeout))
+                .whenCompleteAsync((version, failure) -> {
+                    if (failure != null) {
+                        result.setErrorResult(failure);
+                    } else if (seen.equals(version)) {
+                        result.setResult(notModified(version));
+                    } else {
+                        result.setResult(logisticsDates(date_debut, date_fin, overlap, version));
+                    }
+                }, asyncExecutor);
+        return result;
+    }
+    @GetMapping(value = "/getLogs/{d1}/{d2}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLogistiquesDates(@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin,
+                                                                        @RequestParam(value = SparseFieldsAdvice.FIELDS_PARAM, required = false) String fields){
+        // Flushed by the servlet buffer, not after every line
+        ObjectWriter writer = objectMapper.writer(SparseFieldsAdvice.filters(fields))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = writer.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                eventServices.streamLogisticsDates(date_debut, date_fin, logistics -> {
+                    try {
+                        writer.writeValue(generator, LogisticsView.of(logistics));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> registrationQueueFull(RejectedExecutionException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+    // Queued behind, but not committed within events.registration.ack-timeout: the ticket tells how it ends
+    @ExceptionHandler(ParticipantWriteBehind.PendingRegistrationException.class)
+    public ResponseEntity<RegistrationStatus> registrationPending(ParticipantWriteBehind.PendingRegistrationException e){
+        return ResponseEntity.accepted()
+                .location(URI.create("addPart/tickets/" + e.getStatus().getTicket()))
+                .body(e.getStatus());
+    }
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> concurrentWrite(ConcurrencyFailureException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    // The version is read before the rows, which come from the primary, so a write in between can only make
+    // the ETag older than the rows
+    private ResponseEntity<List<LogisticsView>> logisticsDates(LocalDate date_debut, LocalDate date_fin, boolean overlap, String version){
+        List<LogisticsView> logistics = views(logisticsDatesService.getLogisticsDates(date_debut, date_fin, overlap), LogisticsView::of);
+        return version == null ? ResponseEntity.ok(logistics) : ResponseEntity.ok().eTag(entityTag(version)).body(logistics);
+    }
+
+    private static ResponseEntity<List<LogisticsView>> notModified(String version){
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag(version)).build();
+    }
+
+    // Weak: the body may go out gzipped, and Tomcat does not compress responses with a strong ETag
+    private static String entityTag(String version){
+        return "W/\"" + version + "\"";
+    }
+
+    // Versions listed in an If-None-Match header, weak or not
+    private static Stream<String> entityTags(String ifNoneMatch){
+        if (ifNoneMatch == null) {
+            return Stream.empty();
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .map(tag -> tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"") ? tag.substring(1, tag.length() - 1) : tag)
+                .filter(tag -> !tag.isEmpty());
+    }
+
+    private static <T, R> List<R> views(List<T> entities, Function<T, R> view){
+        return entities.stream().map(view).collect(Collectors.toList());
     }
 }
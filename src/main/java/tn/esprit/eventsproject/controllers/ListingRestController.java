@@ -0,0 +1,58 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.CursorPage;
+import tn.esprit.eventsproject.dto.EventView;
+import tn.esprit.eventsproject.dto.LogisticsView;
+import tn.esprit.eventsproject.dto.ParticipantView;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.services.ListingService;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset-paginated listings; continue with the returned nextCursor.
+ */
+@RequiredArgsConstructor
+@RequestMapping("event")
+@RestController
+public class ListingRestController {
+
+    private final ListingService listingService;
+
+    @GetMapping("/getLogs/{d1}/{d2}/page")
+    public CursorPage<LogisticsView> getLogistiquesDatesPage(@PathVariable("d1") LocalDate date_debut, @PathVariable("d2") LocalDate date_fin,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "size", defaultValue = "100") int size){
+        return views(listingService.getLogisticsDatesPage(date_debut, date_fin, cursor, size), LogisticsView::of);
+    }
+    @GetMapping("/events")
+    public CursorPage<EventView> getEventsPage(@RequestParam(value = "from", required = false) LocalDate date_debut,
+                                               @RequestParam(value = "to", required = false) LocalDate date_fin,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "size", defaultValue = "100") int size){
+        return views(listingService.getEventsPage(date_debut, date_fin, cursor, size), EventView::of);
+    }
+    @GetMapping("/participants")
+    public CursorPage<ParticipantView> getParticipantsPage(@RequestParam(value = "tache", required = false) Tache tache,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "size", defaultValue = "100") int size){
+        return views(listingService.getParticipantsPage(tache, cursor, size), ParticipantView::of);
+    }
+    @GetMapping("/logistics")
+    public CursorPage<LogisticsView> getLogisticsPage(@RequestParam(value = "reserve", required = false) Boolean reserve,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam(value = "size", defaultValue = "100") int size){
+        return views(listingService.getLogisticsPage(reserve, cursor, size), LogisticsView::of);
+    }
+
+    private static <T, R> CursorPage<R> views(CursorPage<T> page, Function<T, R> view){
+        return new CursorPage<>(page.getItems().stream().map(view).collect(Collectors.toList()), page.getNextCursor());
+    }
+}
@@ -0,0 +1,39 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.MembershipFootprint;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.services.MembershipService;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RequestMapping("event")
+@RestController
+public class MembershipRestController {
+
+    private final MembershipService membershipService;
+
+    // Events shared by all of the given participants
+    @GetMapping("/shared")
+    public int[] getSharedEvents(@RequestParam("participants") List<Integer> participantIds){
+        return membershipService.getSharedEvents(participantIds);
+    }
+    @GetMapping("/shared/count")
+    public int countSharedEvents(@RequestParam("participants") List<Integer> participantIds){
+        return membershipService.countSharedEvents(participantIds);
+    }
+    @GetMapping("/{id}/participants")
+    public int[] getEventParticipants(@PathVariable("id") int idEvent, @RequestParam("tache") Tache tache){
+        return membershipService.getEventParticipants(idEvent, tache);
+    }
+    @GetMapping("/{id}/participants/{idPart}")
+    public boolean isParticipating(@PathVariable("id") int idEvent, @PathVariable("idPart") int idPart){
+        return membershipService.isParticipating(idPart, idEvent);
+    }
+    @GetMapping("/membership/footprint")
+    public MembershipFootprint getMembershipFootprint(){
+        return membershipService.getMembershipFootprint();
+    }
+}
@@ -0,0 +1,19 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.ConflictReport;
+import tn.esprit.eventsproject.services.ScheduleConflictService;
+
+@RequiredArgsConstructor
+@RequestMapping("event")
+@RestController
+public class ScheduleConflictRestController {
+
+    private final ScheduleConflictService scheduleConflictService;
+
+    @GetMapping("/conflicts")
+    public ConflictReport getScheduleConflicts(@RequestParam(value = "limit", defaultValue = "100") int limit){
+        return scheduleConflictService.getScheduleConflicts(limit);
+    }
+}
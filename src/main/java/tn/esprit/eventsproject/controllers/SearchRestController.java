@@ -0,0 +1,26 @@
+package tn.esprit.eventsproject.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.eventsproject.dto.SearchResult;
+import tn.esprit.eventsproject.services.SearchService;
+
+@RequiredArgsConstructor
+@RequestMapping("event")
+@RestController
+public class SearchRestController {
+
+    private final SearchService searchService;
+
+    // Typo-tolerant search, as you type: every word of q may be the start of a word
+    @GetMapping("/search")
+    public SearchResult searchEvents(@RequestParam("q") String query,
+                                     @RequestParam(value = "limit", defaultValue = "20") int limit){
+        return searchService.searchEvents(query, limit);
+    }
+    @GetMapping("/participants/search")
+    public SearchResult searchParticipants(@RequestParam("q") String query,
+                                           @RequestParam(value = "limit", defaultValue = "20") int limit){
+        return searchService.searchParticipants(query, limit);
+    }
+}
@@ -0,0 +1,55 @@
+package tn.esprit.eventsproject.controllers;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import tn.esprit.eventsproject.dto.EventView;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets: {@code ?fields=idEvent,description} keeps only the listed properties of the event,
+ * participant and logistics views in a JSON response, wherever they are nested. Unknown names are
+ * ignored; without the parameter every property is written.
+ */
+@RestControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    static final String FIELDS_PARAM = "fields";
+    private static final FilterProvider ALL_FIELDS = filterOf(SimpleBeanPropertyFilter.serializeAll());
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        String fields = request instanceof ServletServerHttpRequest
+                ? ((ServletServerHttpRequest) request).getServletRequest().getParameter(FIELDS_PARAM)
+                : null;
+        bodyContainer.setFilters(filters(fields));
+    }
+
+    static FilterProvider filters(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL_FIELDS;
+        }
+        Set<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        return filterOf(SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    private static FilterProvider filterOf(SimpleBeanPropertyFilter filter) {
+        return new SimpleFilterProvider().addFilter(EventView.FIELDS_FILTER, filter);
+    }
+}
@@ -0,0 +1,18 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One participant booked on one event, with the event dates.
+ */
+@Getter
+@AllArgsConstructor
+public class Booking {
+    private final int idPart;
+    private final int idEvent;
+    private final LocalDate dateDebut;
+    private final LocalDate dateFin;
+}
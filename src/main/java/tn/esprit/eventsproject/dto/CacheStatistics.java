@@ -0,0 +1,37 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Hits, misses, evictions and size of every second-level cache region since startup. Hit ratios are
+ * 0 before the first lookup.
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStatistics {
+    private final boolean enabled;
+    private final List<Region> regions;
+
+    public double getHitRatio() {
+        long hits = regions.stream().mapToLong(Region::getHits).sum();
+        long lookups = hits + regions.stream().mapToLong(Region::getMisses).sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Value
+    public static class Region {
+        String name;
+        long size;
+        long hits;
+        long misses;
+        long evictions;
+
+        public double getHitRatio() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    }
+}
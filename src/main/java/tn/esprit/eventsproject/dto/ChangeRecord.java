@@ -0,0 +1,24 @@
+package tn.esprit.eventsproject.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change log. {@code offset} is its position in the log of the node that served it and
+ * {@code nextOffset} the position to read from next there; {@code outboxId} is the same on every node, so
+ * a reader moving to another node can skip what it has already seen. {@code payload} is the JSON of the
+ * change.
+ */
+@Value
+public class ChangeRecord {
+    long offset;
+    long nextOffset;
+    long outboxId;
+    String type;
+    int aggregateId;
+    Instant createdAt;
+    @JsonRawValue
+    String payload;
+}
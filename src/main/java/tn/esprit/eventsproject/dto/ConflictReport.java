@@ -0,0 +1,48 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Overlapping bookings found by a full schedule scan. {@code conflictCount} counts every
+ * overlapping pair; only the first {@code limit} are listed.
+ */
+@Getter
+public class ConflictReport {
+
+    private long participantsChecked;
+    private long bookingsChecked;
+    private long conflictCount;
+    private final List<Conflict> conflicts = new ArrayList<>();
+    private final int limit;
+
+    public ConflictReport(int limit) {
+        this.limit = limit;
+    }
+
+    public void record(long participants, long bookings) {
+        this.participantsChecked = participants;
+        this.bookingsChecked = bookings;
+    }
+
+    public void addConflict(int idPart, int firstEvent, int secondEvent, LocalDate from, LocalDate to) {
+        conflictCount++;
+        if (conflicts.size() < limit) {
+            conflicts.add(new Conflict(idPart, firstEvent, secondEvent, from, to));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Conflict {
+        private final int idPart;
+        private final int firstEvent;
+        private final int secondEvent;
+        private final LocalDate overlapStart;
+        private final LocalDate overlapEnd;
+    }
+}
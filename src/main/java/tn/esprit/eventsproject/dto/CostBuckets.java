@@ -0,0 +1,20 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Logistics cost summed per bucket of {@code bucketDays} days, by the start date of the event.
+ * Bucket {@code i} starts on {@code from + i * bucketDays}.
+ */
+@Getter
+@AllArgsConstructor
+public class CostBuckets {
+    private final boolean loaded;
+    private final LocalDate from;
+    private final int bucketDays;
+    private final double[] reserved;
+    private final double[] unreserved;
+}
@@ -0,0 +1,31 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reserved logistics cost per day or per month of the events' start date. Only periods with a cost
+ * are listed, in order; a monthly period is dated on the first of the month.
+ */
+@Getter
+@AllArgsConstructor
+public class CostRollup {
+
+    public enum Granularity {
+        DAY, MONTH
+    }
+
+    private final boolean loaded;
+    private final Granularity granularity;
+    private final List<Period> periods;
+
+    @Value
+    public static class Period {
+        LocalDate start;
+        double reserved;
+    }
+}
@@ -0,0 +1,69 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token wrapping the last
+ * returned ID, or the last date and ID for listings sorted by date; it is {@code null} on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public static String encodeCursor(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(decode(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public static String encodeCursor(LocalDate lastDate, int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((lastDate + "/" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns {@code null} for the first page.
+     */
+    public static DateKey decodeDateCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = decode(cursor).split("/", 2);
+            return new DateKey(LocalDate.parse(parts[0]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    @Value
+    public static class DateKey {
+        LocalDate date;
+        int id;
+    }
+}
@@ -0,0 +1,24 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.Getter;
+
+/**
+ * Stored and recomputed cost of one event, summed by the database, with the event version it was read at.
+ */
+@Getter
+public class EventCost {
+
+    private final int idEvent;
+    private final String description;
+    private final float storedCost;
+    private final int version;
+    private final float reservedCost;
+
+    public EventCost(int idEvent, String description, float storedCost, int version, Number reservedCost) {
+        this.idEvent = idEvent;
+        this.description = description;
+        this.storedCost = storedCost;
+        this.version = version;
+        this.reservedCost = reservedCost == null ? 0f : reservedCost.floatValue();
+    }
+}
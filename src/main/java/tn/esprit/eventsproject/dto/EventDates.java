@@ -0,0 +1,17 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Start and end date of one event, read without loading the entity.
+ */
+@Getter
+@AllArgsConstructor
+public class EventDates {
+    private final int idEvent;
+    private final LocalDate dateDebut;
+    private final LocalDate dateFin;
+}
@@ -0,0 +1,14 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ID and description of one event, read without loading the entity.
+ */
+@Getter
+@AllArgsConstructor
+public class EventDescription {
+    private final int idEvent;
+    private final String description;
+}
@@ -0,0 +1,24 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One event of a bulk import, with the IDs of its (existing) participants. In CSV the IDs are
+ * separated by {@code ;}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventImportRow {
+    private String description;
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private List<Integer> participants;
+}
@@ -0,0 +1,54 @@
+package tn.esprit.eventsproject.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+import org.hibernate.Hibernate;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Participant;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Event as returned by the API. Participants are listed by id, so the event/participant cycle is never
+ * walked; both collections are only listed when already loaded, never fetched for the response. The
+ * version is the one to send back when updating the event through {@code /addEvent}.
+ */
+@Value
+@JsonFilter(EventView.FIELDS_FILTER)
+public class EventView {
+
+    // Filter the ?fields= parameter applies to, see SparseFieldsAdvice
+    public static final String FIELDS_FILTER = "fields";
+
+    int idEvent;
+    String description;
+    LocalDate dateDebut;
+    LocalDate dateFin;
+    float cout;
+    int version;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<Integer> participants;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<LogisticsView> logistics;
+
+    public static EventView of(Event event) {
+        if (event == null) {
+            return null;
+        }
+        return new EventView(event.getIdEvent(), event.getDescription(), event.getDateDebut(), event.getDateFin(),
+                event.getCout(), event.getVersion(), ifLoaded(event.getParticipants(), Participant::getIdPart),
+                ifLoaded(event.getLogistics(), LogisticsView::of));
+    }
+
+    static <T, R> List<R> ifLoaded(Collection<T> collection, Function<T, R> mapper) {
+        if (collection == null || !Hibernate.isInitialized(collection)) {
+            return null;
+        }
+        return collection.stream().map(mapper).collect(Collectors.toList());
+    }
+}
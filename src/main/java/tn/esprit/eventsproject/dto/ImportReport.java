@@ -0,0 +1,70 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Record numbers are 1-based and count data records only (the CSV
+ * header is not a record) and errors are listed in the order they were found. At most
+ * {@link #MAX_ERRORS} errors are kept; {@code failed} still counts all of them.
+ */
+@Getter
+public class ImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private long received;
+    private long imported;
+    private long failed;
+    private int chunks;
+    private final List<RecordError> errors = new ArrayList<>();
+
+    public void recordReceived() {
+        received++;
+    }
+
+    public void recordImported(int count) {
+        imported += count;
+    }
+
+    public void recordFailure(long record, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RecordError(record, message));
+        }
+    }
+
+    public void chunkWritten() {
+        chunks++;
+    }
+
+    public boolean isErrorsTruncated() {
+        return failed > errors.size();
+    }
+
+    /**
+     * The counts so far, without the errors.
+     */
+    public Progress progress() {
+        return new Progress(received, imported, failed, chunks);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Progress {
+        private final long received;
+        private final long imported;
+        private final long failed;
+        private final int chunks;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RecordError {
+        private final long record;
+        private final String message;
+    }
+}
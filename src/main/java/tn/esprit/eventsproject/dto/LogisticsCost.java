@@ -0,0 +1,17 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The cost columns of one logistics row and its event, read without loading the entity.
+ */
+@Getter
+@AllArgsConstructor
+public class LogisticsCost {
+    private final int idEvent;
+    private final int idLog;
+    private final boolean reserve;
+    private final float prixUnit;
+    private final int quantite;
+}
@@ -0,0 +1,21 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One logistics line of a bulk import, attached to the event whose description is {@code event}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogisticsImportRow {
+    private String event;
+    private String description;
+    private boolean reserve;
+    private float prixUnit;
+    private int quantite;
+}
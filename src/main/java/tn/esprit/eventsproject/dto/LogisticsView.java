@@ -0,0 +1,26 @@
+package tn.esprit.eventsproject.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Value;
+import tn.esprit.eventsproject.entities.Logistics;
+
+/**
+ * Logistics as returned by the API.
+ */
+@Value
+@JsonFilter(EventView.FIELDS_FILTER)
+public class LogisticsView {
+    int idLog;
+    String description;
+    boolean reserve;
+    float prixUnit;
+    int quantite;
+
+    public static LogisticsView of(Logistics logistics) {
+        if (logistics == null) {
+            return null;
+        }
+        return new LogisticsView(logistics.getIdLog(), logistics.getDescription(), logistics.isReserve(),
+                logistics.getPrixUnit(), logistics.getQuantite());
+    }
+}
@@ -0,0 +1,16 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tn.esprit.eventsproject.entities.Tache;
+
+/**
+ * One participant and one of its events, or no event ({@code idEvent} null) for a participant without any.
+ */
+@Getter
+@AllArgsConstructor
+public class Membership {
+    private final int idPart;
+    private final Tache tache;
+    private final Integer idEvent;
+}
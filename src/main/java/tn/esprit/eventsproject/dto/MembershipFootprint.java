@@ -0,0 +1,23 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Memory held by the membership bitmaps. {@code heapBytes} is the in-memory size of the bitmaps
+ * themselves (map entries excluded), {@code serializedBytes} their portable serialized size.
+ */
+@Getter
+@AllArgsConstructor
+public class MembershipFootprint {
+    private final boolean loaded;
+    private final int participants;
+    private final int events;
+    private final long links;
+    private final long heapBytes;
+    private final long serializedBytes;
+
+    public double getBytesPerLink() {
+        return links == 0 ? 0 : (double) heapBytes / links;
+    }
+}
@@ -0,0 +1,32 @@
+package tn.esprit.eventsproject.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+
+import java.util.List;
+
+/**
+ * Participant as returned by the API, with its events listed by id when already loaded.
+ */
+@Value
+@JsonFilter(EventView.FIELDS_FILTER)
+public class ParticipantView {
+    int idPart;
+    String nom;
+    String prenom;
+    Tache tache;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<Integer> events;
+
+    public static ParticipantView of(Participant participant) {
+        if (participant == null) {
+            return null;
+        }
+        return new ParticipantView(participant.getIdPart(), participant.getNom(), participant.getPrenom(),
+                participant.getTache(), EventView.ifLoaded(participant.getEvents(), Event::getIdEvent));
+    }
+}
@@ -0,0 +1,22 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * State of a participant registration. {@code idPart} is set once it is committed, {@code error}
+ * when it failed; {@code ticket} is null for a registration written right away.
+ */
+@Getter
+@AllArgsConstructor
+public class RegistrationStatus {
+
+    public enum State {
+        PENDING, COMMITTED, FAILED
+    }
+
+    private final String ticket;
+    private final State state;
+    private final Integer idPart;
+    private final String error;
+}
@@ -0,0 +1,14 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Searchable text of one event or participant, read without loading the entity.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchDocument {
+    private final int id;
+    private final String text;
+}
@@ -0,0 +1,31 @@
+package tn.esprit.eventsproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Best matches of a search, best first: documents matching every query word exactly, then those where
+ * each word is at least a prefix of one of theirs, then those where some word only matched with a typo.
+ * Empty, with {@code loaded} false, until the search index has finished loading.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchResult {
+
+    public enum Match {
+        EXACT, PREFIX, FUZZY
+    }
+
+    private final boolean loaded;
+    private final List<Hit> hits;
+
+    @Value
+    public static class Hit {
+        int id;
+        String text;
+        Match match;
+    }
+}
@@ -2,6 +2,8 @@ package tn.esprit.eventsproject.entities;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -14,18 +16,36 @@ import java.util.Set;
 @NoArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        // Not unique: descriptions were never constrained and older tables hold duplicates, see findIdByDescription
+        @Index(name = "ix_event_description", columnList = "description"),
+        @Index(name = "ix_event_date_debut", columnList = "dateDebut, idEvent"),
+        @Index(name = "ix_event_date_fin", columnList = "dateFin")})
 public class Event implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     int idEvent;
     String description;
     LocalDate dateDebut;
     LocalDate dateFin;
     float cout;
+    // Bumped by every write to the row, cost deltas included, so a stale copy cannot be merged back.
+    // Defaults to 0 for rows inserted outside JPA (bulk SQL, seeding scripts)
+    @Version
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    int version;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(mappedBy = "events")
     private Set<Participant> participants;
 
-    @OneToMany(fetch = FetchType.EAGER,cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OneToMany(cascade = CascadeType.ALL)
+    @JoinTable(name = "event_logistics",
+            joinColumns = @JoinColumn(name = "event_id_event"),
+            inverseJoinColumns = @JoinColumn(name = "logistics_id_log"))
     private Set<Logistics> logistics;
 
     public Event(int i, String sampleEvent) {
@@ -2,11 +2,10 @@ package tn.esprit.eventsproject.entities;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
+import javax.persistence.*;
 import java.io.Serializable;
 
 @Getter
@@ -15,9 +14,14 @@ import java.io.Serializable;
 @NoArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Keyset pages of reserved or unreserved logistics, see LogisticsRepository.findByReserveAfter
+@Table(indexes = @Index(name = "ix_logistics_reserve", columnList = "reserve, idLog"))
 public class Logistics implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "logistics_seq")
+    @SequenceGenerator(name = "logistics_seq", sequenceName = "logistics_seq", allocationSize = 50)
     int idLog;
     String description;
     boolean reserve;
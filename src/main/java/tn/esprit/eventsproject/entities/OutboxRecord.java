@@ -0,0 +1,36 @@
+package tn.esprit.eventsproject.entities;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A change, shared by every node: each one copies the rows to its own change log. Rows are written and
+ * deleted by {@code ChangeOutbox} and {@code OutboxRelay} with plain JDBC, so the identity column costs
+ * no extra round trip. {@code origin} is the node that made the change.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(indexes = @Index(name = "ix_outbox_record_created_at", columnList = "createdAt"))
+public class OutboxRecord implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    long id;
+    @Column(nullable = false, length = 16)
+    String type;
+    int aggregateId;
+    @Column(nullable = false, length = 128)
+    String origin;
+    @Lob
+    @Column(nullable = false)
+    String payload;
+    @Column(nullable = false)
+    Instant createdAt;
+}
@@ -2,6 +2,8 @@ package tn.esprit.eventsproject.entities;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -14,15 +16,24 @@ import java.util.Set;
 @NoArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Keyset pages of one task, see ParticipantRepository.findByTacheAfter
+@Table(indexes = @Index(name = "ix_participant_tache", columnList = "tache, idPart"))
 public class Participant implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participant_seq")
+    @SequenceGenerator(name = "participant_seq", sequenceName = "participant_seq", allocationSize = 50)
     int idPart;
     String nom;
     String prenom;
     @Enumerated(EnumType.STRING)
     Tache tache;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany
+    @JoinTable(name = "participant_events",
+            joinColumns = @JoinColumn(name = "participants_id_part"),
+            inverseJoinColumns = @JoinColumn(name = "events_id_event"))
     private Set<Event> events;
 
     public Participant(int i, String john, String doe) {
@@ -0,0 +1,25 @@
+package tn.esprit.eventsproject.entities;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Last time the primary was stamped, read back from the replicas to measure their lag. The single
+ * row is written by {@code ReplicaRoutingDataSource}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+public class ReplicaHeartbeat implements Serializable {
+    @Id
+    int id;
+    Instant beat;
+}
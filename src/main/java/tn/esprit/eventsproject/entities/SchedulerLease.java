@@ -0,0 +1,25 @@
+package tn.esprit.eventsproject.entities;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Which node runs a scheduled job, and until when. Rows are written by {@code DatabaseLease}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+public class SchedulerLease implements Serializable {
+    @Id
+    String name;
+    String owner;
+    Instant expiresAt;
+}
@@ -0,0 +1,92 @@
+package tn.esprit.eventsproject.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Keeps the second-level and query caches in step with rows written through JDBC, behind Hibernate's
+ * back. Inside a transaction the written entries are soft-locked and their tables pre-invalidated, as
+ * Hibernate does for its own writes, so no session caches the old state before the commit; outside one
+ * they are simply evicted. Does nothing while the second-level cache is off.
+ */
+@RequiredArgsConstructor
+class CacheInvalidator {
+
+    private final EntityManager entityManager;
+
+    void entityWritten(Class<?> entity, Collection<? extends Serializable> ids) {
+        SessionFactoryImplementor factory = factory();
+        if (ids.isEmpty() || !factory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        EntityPersister persister = factory.getMetamodel().entityPersister(entity);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (persister.canWriteToCache()) {
+                ids.forEach(id -> factory.getCache().evictEntityData(entity, id));
+            }
+            factory.getCache().evictQueryRegions();
+            return;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        if (persister.canWriteToCache()) {
+            EntityDataAccess access = persister.getCacheAccessStrategy();
+            for (Serializable id : ids) {
+                Object key = access.generateCacheKey(id, persister, factory, session.getTenantIdentifier());
+                SoftLock lock = access.lockItem(session, key, null);
+                session.getActionQueue().registerProcess((success, s) -> access.unlockItem(s, key, lock));
+            }
+        }
+        invalidateSpaces(session, persister.getPropertySpaces());
+    }
+
+    void collectionWritten(Class<?> owner, String property, Collection<? extends Serializable> ownerIds) {
+        SessionFactoryImplementor factory = factory();
+        if (ownerIds.isEmpty() || !factory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        String role = owner.getName() + "." + property;
+        CollectionPersister persister = factory.getMetamodel().collectionPersister(role);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (persister.hasCache()) {
+                ownerIds.forEach(id -> factory.getCache().evictCollectionData(role, id));
+            }
+            factory.getCache().evictQueryRegions();
+            return;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        if (persister.hasCache()) {
+            CollectionDataAccess access = persister.getCacheAccessStrategy();
+            for (Serializable id : ownerIds) {
+                Object key = access.generateCacheKey(id, persister, factory, session.getTenantIdentifier());
+                SoftLock lock = access.lockItem(session, key, null);
+                session.getActionQueue().registerProcess((success, s) -> access.unlockItem(s, key, lock));
+            }
+        }
+        invalidateSpaces(session, persister.getCollectionSpaces());
+    }
+
+    private SessionFactoryImplementor factory() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+    }
+
+    private static void invalidateSpaces(SessionImplementor session, Serializable[] spaces) {
+        if (!session.getFactory().getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+        // Cached results stay stale until the commit, then until the tables are written again
+        session.getFactory().getCache().getTimestampsCache().preInvalidate(spaces, session);
+        session.getActionQueue().registerProcess((success, s) ->
+                s.getFactory().getCache().getTimestampsCache().invalidate(spaces, s));
+    }
+}
@@ -1,18 +1,89 @@
 package tn.esprit.eventsproject.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.dto.EventCost;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.EventDescription;
+import tn.esprit.eventsproject.dto.SearchDocument;
 import tn.esprit.eventsproject.entities.Event;
 import tn.esprit.eventsproject.entities.Tache;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface EventRepository extends JpaRepository<Event, Integer> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
+public interface EventRepository extends JpaRepository<Event, Integer>, EventRepositoryCustom {
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Event findByDescription(String description);
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Event> findByDateDebutBetween(LocalDate date1, LocalDate date2);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Event> findByParticipants_NomAndParticipants_PrenomAndParticipants_Tache(String nom, String prenom, Tache tache);
 
+    // The first event wins when a description is shared, in both lookups
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select min(e.idEvent) from Event e where e.description = :description")
+    Optional<Integer> findIdByDescription(@Param("description") String description);
+
+    @Query("select new tn.esprit.eventsproject.dto.EventDescription(min(e.idEvent), e.description) from Event e "
+            + "where e.description in :descriptions group by e.description")
+    List<EventDescription> findIdsByDescriptions(@Param("descriptions") Collection<String> descriptions);
+
+    @Query("select e.description from Event e where e.description in :descriptions")
+    Set<String> findExistingDescriptions(@Param("descriptions") Collection<String> descriptions);
+
+    // An event without an end date lasts its start day, as in EventIntervalIndex
+    @Query("select e.idEvent from Event e where e.dateDebut <= :dateFin and coalesce(e.dateFin, e.dateDebut) >= :dateDebut")
+    List<Integer> findIdsOverlapping(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.dto.EventDates(e.idEvent, e.dateDebut, e.dateFin) from Event e "
+            + "where e.dateDebut is not null order by e.dateDebut, e.idEvent")
+    Stream<EventDates> streamDates();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.dto.SearchDocument(e.idEvent, e.description) from Event e "
+            + "where e.description is not null")
+    Stream<SearchDocument> streamDescriptions();
+
+    // Read-only so that it can be served by a replica: updateCout only applies to the version read here
+    @Transactional(readOnly = true)
+    @Query("select new tn.esprit.eventsproject.dto.EventCost(e.idEvent, e.description, e.cout, e.version, sum(l.prixUnit * l.quantite)) "
+            + "from Event e left join e.logistics l on l.reserve = true "
+            + "where e.idEvent > :afterId "
+            + "group by e.idEvent, e.description, e.cout, e.version "
+            + "order by e.idEvent")
+    List<EventCost> findCostsAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("select e from Event e where e.idEvent > :afterId order by e.idEvent")
+    List<Event> findAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    // Seeks ix_event_date_debut (dateDebut, idEvent) to the cursor and reads the page in index order
+    @Query("select e from Event e where e.dateDebut between :dateDebut and :dateFin "
+            + "and e.dateDebut >= :afterDate and (e.dateDebut > :afterDate or e.idEvent > :afterId) "
+            + "order by e.dateDebut, e.idEvent")
+    List<Event> findBetweenAfter(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin,
+                                 @Param("afterDate") LocalDate afterDate, @Param("afterId") int afterId,
+                                 Pageable pageable);
+
+    @Modifying
+    @Query("update Event e set e.cout = :cout, e.version = e.version + 1 where e.idEvent = :idEvent and e.version = :version")
+    int updateCout(@Param("idEvent") int idEvent, @Param("cout") float cout, @Param("version") int version);
 
-}
\ No newline at end of file
+}
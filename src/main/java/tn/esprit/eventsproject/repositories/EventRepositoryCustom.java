@@ -0,0 +1,12 @@
+package tn.esprit.eventsproject.repositories;
+
+import java.util.Collection;
+
+public interface EventRepositoryCustom {
+
+    void addLogisticsToEvent(int idEvent, int idLog);
+
+    void addLogisticsToEvent(int idEvent, Collection<Integer> idLogs);
+
+    int addToCout(int idEvent, float delta);
+}
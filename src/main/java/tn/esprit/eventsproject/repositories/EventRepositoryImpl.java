@@ -0,0 +1,52 @@
+package tn.esprit.eventsproject.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.entities.Event;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appends {@code event_logistics} rows without initialising {@code Event.logistics}, and moves the
+ * stored cost of an event without loading it. Both go through JDBC: a bulk JPQL update would empty the
+ * whole {@code Event} cache region, where only the written entries are invalidated here.
+ */
+public class EventRepositoryImpl implements EventRepositoryCustom {
+
+    static final int BATCH_SIZE = 500;
+    private static final String INSERT_EVENT_LOGISTICS =
+            "insert into event_logistics (event_id_event, logistics_id_log) values (?, ?)";
+    private static final String ADD_TO_COUT =
+            "update event set cout = cout + ?, version = version + 1 where id_event = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+
+    public EventRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = new CacheInvalidator(entityManager);
+    }
+
+    @Override
+    public void addLogisticsToEvent(int idEvent, int idLog) {
+        jdbcTemplate.update(INSERT_EVENT_LOGISTICS, idEvent, idLog);
+        cacheInvalidator.collectionWritten(Event.class, "logistics", List.of(idEvent));
+    }
+
+    @Override
+    public void addLogisticsToEvent(int idEvent, Collection<Integer> idLogs) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT_LOGISTICS, idLogs, BATCH_SIZE, (ps, idLog) -> {
+            ps.setInt(1, idEvent);
+            ps.setInt(2, idLog);
+        });
+        cacheInvalidator.collectionWritten(Event.class, "logistics", List.of(idEvent));
+    }
+
+    @Override
+    public int addToCout(int idEvent, float delta) {
+        int updated = jdbcTemplate.update(ADD_TO_COUT, delta, idEvent);
+        cacheInvalidator.entityWritten(Event.class, List.of(idEvent));
+        return updated;
+    }
+}
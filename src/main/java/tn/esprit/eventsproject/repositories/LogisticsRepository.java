@@ -1,10 +1,59 @@
 package tn.esprit.eventsproject.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import tn.esprit.eventsproject.dto.LogisticsCost;
 import tn.esprit.eventsproject.entities.Logistics;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface LogisticsRepository extends JpaRepository<Logistics, Integer> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new tn.esprit.eventsproject.entities.Logistics(l.idLog, l.description, l.reserve, l.prixUnit, l.quantite) "
+            + "from Event e join e.logistics l "
+            + "where e.dateDebut between :dateDebut and :dateFin and l.reserve = true")
+    List<Logistics> findReservedBetween(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    // Constructor expressions keep the rows out of the persistence context, so streaming a large range stays flat
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.entities.Logistics(l.idLog, l.description, l.reserve, l.prixUnit, l.quantite) "
+            + "from Event e join e.logistics l "
+            + "where e.dateDebut between :dateDebut and :dateFin and l.reserve = true "
+            + "order by l.idLog")
+    Stream<Logistics> streamReservedBetween(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    @Query("select new tn.esprit.eventsproject.entities.Logistics(l.idLog, l.description, l.reserve, l.prixUnit, l.quantite) "
+            + "from Event e join e.logistics l "
+            + "where e.dateDebut between :dateDebut and :dateFin and l.reserve = true and l.idLog > :afterId "
+            + "order by l.idLog")
+    List<Logistics> findReservedBetweenAfter(@Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin,
+                                             @Param("afterId") int afterId, Pageable pageable);
+
+    @Query("select new tn.esprit.eventsproject.entities.Logistics(l.idLog, l.description, l.reserve, l.prixUnit, l.quantite) "
+            + "from Event e join e.logistics l "
+            + "where e.idEvent in :eventIds and l.reserve = true")
+    List<Logistics> findReservedForEvents(@Param("eventIds") Collection<Integer> eventIds);
+
+    @Query("select l from Logistics l where l.idLog > :afterId order by l.idLog")
+    List<Logistics> findAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("select l from Logistics l where l.reserve = :reserve and l.idLog > :afterId order by l.idLog")
+    List<Logistics> findByReserveAfter(@Param("reserve") boolean reserve, @Param("afterId") int afterId, Pageable pageable);
 
-}
\ No newline at end of file
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.dto.LogisticsCost(e.idEvent, l.idLog, l.reserve, l.prixUnit, l.quantite) "
+            + "from Event e join e.logistics l")
+    Stream<LogisticsCost> streamCosts();
+}
@@ -1,7 +1,78 @@
 package tn.esprit.eventsproject.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import tn.esprit.eventsproject.dto.Booking;
+import tn.esprit.eventsproject.dto.Membership;
+import tn.esprit.eventsproject.dto.SearchDocument;
 import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
 
-public interface ParticipantRepository extends JpaRepository<Participant, Integer> {
-}
\ No newline at end of file
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface ParticipantRepository extends JpaRepository<Participant, Integer>, ParticipantRepositoryCustom {
+
+    @Query("select p.idPart from Participant p where p.idPart in :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("select p.idPart from Participant p where p.idPart in :ids and p.tache in :taches")
+    Set<Integer> findIdsWithTache(@Param("ids") Collection<Integer> ids, @Param("taches") Collection<Tache> taches);
+
+    @Query("select p.idPart from Participant p join p.events e where e.idEvent = :idEvent and p.idPart in :ids")
+    Set<Integer> findIdsAlreadyInEvent(@Param("idEvent") int idEvent, @Param("ids") Collection<Integer> ids);
+
+    @Query("select new tn.esprit.eventsproject.dto.Booking(p.idPart, e.idEvent, e.dateDebut, e.dateFin) "
+            + "from Participant p join p.events e "
+            + "where p.idPart in :ids and p.tache in :taches and e.idEvent <> :idEvent "
+            + "and e.dateDebut <= :dateFin and coalesce(e.dateFin, e.dateDebut) >= :dateDebut")
+    List<Booking> findBookingsOverlapping(@Param("ids") Collection<Integer> ids, @Param("taches") Collection<Tache> taches,
+                                          @Param("idEvent") int idEvent,
+                                          @Param("dateDebut") LocalDate dateDebut, @Param("dateFin") LocalDate dateFin);
+
+    // Sorted the way ScheduleSweep consumes them
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.dto.Booking(p.idPart, e.idEvent, e.dateDebut, e.dateFin) "
+            + "from Participant p join p.events e "
+            + "where p.tache in :taches and e.dateDebut is not null "
+            + "order by p.idPart, e.dateDebut, e.idEvent")
+    Stream<Booking> streamBookings(@Param("taches") Collection<Tache> taches);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select p.idPart from Participant p join p.events e where e.idEvent = :idEvent and p.tache = :tache order by p.idPart")
+    List<Integer> findIdsInEvent(@Param("idEvent") int idEvent, @Param("tache") Tache tache);
+
+    @Query("select p from Participant p where p.idPart > :afterId order by p.idPart")
+    List<Participant> findAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("select p from Participant p where p.tache = :tache and p.idPart > :afterId order by p.idPart")
+    List<Participant> findByTacheAfter(@Param("tache") Tache tache, @Param("afterId") int afterId, Pageable pageable);
+
+    // Events linked to all of the given participants
+    @Query("select e.idEvent from Participant p join p.events e where p.idPart in :ids "
+            + "group by e.idEvent having count(p.idPart) = :count order by e.idEvent")
+    List<Integer> findSharedEventIds(@Param("ids") Collection<Integer> ids, @Param("count") long count);
+
+    // Sorted by participant so that each of its bitmaps is filled in one go
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.dto.Membership(p.idPart, p.tache, e.idEvent) "
+            + "from Participant p left join p.events e "
+            + "order by p.idPart, e.idEvent")
+    Stream<Membership> streamMemberships();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new tn.esprit.eventsproject.dto.SearchDocument(p.idPart, "
+            + "concat(coalesce(p.nom, ''), ' ', coalesce(p.prenom, ''))) from Participant p")
+    Stream<SearchDocument> streamNames();
+}
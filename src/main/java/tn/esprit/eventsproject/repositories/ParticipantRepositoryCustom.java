@@ -0,0 +1,11 @@
+package tn.esprit.eventsproject.repositories;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ParticipantRepositoryCustom {
+
+    void addEventToParticipants(int idEvent, Collection<Integer> participantIds);
+
+    void addParticipations(Map<Integer, ? extends Collection<Integer>> participantIdsByEvent);
+}
@@ -0,0 +1,62 @@
+package tn.esprit.eventsproject.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Participant;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes {@code participant_events} rows straight through JDBC batches. Going through
+ * {@code Participant.getEvents().add(..)} would load every participant's event set first.
+ */
+public class ParticipantRepositoryImpl implements ParticipantRepositoryCustom {
+
+    static final int BATCH_SIZE = 500;
+    private static final String INSERT_PARTICIPATION =
+            "insert into participant_events (participants_id_part, events_id_event) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+
+    public ParticipantRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = new CacheInvalidator(entityManager);
+    }
+
+    @Override
+    public void addEventToParticipants(int idEvent, Collection<Integer> participantIds) {
+        jdbcTemplate.batchUpdate(INSERT_PARTICIPATION, participantIds, BATCH_SIZE, (ps, idPart) -> {
+            ps.setInt(1, idPart);
+            ps.setInt(2, idEvent);
+        });
+        participationsWritten(List.of(idEvent), participantIds);
+    }
+
+    @Override
+    public void addParticipations(Map<Integer, ? extends Collection<Integer>> participantIdsByEvent) {
+        List<int[]> rows = new ArrayList<>();
+        Set<Integer> participantIds = new HashSet<>();
+        participantIdsByEvent.forEach((idEvent, ids) -> ids.forEach(idPart -> {
+            rows.add(new int[]{idPart, idEvent});
+            participantIds.add(idPart);
+        }));
+        jdbcTemplate.batchUpdate(INSERT_PARTICIPATION, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setInt(1, row[0]);
+            ps.setInt(2, row[1]);
+        });
+        participationsWritten(participantIdsByEvent.keySet(), participantIds);
+    }
+
+    // Both sides of the many-to-many are cached
+    private void participationsWritten(Collection<Integer> eventIds, Collection<Integer> participantIds) {
+        cacheInvalidator.collectionWritten(Participant.class, "events", participantIds);
+        cacheInvalidator.collectionWritten(Event.class, "participants", eventIds);
+    }
+}
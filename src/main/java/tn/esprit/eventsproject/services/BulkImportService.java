@@ -0,0 +1,465 @@
+package tn.esprit.eventsproject.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.dto.EventImportRow;
+import tn.esprit.eventsproject.dto.ImportReport;
+import tn.esprit.eventsproject.dto.LogisticsImportRow;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports participants, events and logistics from NDJSON or CSV uploads. Records are parsed one at
+ * a time and written in chunks of {@code events.import.chunk-size}, each chunk in its own
+ * transaction, so memory use does not depend on the upload size. Logistics are written in one
+ * transaction per event of the chunk, under its {@link EventWriteGuard} stripe as
+ * {@link IEventServices#addAffectLogs} does. Invalid records are reported and skipped with the
+ * {@link RecordRules} of {@link IEventServices}; a write that fails is rolled back and its records
+ * reported as a whole. The {@code progress} callback is given the report after each chunk.
+ */
+@Slf4j
+@Service
+public class BulkImportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format of(MediaType contentType) {
+            if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+                return NDJSON;
+            }
+            if (MediaType.parseMediaType("text/csv").isCompatibleWith(contentType)) {
+                return CSV;
+            }
+            throw new IllegalArgumentException("Unsupported import format: " + contentType);
+        }
+    }
+
+    private final EventRepository eventRepository;
+    private final ParticipantRepository participantRepository;
+    private final LogisticsRepository logisticsRepository;
+    private final EventCostEngine costEngine;
+    private final EventDescriptionCache descriptionCache;
+    private final ScheduleConflictDetector conflictDetector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventWriteGuard writeGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final int chunkSize;
+
+    public BulkImportService(EventRepository eventRepository,
+                             ParticipantRepository participantRepository,
+                             LogisticsRepository logisticsRepository,
+                             EventCostEngine costEngine,
+                             EventDescriptionCache descriptionCache,
+                             ScheduleConflictDetector conflictDetector,
+                             ApplicationEventPublisher eventPublisher,
+                             EventWriteGuard writeGuard,
+                             TransactionTemplate transactionTemplate,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper,
+                             @Value("${events.import.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Import chunk size must be positive");
+        }
+        this.eventRepository = eventRepository;
+        this.participantRepository = participantRepository;
+        this.logisticsRepository = logisticsRepository;
+        this.costEngine = costEngine;
+        this.descriptionCache = descriptionCache;
+        this.conflictDetector = conflictDetector;
+        this.eventPublisher = eventPublisher;
+        this.writeGuard = writeGuard;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder().addModule(new JavaTimeModule()).build();
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importParticipants(InputStream in, Format format) throws IOException {
+        return importParticipants(in, format, report -> { });
+    }
+
+    public ImportReport importParticipants(InputStream in, Format format, Consumer<ImportReport> progress) throws IOException {
+        return importRecords(in, format, Participant.class, progress, new ChunkWriter<Participant>() {
+            @Override
+            public List<Numbered<Participant>> validate(List<Numbered<Participant>> chunk, ImportReport report) {
+                List<Numbered<Participant>> valid = new ArrayList<>(chunk.size());
+                for (Numbered<Participant> record : chunk) {
+                    String violation = RecordRules.checkParticipant(record.value);
+                    if (violation != null) {
+                        report.recordFailure(record.number, violation);
+                    } else {
+                        valid.add(record);
+                    }
+                }
+                return valid;
+            }
+
+            @Override
+            public void write(List<Numbered<Participant>> records) {
+                List<Participant> participants = new ArrayList<>(records.size());
+                for (Numbered<Participant> record : records) {
+                    // Imports only create participants: an id or event set in the upload must not update existing rows
+                    record.value.setIdPart(0);
+                    record.value.setEvents(null);
+                    participants.add(record.value);
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Participant participant : participantRepository.saveAll(participants)) {
+                        eventPublisher.publishEvent(ParticipantChange.of(participant));
+                    }
+                });
+            }
+        });
+    }
+
+    public ImportReport importEvents(InputStream in, Format format) throws IOException {
+        return importEvents(in, format, report -> { });
+    }
+
+    public ImportReport importEvents(InputStream in, Format format, Consumer<ImportReport> progress) throws IOException {
+        return importRecords(in, format, EventImportRow.class, progress, new ChunkWriter<EventImportRow>() {
+            @Override
+            public List<Numbered<EventImportRow>> validate(List<Numbered<EventImportRow>> chunk, ImportReport report) {
+                Set<Integer> participantIds = new HashSet<>();
+                Set<String> descriptions = new HashSet<>();
+                for (Numbered<EventImportRow> record : chunk) {
+                    if (record.value != null) {
+                        Optional.ofNullable(record.value.getParticipants()).ifPresent(participantIds::addAll);
+                        Optional.ofNullable(record.value.getDescription()).ifPresent(descriptions::add);
+                    }
+                }
+                participantIds.remove(null);
+                Set<Integer> existingIds = participantIds.isEmpty()
+                        ? Collections.emptySet()
+                        : participantRepository.findExistingIds(participantIds);
+                Set<String> takenDescriptions = descriptions.isEmpty()
+                        ? new HashSet<>()
+                        : new HashSet<>(eventRepository.findExistingDescriptions(descriptions));
+
+                List<Numbered<EventImportRow>> valid = new ArrayList<>(chunk.size());
+                for (Numbered<EventImportRow> record : chunk) {
+                    EventImportRow row = record.value;
+                    String violation;
+                    if (row == null) {
+                        violation = "Event cannot be null";
+                    } else if (row.getDescription() == null || row.getDescription().isEmpty()) {
+                        violation = "Event description cannot be null";
+                    } else {
+                        violation = RecordRules.checkParticipants(row.getParticipants(), existingIds);
+                    }
+                    if (violation == null && !takenDescriptions.add(row.getDescription())) {
+                        violation = "Event already exists with description: " + row.getDescription();
+                    }
+                    if (violation == null) {
+                        valid.add(record);
+                    } else {
+                        report.recordFailure(record.number, violation);
+                    }
+                }
+                return withoutConflicts(valid, report);
+            }
+
+            // The whole chunk at once, against the stored events and each other
+            private List<Numbered<EventImportRow>> withoutConflicts(List<Numbered<EventImportRow>> records, ImportReport report) {
+                List<Event> events = new ArrayList<>(records.size());
+                for (Numbered<EventImportRow> record : records) {
+                    events.add(event(record.value));
+                }
+                Map<Integer, String> conflicts = conflictDetector.checkAssignments(events);
+                if (conflicts.isEmpty()) {
+                    return records;
+                }
+                List<Numbered<EventImportRow>> valid = new ArrayList<>(records.size());
+                for (int i = 0; i < records.size(); i++) {
+                    String conflict = conflicts.get(i);
+                    if (conflict == null) {
+                        valid.add(records.get(i));
+                    } else {
+                        report.recordFailure(records.get(i).number, conflict);
+                    }
+                }
+                return valid;
+            }
+
+            @Override
+            public void write(List<Numbered<EventImportRow>> records) {
+                transactionTemplate.executeWithoutResult(status -> writeEvents(records));
+            }
+
+            private void writeEvents(List<Numbered<EventImportRow>> records) {
+                List<Event> events = new ArrayList<>(records.size());
+                for (Numbered<EventImportRow> record : records) {
+                    Event event = event(record.value);
+                    // Linked through addParticipations below
+                    event.setParticipants(null);
+                    events.add(event);
+                }
+                List<Event> savedEvents = eventRepository.saveAllAndFlush(events);
+
+                Map<Integer, Set<Integer>> participantIdsByEvent = new LinkedHashMap<>();
+                for (int i = 0; i < savedEvents.size(); i++) {
+                    participantIdsByEvent.put(savedEvents.get(i).getIdEvent(),
+                            new LinkedHashSet<>(records.get(i).value.getParticipants()));
+                }
+                participantRepository.addParticipations(participantIdsByEvent);
+                for (Event event : savedEvents) {
+                    eventPublisher.publishEvent(new EventChange(
+                            event.getIdEvent(), event.getDescription(), event.getDateDebut(), event.getDateFin()));
+                }
+                participantIdsByEvent.forEach((idEvent, participantIds) ->
+                        eventPublisher.publishEvent(new ParticipationChange(idEvent, participantIds)));
+            }
+        });
+    }
+
+    public ImportReport importLogistics(InputStream in, Format format) throws IOException {
+        return importLogistics(in, format, report -> { });
+    }
+
+    public ImportReport importLogistics(InputStream in, Format format, Consumer<ImportReport> progress) throws IOException {
+        return importRecords(in, format, LogisticsImportRow.class, progress, new ChunkWriter<LogisticsImportRow>() {
+            // Resolved by validate for the chunk being written
+            private Map<String, Integer> eventIds = Collections.emptyMap();
+
+            @Override
+            public List<Numbered<LogisticsImportRow>> validate(List<Numbered<LogisticsImportRow>> chunk, ImportReport report) {
+                Set<String> descriptions = new HashSet<>();
+                for (Numbered<LogisticsImportRow> record : chunk) {
+                    if (record.value != null && record.value.getEvent() != null) {
+                        descriptions.add(record.value.getEvent());
+                    }
+                }
+                eventIds = descriptions.isEmpty()
+                        ? Collections.emptyMap()
+                        : descriptionCache.findIdsByDescription(descriptions);
+
+                List<Numbered<LogisticsImportRow>> valid = new ArrayList<>(chunk.size());
+                for (Numbered<LogisticsImportRow> record : chunk) {
+                    LogisticsImportRow row = record.value;
+                    String violation = row == null
+                            ? RecordRules.checkLogistics(null, null, null)
+                            : RecordRules.checkLogistics(row, row.getEvent(), idEvent(row));
+                    if (violation == null) {
+                        valid.add(record);
+                    } else {
+                        report.recordFailure(record.number, violation);
+                    }
+                }
+                return valid;
+            }
+
+            @Override
+            public Collection<List<Numbered<LogisticsImportRow>>> transactions(List<Numbered<LogisticsImportRow>> records) {
+                return records.stream()
+                        .collect(Collectors.groupingBy(record -> idEvent(record.value), LinkedHashMap::new, Collectors.toList()))
+                        .values();
+            }
+
+            @Override
+            public void write(List<Numbered<LogisticsImportRow>> records) {
+                int idEvent = idEvent(records.get(0).value);
+                writeGuard.write(idEvent, () -> {
+                    // New rows on each attempt, so a retry does not reuse the IDs of a rolled back one
+                    List<Logistics> logistics = new ArrayList<>(records.size());
+                    for (Numbered<LogisticsImportRow> record : records) {
+                        LogisticsImportRow row = record.value;
+                        logistics.add(new Logistics(0, row.getDescription(), row.isReserve(), row.getPrixUnit(), row.getQuantite()));
+                    }
+                    // Cost first, as in addAffectLogs
+                    costEngine.logisticsAdded(idEvent, logistics);
+                    List<Logistics> savedLogistics = logisticsRepository.saveAllAndFlush(logistics);
+                    eventRepository.addLogisticsToEvent(idEvent, savedLogistics.stream()
+                            .map(Logistics::getIdLog)
+                            .collect(Collectors.toList()));
+                    savedLogistics.forEach(row -> eventPublisher.publishEvent(new LogisticsChange(
+                            idEvent, row.getIdLog(), row.isReserve(), row.getPrixUnit(), row.getQuantite())));
+                    return savedLogistics;
+                });
+            }
+
+            private Integer idEvent(LogisticsImportRow row) {
+                return row.getEvent() == null ? null : eventIds.get(row.getEvent());
+            }
+        });
+    }
+
+    private static Event event(EventImportRow row) {
+        Event event = new Event();
+        event.setDescription(row.getDescription());
+        event.setDateDebut(row.getDateDebut());
+        event.setDateFin(row.getDateFin());
+        Set<Participant> participants = new HashSet<>();
+        for (Integer idPart : row.getParticipants()) {
+            Participant participant = new Participant();
+            participant.setIdPart(idPart);
+            participants.add(participant);
+        }
+        event.setParticipants(participants);
+        return event;
+    }
+
+    private <T> ImportReport importRecords(InputStream in, Format format, Class<T> type, Consumer<ImportReport> progress,
+                                           ChunkWriter<T> writer) throws IOException {
+        Objects.requireNonNull(in, "Import input cannot be null");
+        Objects.requireNonNull(format, "Import format cannot be null");
+        Objects.requireNonNull(progress, "Import progress cannot be null");
+
+        ImportReport report = new ImportReport();
+        List<Numbered<T>> chunk = new ArrayList<>(chunkSize);
+        RecordSink<T> sink = new RecordSink<T>() {
+            @Override
+            public void accept(long number, T value) {
+                report.recordReceived();
+                chunk.add(new Numbered<>(number, value));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, writer, report);
+                    chunk.clear();
+                    progress.accept(report);
+                }
+            }
+
+            @Override
+            public void reject(long number, String message) {
+                report.recordReceived();
+                report.recordFailure(number, message);
+            }
+        };
+
+        if (format == Format.NDJSON) {
+            parseNdjson(in, type, sink);
+        } else {
+            parseCsv(in, type, sink);
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, writer, report);
+            progress.accept(report);
+        }
+        log.info("Import of {} finished: {} records, {} imported, {} failed",
+                type.getSimpleName(), report.getReceived(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private <T> void writeChunk(List<Numbered<T>> chunk, ChunkWriter<T> writer, ImportReport report) {
+        List<Numbered<T>> valid = writer.validate(chunk, report);
+        for (List<Numbered<T>> records : writer.transactions(valid)) {
+            if (records.isEmpty()) {
+                continue;
+            }
+            try {
+                writer.write(records);
+                report.recordImported(records.size());
+            } catch (RuntimeException e) {
+                log.warn("Import write of {} records rolled back", records.size(), e);
+                for (Numbered<T> record : records) {
+                    report.recordFailure(record.number, "Write rolled back: " + e.getMessage());
+                }
+            } finally {
+                // Within a web request the persistence context outlives the chunk transactions
+                entityManager.clear();
+            }
+        }
+        report.chunkWritten();
+        log.debug("Import progress: {} records, {} imported, {} failed",
+                report.getReceived(), report.getImported(), report.getFailed());
+    }
+
+    private <T> void parseNdjson(InputStream in, Class<T> type, RecordSink<T> sink) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            number++;
+            try {
+                sink.accept(number, reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                sink.reject(number, e.getOriginalMessage());
+            }
+        }
+    }
+
+    private <T> void parseCsv(InputStream in, Class<T> type, RecordSink<T> sink) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";");
+        try (MappingIterator<T> records = csvMapper.readerFor(type).with(schema).readValues(in)) {
+            long number = 0;
+            while (records.hasNextValue()) {
+                number++;
+                T value;
+                try {
+                    value = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    // MappingIterator skips the rest of the bad row and carries on with the next one
+                    sink.reject(number, e.getOriginalMessage());
+                    continue;
+                }
+                sink.accept(number, value);
+            }
+        }
+    }
+
+    private static final class Numbered<T> {
+        final long number;
+        final T value;
+
+        Numbered(long number, T value) {
+            this.number = number;
+            this.value = value;
+        }
+    }
+
+    private interface RecordSink<T> {
+        void accept(long number, T value);
+
+        void reject(long number, String message);
+    }
+
+    private interface ChunkWriter<T> {
+        /** Reports the invalid records of the chunk and returns the others. */
+        List<Numbered<T>> validate(List<Numbered<T>> chunk, ImportReport report);
+
+        /** Splits the valid records of the chunk into the groups written by each call to {@link #write}. */
+        default Collection<List<Numbered<T>>> transactions(List<Numbered<T>> records) {
+            return Collections.singletonList(records);
+        }
+
+        /** Writes one group of valid records in a transaction of its own. */
+        void write(List<Numbered<T>> records);
+    }
+}
@@ -0,0 +1,27 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+
+import java.util.List;
+
+/**
+ * Reads the {@link ChangeLog} for clients that follow the changes from an offset.
+ */
+@RequiredArgsConstructor
+@Service
+public class ChangeFeedService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final ChangeLog changeLog;
+
+    // From the oldest retained change when offset is null; callers continue from the last nextOffset
+    public List<ChangeRecord> getChanges(Long offset, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return changeLog.read(offset == null ? changeLog.getStartOffset() : offset, limit);
+    }
+}
@@ -0,0 +1,303 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of change records in memory-mapped segment files of {@code events.changelog.segment-size}
+ * bytes, named after the offset of their first byte. A record is a length, a CRC and the encoded change;
+ * an offset is a byte position in the whole log, so readers keep their own offsets and read from any of
+ * the last {@code events.changelog.retained-segments} segments. One writer appends while any number of
+ * threads read. On startup the last segment is scanned up to the first missing or corrupt record.
+ */
+@Slf4j
+@Component
+public class ChangeLog {
+
+    private static final String SUFFIX = ".log";
+    // Record length then CRC32C of the body
+    private static final int HEADER = 8;
+    // Outbox ID, creation time, aggregate ID, type length
+    private static final int FIXED_BODY = 8 + 8 + 4 + 1;
+
+    private final Path dir;
+    private final int segmentSize;
+    private final int retainedSegments;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private Segment active;
+    // Published after each append, so readers only see complete records
+    private volatile long endOffset;
+    private volatile long lastOutboxId;
+
+    public ChangeLog(@Value("${events.changelog.dir:${java.io.tmpdir}/events-changelog}") String dir,
+                     @Value("${events.changelog.segment-size:64MB}") DataSize segmentSize,
+                     @Value("${events.changelog.retained-segments:16}") int retainedSegments,
+                     MeterRegistry meterRegistry) {
+        if (segmentSize.toBytes() < 1024 || segmentSize.toBytes() > Integer.MAX_VALUE || retainedSegments < 1) {
+            throw new IllegalArgumentException("Change log segments must be 1KB to 2GB, and at least one retained");
+        }
+        this.dir = Paths.get(dir);
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.retainedSegments = retainedSegments;
+        open();
+        Gauge.builder("events.changelog.end", this, ChangeLog::getEndOffset)
+                .description("Offset after the last record of the change log")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends a record and returns its offset. Call {@link #force()} to make it durable.
+     */
+    public synchronized long append(long outboxId, String type, int aggregateId, Instant createdAt, String payload) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        if (typeBytes.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Change type too long: " + type);
+        }
+        int length = FIXED_BODY + typeBytes.length + payloadBytes.length;
+        if (HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("Change record of " + length + " bytes does not fit in a segment");
+        }
+        if (active.position + HEADER + length > segmentSize) {
+            roll();
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(length)
+                .putLong(outboxId)
+                .putLong(createdAt.toEpochMilli())
+                .putInt(aggregateId)
+                .put((byte) typeBytes.length)
+                .put(typeBytes)
+                .put(payloadBytes)
+                .flip();
+        int position = active.position;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.put(position + HEADER, body, 0, length);
+        buffer.putInt(position + 4, checksum(body, 0, length));
+        // The length goes last: until it is set, recovery and readers see the end of the log here
+        buffer.putInt(position, length);
+        active.position += HEADER + length;
+
+        long offset = active.base + position;
+        endOffset = active.base + active.position;
+        lastOutboxId = Math.max(lastOutboxId, outboxId);
+        return offset;
+    }
+
+    /**
+     * Flushes the records appended so far to the file system.
+     */
+    public synchronized void force() {
+        active.buffer.force();
+    }
+
+    /**
+     * Reads up to {@code limit} records starting at {@code offset}, which must be the offset of a record,
+     * {@link #getStartOffset()} or the {@code nextOffset} of a record read before.
+     */
+    public List<ChangeRecord> read(long offset, int limit) {
+        long end = endOffset;
+        long start = getStartOffset();
+        if (offset < start || offset > end) {
+            throw new IllegalArgumentException("Offset " + offset + " is outside the change log [" + start + ", " + end + "]");
+        }
+        List<ChangeRecord> records = new ArrayList<>(Math.min(limit, 1024));
+        while (records.size() < limit && offset < end) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                // Dropped by retention while reading
+                break;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.base);
+            int length = position + HEADER <= segmentSize ? segment.buffer.getInt(position) : 0;
+            if (length == 0) {
+                // Rest of the segment left empty by a roll
+                Long next = segments.higherKey(segment.base);
+                if (next == null) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            if (length < FIXED_BODY || position + HEADER + length > segmentSize
+                    || checksum(segment.buffer, position + HEADER, length) != segment.buffer.getInt(position + 4)) {
+                throw new IllegalArgumentException("Offset " + offset + " is not the start of a change record");
+            }
+            long nextOffset = offset + HEADER + length;
+            records.add(decode(offset, nextOffset, segment.buffer, position + HEADER, length));
+            offset = nextOffset;
+        }
+        return records;
+    }
+
+    public long getStartOffset() {
+        return segments.firstKey();
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Highest outbox ID appended, found again on startup, or 0 for an empty log.
+     */
+    public long getLastOutboxId() {
+        return lastOutboxId;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        active.buffer.force();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(dir);
+            List<String> names;
+            try (Stream<Path> files = Files.list(dir)) {
+                names = files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(SUFFIX))
+                        .collect(Collectors.toList());
+            }
+            for (String name : names) {
+                long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                segments.put(base, map(base));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the change log in " + dir, e);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, map(0));
+        }
+        active = segments.lastEntry().getValue();
+        active.position = recover(active);
+        endOffset = active.base + active.position;
+        // A segment just rolled is empty, the records before it are in the previous one
+        Map.Entry<Long, Segment> previous = segments.lowerEntry(active.base);
+        if (active.position == 0 && previous != null) {
+            lastOutboxId = highestOutboxId(previous.getValue(), (int) (active.base - previous.getKey()));
+        } else {
+            lastOutboxId = highestOutboxId(active, active.position);
+        }
+        log.info("Change log opened in {}: {} segments, offsets {} to {}", dir, segments.size(), getStartOffset(), endOffset);
+    }
+
+    // Position after the last intact record of the segment
+    private int recover(Segment segment) {
+        int position = 0;
+        while (position + HEADER <= segmentSize) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || length < FIXED_BODY || position + HEADER + length > segmentSize) {
+                break;
+            }
+            if (checksum(segment.buffer, position + HEADER, length) != segment.buffer.getInt(position + 4)) {
+                log.warn("Change log segment {} is corrupt at {}, truncating", segment.base, position);
+                break;
+            }
+            position += HEADER + length;
+        }
+        // Anything after is a torn write: clear it so that it cannot be mistaken for a record
+        for (int i = position; i < Math.min(position + HEADER, segmentSize); i++) {
+            segment.buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    private static long highestOutboxId(Segment segment, int end) {
+        long highest = 0;
+        int position = 0;
+        int length;
+        while (position + HEADER <= end && (length = segment.buffer.getInt(position)) > 0) {
+            highest = Math.max(highest, segment.buffer.getLong(position + HEADER));
+            position += HEADER + length;
+        }
+        return highest;
+    }
+
+    private void roll() {
+        long base = active.base + active.position;
+        active.buffer.force();
+        active = map(base);
+        segments.put(base, active);
+        while (segments.size() > retainedSegments) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            try {
+                Files.deleteIfExists(file(oldest.base));
+            } catch (IOException e) {
+                log.warn("Cannot delete change log segment {}: {}", oldest.base, e.getMessage());
+            }
+        }
+    }
+
+    private Segment map(long base) {
+        try (FileChannel channel = FileChannel.open(file(base),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid once the channel is closed
+            return new Segment(base, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map change log segment " + base, e);
+        }
+    }
+
+    private Path file(long base) {
+        return dir.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    private static ChangeRecord decode(long offset, long nextOffset, ByteBuffer buffer, int position, int length) {
+        ByteBuffer body = buffer.slice(position, length);
+        long outboxId = body.getLong();
+        Instant createdAt = Instant.ofEpochMilli(body.getLong());
+        int aggregateId = body.getInt();
+        byte[] type = new byte[body.get()];
+        body.get(type);
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+        return new ChangeRecord(offset, nextOffset, outboxId, new String(type, StandardCharsets.UTF_8), aggregateId,
+                createdAt, new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private static final class Segment {
+        final long base;
+        final MappedByteBuffer buffer;
+        // Only used for the active segment, by the writer
+        int position;
+
+        Segment(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.buffer = buffer;
+        }
+    }
+}
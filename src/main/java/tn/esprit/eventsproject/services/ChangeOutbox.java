@@ -0,0 +1,131 @@
+package tn.esprit.eventsproject.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.eventsproject.config.DatabaseLease;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every change published by the services in {@code outbox_record}, in the transaction that
+ * made it: the rows of a transaction are buffered and inserted in one JDBC batch just before it commits,
+ * so they are committed or rolled back with it, tagged with this node's ID. {@code OutboxRelay} copies
+ * them to the {@link ChangeLog}.
+ */
+@Component
+public class ChangeOutbox {
+
+    static final int BATCH_SIZE = 500;
+    private static final String INSERT =
+            "insert into outbox_record (type, aggregate_id, origin, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String origin;
+    private final Counter recorded;
+
+    public ChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, DatabaseLease lease,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.origin = lease.getNodeId();
+        this.recorded = Counter.builder("events.outbox.recorded")
+                .description("Changes written to the outbox")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onEventChange(EventChange change) {
+        record("EVENT", change.getIdEvent(), change);
+    }
+
+    @EventListener
+    public void onParticipantChange(ParticipantChange change) {
+        record("PARTICIPANT", change.getIdPart(), change);
+    }
+
+    @EventListener
+    public void onParticipationChange(ParticipationChange change) {
+        record("PARTICIPATION", change.getIdEvent(), change);
+    }
+
+    @EventListener
+    public void onLogisticsChange(LogisticsChange change) {
+        record("LOGISTICS", change.getIdLog(), change);
+    }
+
+    private void record(String type, int aggregateId, Object change) {
+        Row row = new Row(type, aggregateId, toJson(change), Timestamp.from(Instant.now()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Published outside a transaction: the change is already committed, record it on its own
+            insert(List.of(row));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Row> rows = (List<Row>) TransactionSynchronizationManager.getResource(this);
+        if (rows == null) {
+            List<Row> pending = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeOutbox.this);
+                }
+            });
+            rows = pending;
+        }
+        rows.add(row);
+    }
+
+    private void insert(List<Row> rows) {
+        jdbcTemplate.batchUpdate(INSERT, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setString(1, row.type);
+            ps.setInt(2, row.aggregateId);
+            ps.setString(3, origin);
+            ps.setString(4, row.payload);
+            ps.setTimestamp(5, row.createdAt);
+        });
+        recorded.increment(rows.size());
+    }
+
+    private String toJson(Object change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise " + change.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static final class Row {
+        final String type;
+        final int aggregateId;
+        final String payload;
+        final Timestamp createdAt;
+
+        Row(String type, int aggregateId, String payload, Timestamp createdAt) {
+            this.type = type;
+            this.aggregateId = aggregateId;
+            this.payload = payload;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import tn.esprit.eventsproject.dto.CostBuckets;
+import tn.esprit.eventsproject.dto.CostRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Logistics cost analytics over event start dates: free-width buckets scanned from the
+ * {@link LogisticsColumnStore}, daily and monthly totals read from the {@link CostRollups}.
+ */
+@RequiredArgsConstructor
+@Service
+public class CostAnalyticsService {
+
+    static final int MAX_BUCKETS = 1000;
+
+    private final LogisticsColumnStore logisticsStore;
+    private final CostRollups costRollups;
+
+    public CostBuckets getCostBuckets(LocalDate dateDebut, LocalDate dateFin, int bucketDays) {
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
+        if (dateFin.isBefore(dateDebut)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        if (bucketDays < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        long days = dateFin.toEpochDay() - dateDebut.toEpochDay() + 1;
+        long buckets = (days + bucketDays - 1) / bucketDays;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("At most " + MAX_BUCKETS + " buckets can be requested");
+        }
+
+        double[] reserved = new double[(int) buckets];
+        double[] unreserved = new double[(int) buckets];
+        logisticsStore.costPerDateBucket(dateDebut, dateFin, bucketDays, true, reserved);
+        logisticsStore.costPerDateBucket(dateDebut, dateFin, bucketDays, false, unreserved);
+        return new CostBuckets(logisticsStore.isLoaded(), dateDebut, bucketDays, reserved, unreserved);
+    }
+
+    public CostRollup getCostRollup(CostRollup.Granularity granularity, LocalDate dateDebut, LocalDate dateFin) {
+        Objects.requireNonNull(granularity, "Granularity cannot be null");
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
+        if (dateFin.isBefore(dateDebut)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+
+        List<CostRollup.Period> periods = granularity == CostRollup.Granularity.DAY
+                ? costRollups.daily(dateDebut, dateFin)
+                : costRollups.monthly(dateDebut, dateFin);
+        return new CostRollup(costRollups.isLoaded(), granularity, periods);
+    }
+
+    public void rebuildCostRollups() {
+        costRollups.rebuild();
+    }
+}
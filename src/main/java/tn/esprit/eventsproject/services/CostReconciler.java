@@ -0,0 +1,174 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.config.DatabaseLease;
+import tn.esprit.eventsproject.dto.EventCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodic full cost reconciliation of every event. Only the replica holding the {@value #LEASE} lease
+ * runs the scheduled cycle. The costs are read in keyset chunks of events, by id, and each chunk is
+ * corrected by a fixed pool of workers in its own transaction while the next one is read.
+ */
+@Slf4j
+@Component
+public class CostReconciler {
+
+    static final String LEASE = "cost-reconcile";
+
+    private final EventRepository eventRepository;
+    private final EventCostEngine costEngine;
+    private final DatabaseLease lease;
+    private final TransactionOperations transactionOperations;
+    private final int chunkSize;
+    private final int threads;
+    private final Duration leaseDuration;
+    private final ExecutorService workers;
+    private final Timer cycleDuration;
+    private final DistributionSummary cycleEvents;
+    private final Counter cyclesSkipped;
+    private final Counter chunksFailed;
+
+    public CostReconciler(EventRepository eventRepository,
+                          EventCostEngine costEngine,
+                          DatabaseLease lease,
+                          TransactionOperations transactionOperations,
+                          MeterRegistry meterRegistry,
+                          @Value("${events.cost.reconcile-chunk-size:500}") int chunkSize,
+                          @Value("${events.cost.reconcile-threads:4}") int threads,
+                          @Value("${events.cost.reconcile-lease:90m}") Duration leaseDuration) {
+        if (chunkSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("Reconcile chunk size and threads must be positive");
+        }
+        this.eventRepository = eventRepository;
+        this.costEngine = costEngine;
+        this.lease = lease;
+        this.transactionOperations = transactionOperations;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+        this.leaseDuration = leaseDuration;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cost-reconcile-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cycleDuration = Timer.builder("events.cost.reconcile.duration")
+                .description("Duration of a full cost reconciliation cycle")
+                .register(meterRegistry);
+        this.cycleEvents = DistributionSummary.builder("events.cost.reconcile.events")
+                .description("Events checked per cost reconciliation cycle")
+                .register(meterRegistry);
+        this.cyclesSkipped = Counter.builder("events.cost.reconcile.skipped")
+                .description("Scheduled cycles left to the replica holding the lease")
+                .register(meterRegistry);
+        this.chunksFailed = Counter.builder("events.cost.reconcile.failures")
+                .description("Reconciliation chunks rolled back")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${events.cost.reconcile-cron:0 0 * * * ?}")
+    public void scheduledReconcile() {
+        // The owner renews the lease every cycle, so it keeps the job until it stops or dies
+        if (!lease.tryAcquire(LEASE, leaseDuration)) {
+            cyclesSkipped.increment();
+            log.debug("Cost reconciliation skipped, lease {} is held by another node", LEASE);
+            return;
+        }
+        reconcile();
+    }
+
+    /**
+     * Runs one cycle unconditionally and returns the number of corrected events.
+     */
+    public int reconcile() {
+        long start = System.nanoTime();
+        // At most one chunk per worker waiting or running, so memory stays bounded whatever the table size
+        Deque<Future<Integer>> running = new ArrayDeque<>();
+        int checked = 0;
+        int chunks = 0;
+        int corrected = 0;
+        try {
+            int afterId = 0;
+            List<EventCost> chunk;
+            do {
+                chunk = eventRepository.findCostsAfter(afterId, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1).getIdEvent();
+                checked += chunk.size();
+                chunks++;
+                if (running.size() == threads) {
+                    corrected += await(running.poll());
+                }
+                List<EventCost> costs = chunk;
+                running.add(workers.submit(() -> reconcileChunk(costs)));
+            } while (chunk.size() == chunkSize);
+            while (!running.isEmpty()) {
+                corrected += await(running.poll());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Cost reconciliation interrupted");
+        }
+
+        cycleDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        cycleEvents.record(checked);
+        log.info("Cost reconciliation checked {} events in {} chunks, corrected {}", checked, chunks, corrected);
+        return corrected;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        try {
+            lease.release(LEASE);
+        } catch (DataAccessException e) {
+            // Best effort: the lease expires on its own
+            log.warn("Could not release lease {}: {}", LEASE, e.getMessage());
+        }
+    }
+
+    private int reconcileChunk(List<EventCost> chunk) {
+        Integer corrected = transactionOperations.execute(status -> {
+            int count = 0;
+            for (EventCost cost : chunk) {
+                if (costEngine.reconcile(cost)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return corrected == null ? 0 : corrected;
+    }
+
+    private int await(Future<Integer> chunk) throws InterruptedException {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            // The other chunks are committed on their own; the next cycle retries this one
+            chunksFailed.increment();
+            log.error("Cost reconciliation chunk failed", e.getCause());
+            return 0;
+        }
+    }
+}
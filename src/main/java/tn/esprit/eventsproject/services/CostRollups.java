@@ -0,0 +1,263 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.dto.CostRollup;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.LogisticsCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reserved logistics cost summed per day and per month of the events' start date. Every
+ * {@link LogisticsChange} adds to the buckets of its event and every {@link EventChange} moves the
+ * event's total to its new date, so a query only walks the buckets of the requested range. It is
+ * loaded once the application is ready and can be rebuilt from the tables at any time.
+ */
+@Slf4j
+@Component
+public class CostRollups implements ChangeConsumer {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    // Below this a bucket emptied by date moves is float noise, not a cost
+    private static final double EMPTY = 1e-6;
+
+    private final LogisticsRepository logisticsRepository;
+    private final EventRepository eventRepository;
+    private final TransactionOperations transactionOperations;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Totals totals = new Totals();
+    private boolean loaded;
+    // Changes seen while a rebuild reads the tables, replayed on the new totals
+    private List<Consumer<Totals>> pendingChanges;
+
+    public CostRollups(LogisticsRepository logisticsRepository,
+                       EventRepository eventRepository,
+                       TransactionOperations transactionOperations,
+                       MeterRegistry meterRegistry) {
+        this.logisticsRepository = logisticsRepository;
+        this.eventRepository = eventRepository;
+        this.transactionOperations = transactionOperations;
+        Gauge.builder("events.analytics.rollup.days", this, CostRollups::dayCount)
+                .description("Days with a reserved cost in the cost rollups")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes every bucket from the tables. Queries keep using the previous buckets meanwhile.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Totals fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            totals = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Cost rollups loaded {} days, {} months in {} ms",
+                fresh.daily.size(), fresh.monthly.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLogisticsChange(LogisticsChange change) {
+        if (change.isReserve()) {
+            apply(target -> target.addCost(change.getIdEvent(), change.getIdLog(),
+                    (double) change.getPrixUnit() * change.getQuantite()));
+        }
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        int day = change.getDateDebut() == null ? NO_DATE : (int) change.getDateDebut().toEpochDay();
+        apply(target -> target.moveEvent(change.getIdEvent(), day));
+    }
+
+    /**
+     * Days of {@code [from, to]} with a reserved cost, in order.
+     */
+    public List<CostRollup.Period> daily(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            SortedMap<Integer, Double> days = totals.daily.subMap((int) from.toEpochDay(), (int) to.toEpochDay() + 1);
+            List<CostRollup.Period> periods = new ArrayList<>(days.size());
+            days.forEach((day, cost) -> periods.add(new CostRollup.Period(LocalDate.ofEpochDay(day), cost)));
+            return periods;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Months overlapping {@code [from, to]} with a reserved cost, in order. Months are summed whole.
+     */
+    public List<CostRollup.Period> monthly(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            SortedMap<Integer, Double> months = totals.monthly.subMap(monthOf(from), monthOf(to) + 1);
+            List<CostRollup.Period> periods = new ArrayList<>(months.size());
+            months.forEach((month, cost) -> periods.add(new CostRollup.Period(
+                    LocalDate.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, 1), cost)));
+            return periods;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int dayCount() {
+        lock.readLock().lock();
+        try {
+            return totals.daily.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Totals> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(totals);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Totals load() {
+        return transactionOperations.execute(status -> {
+            Totals fresh = new Totals();
+            try (Stream<EventDates> dates = eventRepository.streamDates()) {
+                dates.forEach(event -> fresh.moveEvent(event.getIdEvent(), (int) event.getDateDebut().toEpochDay()));
+            }
+            try (Stream<LogisticsCost> costs = logisticsRepository.streamCosts()) {
+                costs.filter(LogisticsCost::isReserve)
+                        .forEach(row -> fresh.addCost(row.getIdEvent(), row.getIdLog(), (double) row.getPrixUnit() * row.getQuantite()));
+            }
+            return fresh;
+        });
+    }
+
+    private static int monthOf(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static final class Totals {
+        final TreeMap<Integer, Double> daily = new TreeMap<>();
+        final TreeMap<Integer, Double> monthly = new TreeMap<>();
+        // Per event, indexed by event ID, which the pooled sequences keep dense
+        double[] costByEvent = new double[1024];
+        int[] dayByEvent = noDates(1024);
+        // Rows already counted, so a change replayed after a rebuild is not counted twice
+        final RoaringBitmap logisticsIds = new RoaringBitmap();
+
+        void addCost(int idEvent, int idLog, double cost) {
+            if (!logisticsIds.checkedAdd(idLog)) {
+                return;
+            }
+            ensureEvent(idEvent);
+            costByEvent[idEvent] += cost;
+            addToBuckets(dayByEvent[idEvent], cost);
+        }
+
+        void moveEvent(int idEvent, int day) {
+            ensureEvent(idEvent);
+            int previous = dayByEvent[idEvent];
+            if (previous == day) {
+                return;
+            }
+            addToBuckets(previous, -costByEvent[idEvent]);
+            addToBuckets(day, costByEvent[idEvent]);
+            dayByEvent[idEvent] = day;
+        }
+
+        private void addToBuckets(int day, double cost) {
+            if (day == NO_DATE || cost == 0) {
+                return;
+            }
+            daily.merge(day, cost, Totals::sum);
+            monthly.merge(monthOf(LocalDate.ofEpochDay(day)), cost, Totals::sum);
+        }
+
+        // Returning null drops the bucket once its events have moved away
+        private static Double sum(Double current, Double cost) {
+            double total = current + cost;
+            return Math.abs(total) < EMPTY ? null : total;
+        }
+
+        private void ensureEvent(int idEvent) {
+            if (idEvent < 0) {
+                throw new IllegalArgumentException("Invalid event ID: " + idEvent);
+            }
+            if (idEvent >= dayByEvent.length) {
+                int capacity = Math.max(idEvent + 1, dayByEvent.length * 2);
+                int[] days = Arrays.copyOf(dayByEvent, capacity);
+                Arrays.fill(days, dayByEvent.length, capacity, NO_DATE);
+                costByEvent = Arrays.copyOf(costByEvent, capacity);
+                dayByEvent = days;
+            }
+        }
+
+        private static int[] noDates(int capacity) {
+            int[] days = new int[capacity];
+            Arrays.fill(days, NO_DATE);
+            return days;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprit.eventsproject.dto.EventCost;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.repositories.EventRepository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Keeps {@link Event#getCout()} up to date incrementally: every logistics write pushes the
+ * difference it makes to the owning event's cost, and the periodic full recompute only has to
+ * correct the events that drifted.
+ */
+@Slf4j
+@Component
+public class EventCostEngine {
+
+    static final float DRIFT_TOLERANCE = 0.01f;
+
+    private final EventRepository eventRepository;
+    private final Counter deltasApplied;
+    private final Counter driftDetected;
+    private final DistributionSummary driftAmount;
+
+    public EventCostEngine(EventRepository eventRepository, MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.deltasApplied = Counter.builder("events.cost.deltas")
+                .description("Cost deltas applied to events by logistics writes")
+                .register(meterRegistry);
+        this.driftDetected = Counter.builder("events.cost.drift")
+                .description("Events whose stored cost differed from the reconciled cost")
+                .register(meterRegistry);
+        this.driftAmount = DistributionSummary.builder("events.cost.drift.amount")
+                .description("Absolute cost difference corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    public static float costOf(Logistics logistics) {
+        return logistics.isReserve() ? logistics.getPrixUnit() * logistics.getQuantite() : 0f;
+    }
+
+    public static float costOf(Collection<Logistics> logistics) {
+        return Optional.ofNullable(logistics)
+                .orElse(Collections.emptySet())
+                .stream()
+                .map(EventCostEngine::costOf)
+                .reduce(0f, Float::sum);
+    }
+
+    public void logisticsAdded(int idEvent, Logistics logistics) {
+        applyDelta(idEvent, costOf(logistics));
+    }
+
+    public void logisticsAdded(int idEvent, Collection<Logistics> logistics) {
+        applyDelta(idEvent, costOf(logistics));
+    }
+
+    /**
+     * Applies the delta with a single {@code UPDATE ... SET cout = cout + ?} so concurrent writers
+     * never overwrite each other's contribution. Managed instances of the event are left untouched
+     * on purpose: setting the new value on them would flush an absolute cost back over the increment.
+     */
+    void applyDelta(int idEvent, float delta) {
+        if (delta == 0f) {
+            return;
+        }
+        eventRepository.addToCout(idEvent, delta);
+        deltasApplied.increment();
+    }
+
+    /**
+     * Compares the stored cost of the event with the one summed by the database and overwrites it
+     * when they differ, unless the event was written since it was read. Returns {@code true} when the
+     * event was corrected.
+     */
+    public boolean reconcile(EventCost cost) {
+        float drift = cost.getReservedCost() - cost.getStoredCost();
+        if (Math.abs(drift) <= DRIFT_TOLERANCE) {
+            return false;
+        }
+        driftDetected.increment();
+        driftAmount.record(Math.abs(drift));
+        if (eventRepository.updateCout(cost.getIdEvent(), cost.getReservedCost(), cost.getVersion()) == 0) {
+            // Written since it was read (or read from a lagging replica): the next run sees the new state
+            log.info("Event '{}' changed since its cost was read, leaving it to the next reconciliation", cost.getDescription());
+            return false;
+        }
+        log.warn("Event '{}' cost drifted by {}, reset to {}", cost.getDescription(), drift, cost.getReservedCost());
+        return true;
+    }
+}
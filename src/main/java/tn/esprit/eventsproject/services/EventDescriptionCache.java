@@ -0,0 +1,117 @@
+package tn.esprit.eventsproject.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.dto.EventDescription;
+import tn.esprit.eventsproject.repositories.EventRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded description to event ID cache in front of {@link EventRepository#findIdByDescription(String)}.
+ * Unknown descriptions are not cached, so a newly created event is visible right away. The descriptions
+ * cached for each event are indexed by its ID, so a change evicts them without scanning the cache; the
+ * changes of other nodes arrive through {@link OutboxRelay}.
+ */
+@Component
+public class EventDescriptionCache implements ChangeConsumer {
+
+    private final EventRepository eventRepository;
+    private final Cache<String, Integer> cache;
+    // Sets only changed within compute; around a rename an event has its old and new descriptions cached
+    private final Map<Integer, Set<String>> descriptionsById = new ConcurrentHashMap<>();
+
+    public EventDescriptionCache(EventRepository eventRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${events.cache.description.max-size:10000}") long maxSize,
+                                 @Value("${events.cache.description.ttl:10m}") Duration ttl) {
+        this.eventRepository = eventRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                // Called within the removal, so a reload of the same description cannot be unindexed
+                .evictionListener((String description, Integer idEvent, RemovalCause cause) -> unindex(idEvent, description))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "event.description");
+    }
+
+    public Optional<Integer> findIdByDescription(String description) {
+        return Optional.ofNullable(cache.get(description, this::load));
+    }
+
+    /**
+     * Resolves {@code descriptions} at once, with a single query for those not cached. Unknown
+     * descriptions are left out of the result.
+     */
+    public Map<String, Integer> findIdsByDescription(Collection<String> descriptions) {
+        return cache.getAll(descriptions, this::loadAll);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        if (change.getDescription() != null) {
+            cache.invalidate(change.getDescription());
+        }
+        // The description may have changed, so drop whatever entry still points at this event
+        Set<String> descriptions = descriptionsById.remove(change.getIdEvent());
+        if (descriptions != null) {
+            cache.invalidateAll(descriptions);
+        }
+    }
+
+    private Integer load(String description) {
+        Integer idEvent = eventRepository.findIdByDescription(description).orElse(null);
+        if (idEvent != null) {
+            index(idEvent, description);
+        }
+        return idEvent;
+    }
+
+    private Map<String, Integer> loadAll(Iterable<? extends String> descriptions) {
+        List<String> missing = new ArrayList<>();
+        descriptions.forEach(missing::add);
+        Map<String, Integer> ids = new HashMap<>();
+        for (EventDescription event : eventRepository.findIdsByDescriptions(missing)) {
+            ids.put(event.getDescription(), event.getIdEvent());
+            index(event.getIdEvent(), event.getDescription());
+        }
+        return ids;
+    }
+
+    private void index(int idEvent, String description) {
+        descriptionsById.compute(idEvent, (id, descriptions) -> {
+            Set<String> indexed = descriptions == null ? new HashSet<>() : descriptions;
+            indexed.add(description);
+            return indexed;
+        });
+    }
+
+    private void unindex(Integer idEvent, String description) {
+        if (idEvent == null || description == null) {
+            return;
+        }
+        descriptionsById.computeIfPresent(idEvent, (id, descriptions) -> {
+            descriptions.remove(description);
+            return descriptions.isEmpty() ? null : descriptions;
+        });
+    }
+}
@@ -0,0 +1,194 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.repositories.EventRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory interval index over event dates, answering "events active during [d1, d2]" without a
+ * table scan. It is loaded once the application is ready and kept current from {@link EventChange}s;
+ * until the first load finishes, queries go to {@link EventRepository#findIdsOverlapping}.
+ * Events without a start date are not indexed, and an event without an end date lasts its start day.
+ */
+@Slf4j
+@Component
+public class EventIntervalIndex implements ChangeConsumer {
+
+    private final EventRepository eventRepository;
+    private final TransactionOperations transactionOperations;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IntervalTree tree = new IntervalTree();
+    private boolean loaded;
+    // Changes seen while a rebuild reads the table, replayed on the new tree
+    private List<EventChange> pendingChanges;
+
+    public EventIntervalIndex(EventRepository eventRepository,
+                              TransactionOperations transactionOperations,
+                              MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.transactionOperations = transactionOperations;
+        Gauge.builder("events.index.interval.size", this, EventIntervalIndex::size)
+                .description("Events held by the date interval index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reloads the whole index from the database. Queries keep using the previous index meanwhile.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IntervalTree fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> apply(fresh, change));
+            pendingChanges = null;
+            tree = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Event interval index loaded {} events in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        lock.writeLock().lock();
+        try {
+            apply(tree, change);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of the events whose dates intersect {@code [dateDebut, dateFin]}, ordered by start date.
+     */
+    public int[] findOverlapping(LocalDate dateDebut, LocalDate dateFin) {
+        int from = (int) dateDebut.toEpochDay();
+        int to = (int) dateFin.toEpochDay();
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                IdCollector ids = new IdCollector();
+                tree.forEachOverlapping(from, to, ids);
+                return ids.toArray();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return eventRepository.findIdsOverlapping(dateDebut, dateFin).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntervalTree load() {
+        return transactionOperations.execute(status -> {
+            IdCollector ids = new IdCollector();
+            IdCollector starts = new IdCollector();
+            IdCollector ends = new IdCollector();
+            // Rows arrive sorted by (dateDebut, idEvent), so the tree is built bottom-up in one pass
+            try (Stream<EventDates> dates = eventRepository.streamDates()) {
+                dates.forEach(event -> {
+                    int start = (int) event.getDateDebut().toEpochDay();
+                    ids.accept(event.getIdEvent());
+                    starts.accept(start);
+                    ends.accept(endOf(start, event.getDateFin()));
+                });
+            }
+            return IntervalTree.ofSorted(ids.values, starts.values, ends.values, ids.size);
+        });
+    }
+
+    private static void apply(IntervalTree tree, EventChange change) {
+        if (change.getDateDebut() == null) {
+            tree.remove(change.getIdEvent());
+            return;
+        }
+        int start = (int) change.getDateDebut().toEpochDay();
+        tree.put(change.getIdEvent(), start, endOf(start, change.getDateFin()));
+    }
+
+    private static int endOf(int start, LocalDate dateFin) {
+        // An end date before the start is treated like a missing one rather than rejecting the event
+        return dateFin == null ? start : Math.max(start, (int) dateFin.toEpochDay());
+    }
+
+    private static final class IdCollector implements IntConsumer {
+        int[] values = new int[16];
+        int size;
+
+        @Override
+        public void accept(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -2,34 +2,79 @@ package tn.esprit.eventsproject.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.dto.RegistrationStatus;
 import tn.esprit.eventsproject.entities.Event;
 import tn.esprit.eventsproject.entities.Logistics;
 import tn.esprit.eventsproject.entities.Participant;
-import tn.esprit.eventsproject.entities.Tache;
 import tn.esprit.eventsproject.repositories.EventRepository;
 import tn.esprit.eventsproject.repositories.LogisticsRepository;
 import tn.esprit.eventsproject.repositories.ParticipantRepository;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class EventServicesImpl implements IEventServices {
 
+    static final int MAX_IN_CLAUSE = 1000;
+
     private final EventRepository eventRepository;
     private final ParticipantRepository participantRepository;
     private final LogisticsRepository logisticsRepository;
+    private final EventCostEngine costEngine;
+    private final EventDescriptionCache descriptionCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CostReconciler costReconciler;
+    private final EventIntervalIndex intervalIndex;
+    private final ScheduleConflictDetector conflictDetector;
+    private final ParticipantWriteBehind writeBehind;
+    private final EventWriteGuard writeGuard;
 
     @Override
     public Participant addParticipant(Participant participant) {
         Objects.requireNonNull(participant, "Participant cannot be null");
-        return participantRepository.save(participant);
+        return writeBehind.isEnabled() ? writeBehind.submitAndWait(participant) : writeBehind.save(participant);
+    }
+
+    @Override
+    public RegistrationStatus addParticipantAsync(Participant participant) {
+        Objects.requireNonNull(participant, "Participant cannot be null");
+        if (writeBehind.isEnabled()) {
+            return writeBehind.submit(participant).status();
+        }
+        Participant savedParticipant = writeBehind.save(participant);
+        return new RegistrationStatus(null, RegistrationStatus.State.COMMITTED, savedParticipant.getIdPart(), null);
+    }
+
+    @Override
+    public Optional<RegistrationStatus> getRegistration(String ticket) {
+        Objects.requireNonNull(ticket, "Ticket cannot be null");
+        return writeBehind.status(ticket);
+    }
+
+    @Transactional
+    @Override
+    public List<Participant> addParticipants(List<Participant> participants) {
+        Objects.requireNonNull(participants, "Participants cannot be null");
+        participants.forEach(participant -> RecordRules.require(RecordRules.checkParticipant(participant)));
+        List<Participant> savedParticipants = participantRepository.saveAll(participants);
+        savedParticipants.forEach(this::publishChange);
+        return savedParticipants;
     }
 
+    @Transactional
     @Override
     public Event addAffectEvenParticipant(Event event, int idParticipant) {
         Objects.requireNonNull(event, "Event cannot be null");
@@ -37,84 +82,142 @@ public class EventServicesImpl implements IEventServices {
         Participant participant = participantRepository.findById(idParticipant)
                 .orElseThrow(() -> new IllegalArgumentException("Participant not found with ID: " + idParticipant));
 
+        conflictDetector.checkAssignment(Collections.singleton(idParticipant), event);
+
         participant.setEvents(Optional.ofNullable(participant.getEvents()).orElse(new HashSet<>()));
         participant.getEvents().add(event);
 
-        return eventRepository.save(event);
+        event.setCout(EventCostEngine.costOf(event.getLogistics()));
+        Event savedEvent = eventRepository.save(event);
+        publishChange(savedEvent);
+        eventPublisher.publishEvent(new ParticipationChange(savedEvent.getIdEvent(), Collections.singleton(idParticipant)));
+        return savedEvent;
     }
 
+    @Transactional
     @Override
     public Event addAffectEvenParticipant(Event event) {
         Objects.requireNonNull(event, "Event cannot be null");
 
-        Set<Participant> participants = Optional.ofNullable(event.getParticipants())
-                .orElseThrow(() -> new IllegalArgumentException("Event must have participants"));
+        Set<Integer> participantIds = Optional.ofNullable(event.getParticipants())
+                .map(participants -> participants.stream()
+                        .map(Participant::getIdPart)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)))
+                .orElse(null);
+        Set<Integer> existingIds = participantIds == null || participantIds.isEmpty()
+                ? Collections.emptySet()
+                : participantRepository.findExistingIds(participantIds);
+        RecordRules.require(RecordRules.checkParticipants(participantIds, existingIds));
+        conflictDetector.checkAssignment(participantIds, event);
+
+        boolean newEvent = event.getIdEvent() == 0;
+        event.setCout(EventCostEngine.costOf(event.getLogistics()));
+        Event savedEvent = eventRepository.saveAndFlush(event);
+
+        if (!newEvent && !participantIds.isEmpty()) {
+            participantIds.removeAll(participantRepository.findIdsAlreadyInEvent(savedEvent.getIdEvent(), participantIds));
+        }
+        if (!participantIds.isEmpty()) {
+            participantRepository.addEventToParticipants(savedEvent.getIdEvent(), participantIds);
+            eventPublisher.publishEvent(new ParticipationChange(savedEvent.getIdEvent(), participantIds));
+        }
+        publishChange(savedEvent);
+        return savedEvent;
+    }
+
+    // Runs in its own transaction under the event's write stripe, see EventWriteGuard
+    @Override
+    public Logistics addAffectLog(Logistics logistics, String descriptionEvent) {
+        Objects.requireNonNull(logistics, "Logistics cannot be null");
+        Objects.requireNonNull(descriptionEvent, "Event description cannot be null");
 
-        participants.forEach(participant -> {
-            Participant existingParticipant = participantRepository.findById(participant.getIdPart())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Participant not found with ID: " + participant.getIdPart()));
+        Integer idEvent = descriptionCache.findIdByDescription(descriptionEvent).orElse(null);
+        RecordRules.require(RecordRules.checkLogistics(logistics, descriptionEvent, idEvent));
 
-            existingParticipant.setEvents(Optional.ofNullable(existingParticipant.getEvents()).orElse(new HashSet<>()));
-            existingParticipant.getEvents().add(event);
+        return writeGuard.write(idEvent, () -> {
+            // Cost first: the event row is locked once, before the join-table insert checks its key
+            costEngine.logisticsAdded(idEvent, logistics);
+            Logistics savedLogistics = logisticsRepository.saveAndFlush(logistics);
+            eventRepository.addLogisticsToEvent(idEvent, savedLogistics.getIdLog());
+            publishChange(idEvent, savedLogistics);
+            return savedLogistics;
         });
-
-        return eventRepository.save(event);
     }
 
     @Override
-    public Logistics addAffectLog(Logistics logistics, String descriptionEvent) {
+    public List<Logistics> addAffectLogs(List<Logistics> logistics, String descriptionEvent) {
         Objects.requireNonNull(logistics, "Logistics cannot be null");
         Objects.requireNonNull(descriptionEvent, "Event description cannot be null");
 
-        Event event = Optional.ofNullable(eventRepository.findByDescription(descriptionEvent))
-                .orElseThrow(() -> new IllegalArgumentException("Event not found with description: " + descriptionEvent));
+        Integer idEvent = descriptionCache.findIdByDescription(descriptionEvent).orElse(null);
+        RecordRules.require(RecordRules.checkLogistics(logistics, descriptionEvent, idEvent));
+        logistics.forEach(row -> RecordRules.require(RecordRules.checkLogistics(row, descriptionEvent, idEvent)));
+
+        return writeGuard.write(idEvent, () -> {
+            costEngine.logisticsAdded(idEvent, logistics);
+            List<Logistics> savedLogistics = logisticsRepository.saveAllAndFlush(logistics);
+            eventRepository.addLogisticsToEvent(idEvent, savedLogistics.stream()
+                    .map(Logistics::getIdLog)
+                    .collect(Collectors.toList()));
+            savedLogistics.forEach(row -> publishChange(idEvent, row));
+            return savedLogistics;
+        });
+    }
 
-        Set<Logistics> logisticsSet = Optional.ofNullable(event.getLogistics()).orElse(new HashSet<>());
-        logisticsSet.add(logistics);
-        event.setLogistics(logisticsSet);
-        eventRepository.save(event);
+    @Transactional(readOnly = true)
+    @Override
+    public List<Logistics> getLogisticsDates(LocalDate dateDebut, LocalDate dateFin) {
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
 
-        return logisticsRepository.save(logistics);
+        return logisticsRepository.findReservedBetween(dateDebut, dateFin);
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public List<Logistics> getLogisticsDates(LocalDate dateDebut, LocalDate dateFin) {
+    public List<Logistics> getLogisticsDatesOverlapping(LocalDate dateDebut, LocalDate dateFin) {
         Objects.requireNonNull(dateDebut, "Start date cannot be null");
         Objects.requireNonNull(dateFin, "End date cannot be null");
 
-        List<Event> events = eventRepository.findByDateDebutBetween(dateDebut, dateFin);
+        int[] eventIds = intervalIndex.findOverlapping(dateDebut, dateFin);
+        List<Logistics> logistics = new ArrayList<>();
+        for (int from = 0; from < eventIds.length; from += MAX_IN_CLAUSE) {
+            List<Integer> chunk = Arrays.stream(eventIds, from, Math.min(from + MAX_IN_CLAUSE, eventIds.length))
+                    .boxed()
+                    .collect(Collectors.toList());
+            logistics.addAll(logisticsRepository.findReservedForEvents(chunk));
+        }
+        return logistics;
+    }
 
-        List<Logistics> logisticsList = new ArrayList<>();
-        events.forEach(event -> {
-            Optional.ofNullable(event.getLogistics()).ifPresent(logisticsSet ->
-                    logisticsSet.stream()
-                            .filter(Logistics::isReserve)
-                            .forEach(logisticsList::add)
-            );
-        });
+    @Transactional(readOnly = true)
+    @Override
+    public void streamLogisticsDates(LocalDate dateDebut, LocalDate dateFin, Consumer<Logistics> consumer) {
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
+        Objects.requireNonNull(consumer, "Consumer cannot be null");
 
-        return logisticsList;
+        try (Stream<Logistics> logistics = logisticsRepository.streamReservedBetween(dateDebut, dateFin)) {
+            logistics.forEach(consumer);
+        }
     }
 
-    @Scheduled(cron = "0 0/1 * * * ?")
     @Override
     public void calculCout() {
-        List<Event> events = eventRepository.findByParticipants_NomAndParticipants_PrenomAndParticipants_Tache(
-                "Tounsi", "Ahmed", Tache.ORGANISATEUR);
-
-        events.forEach(event -> {
-            log.info("Calculating cost for event: {}", event.getDescription());
-            float totalCost = Optional.ofNullable(event.getLogistics())
-                    .orElse(Collections.emptySet())
-                    .stream()
-                    .filter(Logistics::isReserve)
-                    .map(logistics -> logistics.getPrixUnit() * logistics.getQuantite())
-                    .reduce(0f, Float::sum);
-
-            event.setCout(totalCost);
-            eventRepository.save(event);
-            log.info("Event '{}' total cost: {}", event.getDescription(), totalCost);
-        });
+        costReconciler.reconcile();
+    }
+
+    private void publishChange(Participant participant) {
+        eventPublisher.publishEvent(ParticipantChange.of(participant));
+    }
+
+    private void publishChange(int idEvent, Logistics logistics) {
+        eventPublisher.publishEvent(new LogisticsChange(idEvent, logistics.getIdLog(), logistics.isReserve(),
+                logistics.getPrixUnit(), logistics.getQuantite()));
+    }
+
+    private void publishChange(Event event) {
+        eventPublisher.publishEvent(new EventChange(
+                event.getIdEvent(), event.getDescription(), event.getDateDebut(), event.getDateFin()));
     }
 }
@@ -0,0 +1,130 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.entities.Event;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs writes that touch one event under a lock striped by event ID, so concurrent writers of a hot
+ * event queue up in memory instead of on the event row. Each attempt is its own transaction, committed
+ * before the stripe is released; attempts that fail with a {@link ConcurrencyFailureException} (stale
+ * {@code Event.version}, deadlock, lock timeout) are retried up to {@code events.write.max-attempts}
+ * times. Other nodes are not covered by the stripes, only by the retry, which first evicts the event from
+ * the second-level cache in case another node wrote it since it was cached.
+ */
+@Slf4j
+@Component
+public class EventWriteGuard {
+
+    private final TransactionOperations transactionOperations;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReentrantLock[] stripes;
+    private final int maxAttempts;
+    private final long lockTimeoutNanos;
+    private final Timer lockWait;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public EventWriteGuard(TransactionOperations transactionOperations,
+                           EntityManagerFactory entityManagerFactory,
+                           MeterRegistry meterRegistry,
+                           @Value("${events.write.lock-stripes:64}") int stripeCount,
+                           @Value("${events.write.max-attempts:3}") int maxAttempts,
+                           @Value("${events.write.lock-timeout:2s}") Duration lockTimeout) {
+        if (stripeCount < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Lock stripes and write attempts must be positive");
+        }
+        this.transactionOperations = transactionOperations;
+        this.entityManagerFactory = entityManagerFactory;
+        // Rounded up to a power of two, so the stripe is a mask of the spread ID
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.maxAttempts = maxAttempts;
+        this.lockTimeoutNanos = lockTimeout.toNanos();
+        this.lockWait = Timer.builder("events.write.lock.wait")
+                .description("Time spent waiting for the event stripe lock")
+                .register(meterRegistry);
+        this.retries = Counter.builder("events.write.retries")
+                .description("Event writes retried after a concurrency failure")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("events.write.exhausted")
+                .description("Event writes that still failed after the last attempt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code write} in a transaction while holding the stripe of {@code idEvent}.
+     */
+    public <T> T write(int idEvent, Supplier<T> write) {
+        ReentrantLock lock = stripes[stripe(idEvent)];
+        long start = System.nanoTime();
+        try {
+            if (!lock.tryLock(lockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new CannotAcquireLockException("Event " + idEvent + " is busy, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for event " + idEvent, e);
+        }
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionOperations.execute(status -> write.get());
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        exhausted.increment();
+                        throw e;
+                    }
+                    retries.increment();
+                    entityManagerFactory.getCache().evict(Event.class, idEvent);
+                    log.debug("Write to event {} failed on attempt {}, retrying: {}", idEvent, attempt, e.getMessage());
+                    backOff(attempt);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private int stripe(int idEvent) {
+        // Pooled sequences hand out consecutive IDs, so spread them before masking
+        int h = idEvent * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    // Jittered so that writers from other nodes stop colliding on the same beat
+    private static void backOff(int attempt) {
+        long millis = ThreadLocalRandom.current().nextLong(1, 5L << attempt);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while retrying an event write", e);
+        }
+    }
+}
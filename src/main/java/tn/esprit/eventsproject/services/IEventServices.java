@@ -1,17 +1,26 @@
 package tn.esprit.eventsproject.services;
 
+import tn.esprit.eventsproject.dto.RegistrationStatus;
 import tn.esprit.eventsproject.entities.Event;
 import tn.esprit.eventsproject.entities.Logistics;
 import tn.esprit.eventsproject.entities.Participant;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface IEventServices {
     public Participant addParticipant(Participant participant);
+    public RegistrationStatus addParticipantAsync(Participant participant);
+    public Optional<RegistrationStatus> getRegistration(String ticket);
+    public List<Participant> addParticipants(List<Participant> participants);
     public Event addAffectEvenParticipant(Event event, int idParticipant);
     public Event addAffectEvenParticipant(Event event);
     public Logistics addAffectLog(Logistics logistics, String descriptionEvent);
+    public List<Logistics> addAffectLogs(List<Logistics> logistics, String descriptionEvent);
     public List<Logistics> getLogisticsDates(LocalDate dateDebut, LocalDate dateFin);
+    public List<Logistics> getLogisticsDatesOverlapping(LocalDate dateDebut, LocalDate dateFin);
+    public void streamLogisticsDates(LocalDate dateDebut, LocalDate dateFin, Consumer<Logistics> consumer);
     public void calculCout();
 }
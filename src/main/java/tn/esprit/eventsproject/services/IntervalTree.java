@@ -0,0 +1,203 @@
+package tn.esprit.eventsproject.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * AVL tree of closed integer intervals keyed by {@code (start, id)}, each node carrying the largest
+ * end of its subtree so overlap searches can skip whole subtrees. One interval per ID; not thread-safe.
+ */
+final class IntervalTree {
+
+    private static final class Node {
+        final int id;
+        final int start;
+        final int end;
+        int maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(int id, int start, int end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Map<Integer, Node> byId = new HashMap<>();
+    private Node root;
+
+    /**
+     * Builds a balanced tree in O(n) from intervals already sorted by {@code (start, id)}.
+     */
+    static IntervalTree ofSorted(int[] ids, int[] starts, int[] ends, int count) {
+        IntervalTree tree = new IntervalTree();
+        tree.root = tree.build(ids, starts, ends, 0, count - 1);
+        return tree;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    void put(int id, int start, int end) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval ends before it starts: [" + start + ", " + end + "]");
+        }
+        remove(id);
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        byId.put(id, node);
+    }
+
+    boolean remove(int id) {
+        Node node = byId.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, node.id);
+        return true;
+    }
+
+    /**
+     * Calls {@code action} with the ID of every interval intersecting {@code [from, to]}, in start order.
+     */
+    void forEachOverlapping(int from, int to, IntConsumer action) {
+        search(root, from, to, action);
+    }
+
+    private Node build(int[] ids, int[] starts, int[] ends, int low, int high) {
+        if (low > high) {
+            return null;
+        }
+        int mid = (low + high) >>> 1;
+        Node node = new Node(ids[mid], starts[mid], ends[mid]);
+        node.left = build(ids, starts, ends, low, mid - 1);
+        node.right = build(ids, starts, ends, mid + 1, high);
+        update(node);
+        byId.put(node.id, node);
+        return node;
+    }
+
+    private static void search(Node node, int from, int to, IntConsumer action) {
+        // Recursion depth is bounded by the tree height (about 30 for a million intervals)
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        search(node.left, from, to, action);
+        if (node.start > to) {
+            return;
+        }
+        if (node.end >= from) {
+            action.accept(node.id);
+        }
+        search(node.right, from, to, action);
+    }
+
+    private static int compare(int start, int id, Node node) {
+        int byStart = Integer.compare(start, node.start);
+        return byStart != 0 ? byStart : Integer.compare(id, node.id);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, int start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        int maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,101 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.dto.CursorPage;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Keyset-paginated listings of events, participants and logistics: each page continues after the key
+ * encoded in the previous page's cursor, so deep pages cost the same as the first.
+ */
+@RequiredArgsConstructor
+@Service
+public class ListingService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final EventRepository eventRepository;
+    private final ParticipantRepository participantRepository;
+    private final LogisticsRepository logisticsRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPage<Logistics> getLogisticsDatesPage(LocalDate dateDebut, LocalDate dateFin, String cursor, int size) {
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
+        checkPageSize(size);
+
+        List<Logistics> rows = logisticsRepository.findReservedBetweenAfter(
+                dateDebut, dateFin, CursorPage.decodeCursor(cursor), PageRequest.of(0, size + 1));
+        return page(rows, size, last -> CursorPage.encodeCursor(last.getIdLog()));
+    }
+
+    // Sorted by start date when a date range is given, by id otherwise
+    @Transactional(readOnly = true)
+    public CursorPage<Event> getEventsPage(LocalDate dateDebut, LocalDate dateFin, String cursor, int size) {
+        checkPageSize(size);
+        if ((dateDebut == null) != (dateFin == null)) {
+            throw new IllegalArgumentException("Start and end dates must be given together");
+        }
+        if (dateDebut == null) {
+            List<Event> rows = eventRepository.findAfter(CursorPage.decodeCursor(cursor), PageRequest.of(0, size + 1));
+            return page(rows, size, last -> CursorPage.encodeCursor(last.getIdEvent()));
+        }
+        if (dateFin.isBefore(dateDebut)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        CursorPage.DateKey after = CursorPage.decodeDateCursor(cursor);
+        List<Event> rows = after == null
+                ? eventRepository.findBetweenAfter(dateDebut, dateFin, dateDebut, 0, PageRequest.of(0, size + 1))
+                : eventRepository.findBetweenAfter(dateDebut, dateFin, after.getDate(), after.getId(), PageRequest.of(0, size + 1));
+        return page(rows, size, last -> CursorPage.encodeCursor(last.getDateDebut(), last.getIdEvent()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Participant> getParticipantsPage(Tache tache, String cursor, int size) {
+        checkPageSize(size);
+        int afterId = CursorPage.decodeCursor(cursor);
+        List<Participant> rows = tache == null
+                ? participantRepository.findAfter(afterId, PageRequest.of(0, size + 1))
+                : participantRepository.findByTacheAfter(tache, afterId, PageRequest.of(0, size + 1));
+        return page(rows, size, last -> CursorPage.encodeCursor(last.getIdPart()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Logistics> getLogisticsPage(Boolean reserve, String cursor, int size) {
+        checkPageSize(size);
+        int afterId = CursorPage.decodeCursor(cursor);
+        List<Logistics> rows = reserve == null
+                ? logisticsRepository.findAfter(afterId, PageRequest.of(0, size + 1))
+                : logisticsRepository.findByReserveAfter(reserve, afterId, PageRequest.of(0, size + 1));
+        return page(rows, size, last -> CursorPage.encodeCursor(last.getIdLog()));
+    }
+
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    // Rows are fetched with one extra, which tells whether another page exists without a count query
+    private static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+}
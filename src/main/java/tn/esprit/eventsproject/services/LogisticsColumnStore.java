@@ -0,0 +1,356 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.LogisticsCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Copy of the event logistics kept as primitive columns in direct (off-heap) buffers for cost
+ * analytics: the event of each row, its reserve flag as a bitmap, its unit price and quantity, plus
+ * the start day of each event indexed by event ID. Aggregations are sequential scans that allocate
+ * nothing and write into arrays owned by the caller. It is loaded once the application is ready and
+ * kept current from {@link LogisticsChange}s and {@link EventChange}s.
+ */
+@Slf4j
+@Component
+public class LogisticsColumnStore implements ChangeConsumer {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final LogisticsRepository logisticsRepository;
+    private final EventRepository eventRepository;
+    private final TransactionOperations transactionOperations;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns();
+    private boolean loaded;
+    // Changes seen while a rebuild reads the tables, replayed on the new columns
+    private List<Consumer<Columns>> pendingChanges;
+
+    public LogisticsColumnStore(LogisticsRepository logisticsRepository,
+                                EventRepository eventRepository,
+                                TransactionOperations transactionOperations,
+                                MeterRegistry meterRegistry) {
+        this.logisticsRepository = logisticsRepository;
+        this.eventRepository = eventRepository;
+        this.transactionOperations = transactionOperations;
+        Gauge.builder("events.analytics.logistics.rows", this, LogisticsColumnStore::size)
+                .description("Logistics rows held by the column store")
+                .register(meterRegistry);
+        Gauge.builder("events.analytics.logistics.offheap", this, LogisticsColumnStore::offHeapBytes)
+                .description("Direct memory reserved by the logistics column store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reloads every column from the database. Queries keep using the previous columns meanwhile.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            columns = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Logistics column store loaded {} rows ({} bytes off-heap) in {} ms",
+                fresh.size, fresh.offHeapBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLogisticsChange(LogisticsChange change) {
+        apply(target -> target.add(change.getIdEvent(), change.getIdLog(), change.isReserve(),
+                change.getPrixUnit(), change.getQuantite()));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        int startDay = change.getDateDebut() == null ? NO_DATE : (int) change.getDateDebut().toEpochDay();
+        apply(target -> target.setStartDay(change.getIdEvent(), startDay));
+    }
+
+    /**
+     * Reserved cost of one event.
+     */
+    public double costOfEvent(int idEvent) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            double cost = 0;
+            for (int row = 0; row < c.size; row++) {
+                if (c.eventIds.get(row) == idEvent && c.isReserved(row)) {
+                    cost += (double) c.prixUnit.get(row) * c.quantite.get(row);
+                }
+            }
+            return cost;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the reserved cost of every event to {@code costs[idEvent]}. The array must be longer than
+     * {@link #maxEventId()}.
+     */
+    public void costPerEvent(double[] costs) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            if (costs.length <= c.maxEventId) {
+                throw new IllegalArgumentException("Cost array must hold " + (c.maxEventId + 1) + " events");
+            }
+            for (int row = 0; row < c.size; row++) {
+                if (c.isReserved(row)) {
+                    costs[c.eventIds.get(row)] += (double) c.prixUnit.get(row) * c.quantite.get(row);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the cost of the rows with the given reserve state whose event starts within
+     * {@code [from, to]} to {@code buckets}: bucket {@code i} covers the days from
+     * {@code from + i * bucketDays} on. Events without a start date are skipped.
+     */
+    public void costPerDateBucket(LocalDate from, LocalDate to, int bucketDays, boolean reserve, double[] buckets) {
+        if (bucketDays < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        long firstDay = from.toEpochDay();
+        long lastDay = Math.min(to.toEpochDay(), firstDay + (long) bucketDays * buckets.length - 1);
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            for (int row = 0; row < c.size; row++) {
+                if (c.isReserved(row) != reserve) {
+                    continue;
+                }
+                int startDay = c.startDays.get(c.eventIds.get(row));
+                if (startDay != NO_DATE && startDay >= firstDay && startDay <= lastDay) {
+                    buckets[(int) ((startDay - firstDay) / bucketDays)] += (double) c.prixUnit.get(row) * c.quantite.get(row);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the cost of the unreserved rows to {@code costs[0]} and of the reserved ones to {@code costs[1]}.
+     */
+    public void costPerReserveState(double[] costs) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            for (int row = 0; row < c.size; row++) {
+                costs[c.isReserved(row) ? 1 : 0] += (double) c.prixUnit.get(row) * c.quantite.get(row);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int maxEventId() {
+        lock.readLock().lock();
+        try {
+            return columns.maxEventId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return columns.offHeapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Columns> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(columns);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Columns load() {
+        return transactionOperations.execute(status -> {
+            Columns fresh = new Columns();
+            try (Stream<EventDates> dates = eventRepository.streamDates()) {
+                dates.forEach(event -> fresh.setStartDay(event.getIdEvent(), (int) event.getDateDebut().toEpochDay()));
+            }
+            try (Stream<LogisticsCost> costs = logisticsRepository.streamCosts()) {
+                costs.forEach(row -> fresh.add(row.getIdEvent(), row.getIdLog(), row.isReserve(),
+                        row.getPrixUnit(), row.getQuantite()));
+            }
+            return fresh;
+        });
+    }
+
+    private static final class Columns {
+        int size;
+        IntBuffer eventIds = ints(1024);
+        FloatBuffer prixUnit = floats(1024);
+        IntBuffer quantite = ints(1024);
+        LongBuffer reserved = longs(16);
+        // Indexed by event ID, which the pooled sequences keep dense
+        int maxEventId;
+        IntBuffer startDays = dates(1024, 0);
+        // Rows already held, so a change replayed after a rebuild is not counted twice
+        final RoaringBitmap logisticsIds = new RoaringBitmap();
+
+        void add(int idEvent, int idLog, boolean reserve, float unitPrice, int quantity) {
+            if (!logisticsIds.checkedAdd(idLog)) {
+                return;
+            }
+            if (size == eventIds.capacity()) {
+                int capacity = size * 2;
+                eventIds = ints(capacity).put(0, eventIds, 0, size);
+                prixUnit = floats(capacity).put(0, prixUnit, 0, size);
+                quantite = ints(capacity).put(0, quantite, 0, size);
+                reserved = longs(capacity / 64).put(0, reserved, 0, reserved.capacity());
+            }
+            ensureEvent(idEvent);
+            eventIds.put(size, idEvent);
+            prixUnit.put(size, unitPrice);
+            quantite.put(size, quantity);
+            if (reserve) {
+                reserved.put(size >>> 6, reserved.get(size >>> 6) | (1L << size));
+            }
+            size++;
+        }
+
+        void setStartDay(int idEvent, int startDay) {
+            ensureEvent(idEvent);
+            startDays.put(idEvent, startDay);
+        }
+
+        boolean isReserved(int row) {
+            return (reserved.get(row >>> 6) & (1L << row)) != 0;
+        }
+
+        long offHeapBytes() {
+            return 4L * eventIds.capacity() + 4L * prixUnit.capacity() + 4L * quantite.capacity()
+                    + 8L * reserved.capacity() + 4L * startDays.capacity();
+        }
+
+        private void ensureEvent(int idEvent) {
+            if (idEvent < 0) {
+                throw new IllegalArgumentException("Invalid event ID: " + idEvent);
+            }
+            if (idEvent >= startDays.capacity()) {
+                int capacity = Math.max(idEvent + 1, startDays.capacity() * 2);
+                startDays = dates(capacity, startDays.capacity()).put(0, startDays, 0, startDays.capacity());
+            }
+            maxEventId = Math.max(maxEventId, idEvent);
+        }
+
+        private static ByteBuffer direct(long bytes) {
+            return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder());
+        }
+
+        private static IntBuffer ints(int capacity) {
+            return direct(4L * capacity).asIntBuffer();
+        }
+
+        private static FloatBuffer floats(int capacity) {
+            return direct(4L * capacity).asFloatBuffer();
+        }
+
+        private static LongBuffer longs(int capacity) {
+            return direct(8L * capacity).asLongBuffer();
+        }
+
+        // Events not seen yet have no start date; the first copied entries are filled by the caller
+        private static IntBuffer dates(int capacity, int copied) {
+            IntBuffer days = ints(capacity);
+            for (int i = copied; i < capacity; i++) {
+                days.put(i, NO_DATE);
+            }
+            return days;
+        }
+    }
+}
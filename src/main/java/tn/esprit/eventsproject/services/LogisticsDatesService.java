@@ -0,0 +1,56 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.entities.Logistics;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versions of the reserved logistics of a date range, which tag {@code getLogs} responses and wake its
+ * long polls, see {@link RangeVersions}, and the rows that go out under them.
+ */
+@RequiredArgsConstructor
+@Service
+public class LogisticsDatesService {
+
+    static final Duration MAX_POLL_TIMEOUT = Duration.ofMinutes(2);
+
+    private final RangeVersions rangeVersions;
+    private final IEventServices eventServices;
+
+    public String getLogisticsDatesVersion(LocalDate dateDebut, LocalDate dateFin) {
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
+        return rangeVersions.version(dateDebut, dateFin);
+    }
+
+    public CompletableFuture<String> awaitLogisticsDatesChange(LocalDate dateDebut, LocalDate dateFin, String version, Duration timeout) {
+        Objects.requireNonNull(dateDebut, "Start date cannot be null");
+        Objects.requireNonNull(dateFin, "End date cannot be null");
+        Objects.requireNonNull(version, "Version cannot be null");
+        Objects.requireNonNull(timeout, "Timeout cannot be null");
+        if (timeout.isNegative() || timeout.isZero() || timeout.compareTo(MAX_POLL_TIMEOUT) > 0) {
+            throw new IllegalArgumentException("Poll timeout must be positive and at most " + MAX_POLL_TIMEOUT.toSeconds() + "s");
+        }
+        return rangeVersions.awaitChange(dateDebut, dateFin, version, timeout);
+    }
+
+    /**
+     * Reserved logistics of {@code [dateDebut, dateFin]}, read on the primary: the read-only queries join
+     * this read-write transaction, which the routing keeps off the replicas. Versions move when a change
+     * commits on the primary, and a replica that has not caught up yet would send the rows from before it
+     * under the new version.
+     */
+    @Transactional
+    public List<Logistics> getLogisticsDates(LocalDate dateDebut, LocalDate dateFin, boolean overlap) {
+        return overlap
+                ? eventServices.getLogisticsDatesOverlapping(dateDebut, dateFin)
+                : eventServices.getLogisticsDates(dateDebut, dateFin);
+    }
+}
@@ -0,0 +1,300 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.dto.Membership;
+import tn.esprit.eventsproject.dto.MembershipFootprint;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory participant/event membership held as compressed (Roaring) bitmaps: participant to events,
+ * event to participants and tache to participants. It is loaded once the application is ready and kept
+ * current from {@link ParticipantChange}s and {@link ParticipationChange}s; until the first load
+ * finishes, queries go to {@link ParticipantRepository}.
+ */
+@Slf4j
+@Component
+public class MembershipIndex implements ChangeConsumer {
+
+    private final ParticipantRepository participantRepository;
+    private final TransactionOperations transactionOperations;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Bitmaps bitmaps = new Bitmaps();
+    private boolean loaded;
+    // Changes seen while a rebuild reads the table, replayed on the new bitmaps
+    private List<Consumer<Bitmaps>> pendingChanges;
+
+    public MembershipIndex(ParticipantRepository participantRepository,
+                           TransactionOperations transactionOperations,
+                           MeterRegistry meterRegistry) {
+        this.participantRepository = participantRepository;
+        this.transactionOperations = transactionOperations;
+        Gauge.builder("events.index.membership.participants", this, MembershipIndex::participantCount)
+                .description("Participants with at least one event in the membership index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reloads every bitmap from the database. Queries keep using the previous ones meanwhile.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            bitmaps = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Membership index loaded {} participants in {} ms",
+                fresh.eventsByParticipant.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParticipantChange(ParticipantChange change) {
+        apply(target -> target.replaceParticipant(change.getIdPart(), change.getTache(), change.getEventIds()));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParticipationChange(ParticipationChange change) {
+        apply(target -> change.getParticipantIds().forEach(idPart -> target.link(idPart, change.getIdEvent())));
+    }
+
+    public boolean isMember(int idPart, int idEvent) {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                RoaringBitmap events = bitmaps.eventsByParticipant.get(idPart);
+                return events != null && events.contains(idEvent);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return !participantRepository.findIdsAlreadyInEvent(idEvent, Collections.singleton(idPart)).isEmpty();
+    }
+
+    /**
+     * IDs of the events every one of {@code participantIds} takes part in, in ascending order.
+     */
+    public int[] findSharedEvents(Collection<Integer> participantIds) {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return bitmaps.shared(participantIds).toArray();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toArray(participantRepository.findSharedEventIds(participantIds, participantIds.size()));
+    }
+
+    public int countSharedEvents(Collection<Integer> participantIds) {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return bitmaps.shared(participantIds).getCardinality();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return participantRepository.findSharedEventIds(participantIds, participantIds.size()).size();
+    }
+
+    /**
+     * IDs of the participants of {@code idEvent} with the given tache, in ascending order.
+     */
+    public int[] findParticipants(int idEvent, Tache tache) {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                RoaringBitmap participants = bitmaps.participantsByEvent.get(idEvent);
+                RoaringBitmap withTache = bitmaps.participantsByTache.get(tache);
+                return participants == null || withTache == null
+                        ? new int[0]
+                        : RoaringBitmap.and(participants, withTache).toArray();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toArray(participantRepository.findIdsInEvent(idEvent, tache));
+    }
+
+    public MembershipFootprint footprint() {
+        lock.readLock().lock();
+        try {
+            long links = 0;
+            long heapBytes = 0;
+            long serializedBytes = 0;
+            for (Collection<RoaringBitmap> side : List.of(bitmaps.eventsByParticipant.values(),
+                    bitmaps.participantsByEvent.values(), bitmaps.participantsByTache.values())) {
+                for (RoaringBitmap bitmap : side) {
+                    heapBytes += bitmap.getLongSizeInBytes();
+                    serializedBytes += bitmap.serializedSizeInBytes();
+                }
+            }
+            for (RoaringBitmap events : bitmaps.eventsByParticipant.values()) {
+                links += events.getLongCardinality();
+            }
+            return new MembershipFootprint(loaded, bitmaps.eventsByParticipant.size(),
+                    bitmaps.participantsByEvent.size(), links, heapBytes, serializedBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int participantCount() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.eventsByParticipant.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Bitmaps> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(bitmaps);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Bitmaps load() {
+        return transactionOperations.execute(status -> {
+            Bitmaps fresh = new Bitmaps();
+            try (Stream<Membership> memberships = participantRepository.streamMemberships()) {
+                memberships.forEach(membership -> {
+                    fresh.addTache(membership.getIdPart(), membership.getTache());
+                    if (membership.getIdEvent() != null) {
+                        fresh.link(membership.getIdPart(), membership.getIdEvent());
+                    }
+                });
+            }
+            fresh.optimize();
+            return fresh;
+        });
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static final class Bitmaps {
+        final Map<Integer, RoaringBitmap> eventsByParticipant = new HashMap<>();
+        final Map<Integer, RoaringBitmap> participantsByEvent = new HashMap<>();
+        final Map<Tache, RoaringBitmap> participantsByTache = new EnumMap<>(Tache.class);
+
+        void link(int idPart, int idEvent) {
+            eventsByParticipant.computeIfAbsent(idPart, id -> new RoaringBitmap()).add(idEvent);
+            participantsByEvent.computeIfAbsent(idEvent, id -> new RoaringBitmap()).add(idPart);
+        }
+
+        void addTache(int idPart, Tache tache) {
+            if (tache != null) {
+                participantsByTache.computeIfAbsent(tache, t -> new RoaringBitmap()).add(idPart);
+            }
+        }
+
+        void replaceParticipant(int idPart, Tache tache, Set<Integer> eventIds) {
+            participantsByTache.values().forEach(participants -> participants.remove(idPart));
+            addTache(idPart, tache);
+            RoaringBitmap previous = eventsByParticipant.remove(idPart);
+            if (previous != null) {
+                previous.forEach((int idEvent) -> {
+                    RoaringBitmap participants = participantsByEvent.get(idEvent);
+                    participants.remove(idPart);
+                    if (participants.isEmpty()) {
+                        participantsByEvent.remove(idEvent);
+                    }
+                });
+            }
+            eventIds.forEach(idEvent -> link(idPart, idEvent));
+        }
+
+        RoaringBitmap shared(Collection<Integer> participantIds) {
+            // Smallest set first, so the intersection shrinks as early as possible
+            List<RoaringBitmap> sets = new ArrayList<>(participantIds.size());
+            for (Integer idPart : participantIds) {
+                RoaringBitmap events = eventsByParticipant.get(idPart);
+                if (events == null) {
+                    return new RoaringBitmap();
+                }
+                sets.add(events);
+            }
+            if (sets.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            sets.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+            RoaringBitmap shared = sets.get(0).clone();
+            for (int i = 1; i < sets.size() && !shared.isEmpty(); i++) {
+                shared.and(sets.get(i));
+            }
+            return shared;
+        }
+
+        void optimize() {
+            eventsByParticipant.values().forEach(RoaringBitmap::runOptimize);
+            participantsByEvent.values().forEach(RoaringBitmap::runOptimize);
+            participantsByTache.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import tn.esprit.eventsproject.dto.MembershipFootprint;
+import tn.esprit.eventsproject.entities.Tache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Participant/event membership questions, answered from the bitmaps of {@link MembershipIndex}.
+ */
+@RequiredArgsConstructor
+@Service
+public class MembershipService {
+
+    static final int MAX_PARTICIPANTS = 1000;
+
+    private final MembershipIndex membershipIndex;
+
+    public int[] getSharedEvents(Collection<Integer> participantIds) {
+        return membershipIndex.findSharedEvents(checkParticipantIds(participantIds));
+    }
+
+    public int countSharedEvents(Collection<Integer> participantIds) {
+        return membershipIndex.countSharedEvents(checkParticipantIds(participantIds));
+    }
+
+    public boolean isParticipating(int idParticipant, int idEvent) {
+        return membershipIndex.isMember(idParticipant, idEvent);
+    }
+
+    public int[] getEventParticipants(int idEvent, Tache tache) {
+        Objects.requireNonNull(tache, "Tache cannot be null");
+        return membershipIndex.findParticipants(idEvent, tache);
+    }
+
+    public MembershipFootprint getMembershipFootprint() {
+        return membershipIndex.footprint();
+    }
+
+    private static Set<Integer> checkParticipantIds(Collection<Integer> participantIds) {
+        Objects.requireNonNull(participantIds, "Participant IDs cannot be null");
+        Set<Integer> ids = new LinkedHashSet<>(participantIds);
+        if (ids.isEmpty() || ids.size() > MAX_PARTICIPANTS || ids.contains(null)) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_PARTICIPANTS + " participant IDs are required");
+        }
+        return ids;
+    }
+}
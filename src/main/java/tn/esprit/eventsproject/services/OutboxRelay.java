@@ -0,0 +1,316 @@
+package tn.esprit.eventsproject.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.config.DatabaseLease;
+import tn.esprit.eventsproject.entities.OutboxRecord;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Copies the outbox, shared by every node, to this node's {@link ChangeLog} and hands the changes made on
+ * other nodes to the {@link ChangeConsumer}s, so that the in-memory indexes and caches of every node see
+ * every write. Every node relays on its own, so each log holds every change in the order the rows became
+ * visible; log offsets are per node, outbox IDs are the same everywhere.
+ * <p>
+ * Outbox IDs are taken at insert but only visible at commit, so a row can show up after rows with higher
+ * IDs: the IDs skipped over are looked up again on every run until {@code events.outbox.gap-timeout} has
+ * passed. Rows stay in the outbox for {@code events.outbox.retention}, then the node holding the
+ * {@value #LEASE} lease deletes them. Changes recorded before this node started are copied to its log
+ * but not handed over, the indexes load that state from the tables.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    static final String LEASE = "outbox-prune";
+    private static final String COLUMNS = "select id, type, aggregate_id, origin, payload, created_at from outbox_record ";
+    private static final String SELECT_AFTER = COLUMNS + "where id > ? order by id limit ?";
+    private static final String MAX_ID = "select coalesce(max(id), 0) from outbox_record";
+    private static final String PRUNE = "delete from outbox_record where created_at < ?";
+    // Bounds the IDs tracked as missing, and the IN lists that look them up
+    private static final int MAX_GAPS = 10_000;
+    private static final int MAX_IN_CLAUSE = 1000;
+    private static final RowMapper<OutboxRecord> ROW = (rs, rowNum) -> new OutboxRecord(
+            rs.getLong("id"), rs.getString("type"), rs.getInt("aggregate_id"), rs.getString("origin"),
+            rs.getString("payload"), rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeLog changeLog;
+    private final DatabaseLease lease;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ChangeConsumer> consumers;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    private final Duration leaseDuration;
+    private final Counter relayed;
+    private final Counter handedOver;
+    private final Counter consumerFailures;
+    private final Timer batchDuration;
+    private boolean started;
+    // Highest outbox ID read, and the highest one when this node started
+    private long cursor;
+    private long handOverAfter;
+    // Missing IDs below the cursor, in ID order, with the time they are given up at
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       ChangeLog changeLog,
+                       DatabaseLease lease,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<ChangeConsumer> consumers,
+                       MeterRegistry meterRegistry,
+                       @Value("${events.outbox.relay-batch-size:500}") int batchSize,
+                       @Value("${events.outbox.gap-timeout:1m}") Duration gapTimeout,
+                       @Value("${events.outbox.retention:1h}") Duration retention,
+                       @Value("${events.outbox.prune-lease:5m}") Duration leaseDuration) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Relay batch size must be positive");
+        }
+        if (retention.compareTo(gapTimeout) <= 0) {
+            throw new IllegalArgumentException("Outbox retention must be longer than the gap timeout");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
+        this.lease = lease;
+        this.objectMapper = objectMapper;
+        this.consumers = consumers;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retention = retention;
+        this.leaseDuration = leaseDuration;
+        this.relayed = Counter.builder("events.outbox.relayed")
+                .description("Outbox rows appended to the change log")
+                .register(meterRegistry);
+        this.handedOver = Counter.builder("events.outbox.handed-over")
+                .description("Changes made on other nodes handed to the local indexes and caches")
+                .register(meterRegistry);
+        this.consumerFailures = Counter.builder("events.outbox.consumer.failures")
+                .description("Changes a local index or cache failed to apply")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("events.outbox.relay.batch")
+                .description("Duration of an outbox batch: read, append, force and hand over")
+                .register(meterRegistry);
+        Gauge.builder("events.outbox.gaps", this, OutboxRelay::gapCount)
+                .description("Outbox IDs skipped over and still waited for")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts from the end of the outbox, or where this node's log stopped. Runs before the indexes load,
+     * so that every change they may miss is handed over.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID, Long.class);
+        handOverAfter = maxId == null ? 0 : maxId;
+        long logged = changeLog.getLastOutboxId();
+        cursor = logged > 0 ? Math.min(logged, handOverAfter) : handOverAfter;
+        started = true;
+        log.info("Outbox relay starts after outbox ID {}, hands over changes after {}", cursor, handOverAfter);
+    }
+
+    @Scheduled(fixedDelayString = "${events.outbox.relay-delay-ms:500}")
+    public void scheduledRelay() {
+        relay();
+    }
+
+    @Scheduled(fixedDelayString = "${events.outbox.prune-delay-ms:60000}")
+    public void scheduledPrune() {
+        if (!lease.tryAcquire(LEASE, leaseDuration)) {
+            return;
+        }
+        prune();
+    }
+
+    /**
+     * Relays the rows committed since the last run, the missing ones that showed up included, and returns
+     * their number.
+     */
+    public synchronized int relay() {
+        start();
+        int total = relayGaps();
+        while (true) {
+            long start = System.nanoTime();
+            List<OutboxRecord> rows = jdbcTemplate.query(SELECT_AFTER, ROW, cursor, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (OutboxRecord row : rows) {
+                skipTo(row.getId());
+            }
+            append(rows);
+            total += rows.size();
+            batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.debug("Relayed {} outbox rows, change log ends at {}", total, changeLog.getEndOffset());
+        }
+        return total;
+    }
+
+    /**
+     * Deletes the rows older than the retention and returns their number.
+     */
+    public int prune() {
+        int pruned = jdbcTemplate.update(PRUNE, Timestamp.from(Instant.now().minus(retention)));
+        if (pruned > 0) {
+            log.debug("Pruned {} outbox rows", pruned);
+        }
+        return pruned;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            lease.release(LEASE);
+        } catch (DataAccessException e) {
+            // Best effort: the lease expires on its own
+            log.warn("Could not release lease {}: {}", LEASE, e.getMessage());
+        }
+    }
+
+    private synchronized int gapCount() {
+        return gaps.size();
+    }
+
+    private void skipTo(long id) {
+        long missing = id - cursor - 1;
+        if (missing > MAX_GAPS) {
+            // A jump of the ID generator rather than transactions still open
+            log.warn("Outbox IDs {} to {} skipped, not waiting for them", cursor + 1, id - 1);
+        } else if (missing > 0) {
+            long deadline = System.nanoTime() + gapTimeoutNanos;
+            for (long gap = cursor + 1; gap < id; gap++) {
+                gaps.put(gap, deadline);
+            }
+            for (Iterator<Long> it = gaps.keySet().iterator(); gaps.size() > MAX_GAPS; ) {
+                log.warn("Outbox ID {} given up, too many missing IDs", it.next());
+                it.remove();
+            }
+        }
+        cursor = Math.max(cursor, id);
+    }
+
+    private int relayGaps() {
+        if (gaps.isEmpty()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        gaps.values().removeIf(deadline -> deadline - now < 0);
+        List<OutboxRecord> found = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IN_CLAUSE, ids.size()));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            found.addAll(jdbcTemplate.query(COLUMNS + "where id in (" + in + ") order by id", ROW, chunk.toArray()));
+        }
+        if (found.isEmpty()) {
+            return 0;
+        }
+        found.sort(Comparator.comparingLong(OutboxRecord::getId));
+        found.forEach(row -> gaps.remove(row.getId()));
+        append(found);
+        return found.size();
+    }
+
+    private void append(List<OutboxRecord> rows) {
+        for (OutboxRecord row : rows) {
+            changeLog.append(row.getId(), row.getType(), row.getAggregateId(), row.getCreatedAt(), row.getPayload());
+        }
+        changeLog.force();
+        relayed.increment(rows.size());
+        for (OutboxRecord row : rows) {
+            // This node's own changes were applied after their commit
+            if (row.getId() > handOverAfter && !lease.getNodeId().equals(row.getOrigin())) {
+                handOver(row);
+            }
+        }
+    }
+
+    private void handOver(OutboxRecord row) {
+        Consumer<ChangeConsumer> change;
+        try {
+            change = decode(row);
+        } catch (IllegalStateException e) {
+            consumerFailures.increment();
+            log.error("Cannot hand over outbox row {}", row.getId(), e);
+            return;
+        }
+        consumers.orderedStream().forEach(consumer -> {
+            try {
+                change.accept(consumer);
+            } catch (RuntimeException e) {
+                // The other consumers still get it; a rebuild of this one catches up
+                consumerFailures.increment();
+                log.error("{} failed to apply outbox row {}", consumer.getClass().getSimpleName(), row.getId(), e);
+            }
+        });
+        handedOver.increment();
+    }
+
+    private Consumer<ChangeConsumer> decode(OutboxRecord row) {
+        switch (row.getType()) {
+            case "EVENT":
+                EventChange event = decode(row, EventChange.class);
+                return consumer -> consumer.onEventChange(event);
+            case "PARTICIPANT":
+                ParticipantChange participant = decode(row, ParticipantChange.class);
+                return consumer -> consumer.onParticipantChange(participant);
+            case "PARTICIPATION":
+                ParticipationChange participation = decode(row, ParticipationChange.class);
+                return consumer -> consumer.onParticipationChange(participation);
+            case "LOGISTICS":
+                LogisticsChange logistics = decode(row, LogisticsChange.class);
+                return consumer -> consumer.onLogisticsChange(logistics);
+            default:
+                throw new IllegalStateException("Unknown change type " + row.getType());
+        }
+    }
+
+    private <T> T decode(OutboxRecord row, Class<T> type) {
+        try {
+            return objectMapper.readValue(row.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read outbox row " + row.getId() + " as " + type.getSimpleName(), e);
+        }
+    }
+}
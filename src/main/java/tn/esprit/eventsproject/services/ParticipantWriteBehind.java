@@ -0,0 +1,330 @@
+package tn.esprit.eventsproject.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.dto.RegistrationStatus;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the participants registered by {@code addParticipant}, each in its own transaction, or in
+ * write-behind mode when {@code events.registration.write-behind} is set. Registrations then wait in a
+ * bounded lock-free queue and one writer thread saves them in batches, one transaction per batch, as
+ * soon as {@code batch-size} are queued or {@code flush-interval} has passed.
+ * A registration is acknowledged only once its batch is committed; when the queue is full or stopped it
+ * is rejected with a {@link RejectedExecutionException} so callers can back off. If a batch fails, its
+ * registrations are retried one by one so that a single bad record fails alone.
+ */
+@Slf4j
+@Component
+public class ParticipantWriteBehind {
+
+    private final ParticipantRepository participantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactionOperations;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int capacity;
+    private final Duration ackTimeout;
+    private final Queue<Registration> queue = new ConcurrentLinkedQueue<>();
+    // Bounds the queue without locking: a slot is reserved before enqueueing and released when drained
+    private final AtomicInteger reserved = new AtomicInteger();
+    // Registrations actually in the queue, counted after they are added, so the writer never expects more
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Cache<String, Registration> tickets;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private final Counter rejected;
+    private final Timer flushDuration;
+    private final DistributionSummary flushSize;
+
+    public ParticipantWriteBehind(ParticipantRepository participantRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  TransactionOperations transactionOperations,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${events.registration.write-behind:false}") boolean enabled,
+                                  @Value("${events.registration.batch-size:200}") int batchSize,
+                                  @Value("${events.registration.flush-interval:20ms}") Duration flushInterval,
+                                  @Value("${events.registration.queue-capacity:10000}") int capacity,
+                                  @Value("${events.registration.ack-timeout:5s}") Duration ackTimeout,
+                                  @Value("${events.registration.ticket-ttl:10m}") Duration ticketTtl) {
+        if (batchSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Registration batch size and queue capacity must be positive");
+        }
+        this.participantRepository = participantRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionOperations = transactionOperations;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.capacity = capacity;
+        this.ackTimeout = ackTimeout;
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(ticketTtl)
+                .build();
+        this.rejected = Counter.builder("events.registration.rejected")
+                .description("Registrations refused because the write-behind queue was full")
+                .register(meterRegistry);
+        this.flushDuration = Timer.builder("events.registration.flush")
+                .description("Duration of a write-behind batch, commit included")
+                .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("events.registration.batch")
+                .description("Registrations written per write-behind batch")
+                .register(meterRegistry);
+        Gauge.builder("events.registration.queued", queued, AtomicInteger::get)
+                .description("Registrations waiting in the write-behind queue")
+                .register(meterRegistry);
+        this.writer = new Thread(this::runWriter, "participant-write-behind");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the participant and returns its ticket. The future completes with the saved participant
+     * once the batch holding it is committed.
+     */
+    public Registration submit(Participant participant) {
+        if (!enabled || !running) {
+            throw new RejectedExecutionException("Participant write-behind is not running");
+        }
+        int size;
+        do {
+            size = reserved.get();
+            if (size >= capacity) {
+                rejected.increment();
+                throw new RejectedExecutionException("Registration queue is full (" + capacity + " pending)");
+            }
+        } while (!reserved.compareAndSet(size, size + 1));
+
+        Registration registration = new Registration(UUID.randomUUID().toString(), participant);
+        tickets.put(registration.ticket, registration);
+        queue.add(registration);
+        if (queued.incrementAndGet() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return registration;
+    }
+
+    /**
+     * Queues the participant and waits until its batch is committed. A registration still queued after
+     * {@code ack-timeout} is left to the writer and reported with a {@link PendingRegistrationException};
+     * one the caller stopped waiting for before the writer took it is withdrawn and rejected.
+     */
+    public Participant submitAndWait(Participant participant) {
+        Registration registration = submit(participant);
+        try {
+            return registration.result.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new PendingRegistrationException(registration.status());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Withdrawn, it is never written and the caller can safely try again
+            if (registration.withdraw()) {
+                throw new RejectedExecutionException("Interrupted before registration " + registration.ticket + " was written");
+            }
+            throw new PendingRegistrationException(registration.status());
+        }
+    }
+
+    /**
+     * Saves the participant right away, in its own transaction.
+     */
+    public Participant save(Participant participant) {
+        return transactionOperations.execute(status -> {
+            Participant saved = participantRepository.save(participant);
+            eventPublisher.publishEvent(ParticipantChange.of(saved));
+            return saved;
+        });
+    }
+
+    public Optional<RegistrationStatus> status(String ticket) {
+        return Optional.ofNullable(tickets.getIfPresent(ticket)).map(Registration::status);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        // The writer drains whatever is still queued before it stops
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Submitted after the last flush: never written, so never acknowledged
+        Registration left;
+        while ((left = queue.poll()) != null) {
+            left.result.completeExceptionally(new RejectedExecutionException("Registration queue shut down"));
+        }
+    }
+
+    private void runWriter() {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running) {
+            long wait = deadline - System.nanoTime();
+            if (wait > 0 && queued.get() < batchSize) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            // Woken by a full batch: leave the remainder for the next batch or the timer
+            boolean due = wait <= 0;
+            flush(due);
+            if (due) {
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        flush(true);
+    }
+
+    private void flush(boolean partial) {
+        int available;
+        while ((available = queued.get()) >= batchSize || (partial && available > 0)) {
+            // The writer is the only consumer, so every registration counted is there to poll (short of
+            // a shutdown that gave up waiting for the writer and drains the queue itself)
+            int size = Math.min(available, batchSize);
+            List<Registration> batch = new ArrayList<>(size);
+            Registration next;
+            while (batch.size() < size && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            queued.addAndGet(-size);
+            reserved.addAndGet(-size);
+            batch.removeIf(registration -> !registration.take());
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    private void write(List<Registration> batch) {
+        long start = System.nanoTime();
+        try {
+            List<Participant> saved = transactionOperations.execute(status -> {
+                List<Participant> participants = new ArrayList<>(batch.size());
+                batch.forEach(registration -> participants.add(registration.participant));
+                List<Participant> result = participantRepository.saveAll(participants);
+                result.forEach(participant -> eventPublisher.publishEvent(ParticipantChange.of(participant)));
+                return result;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Registration batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+        } finally {
+            flushDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushSize.record(batch.size());
+        }
+    }
+
+    private void writeOne(Registration registration) {
+        try {
+            registration.result.complete(save(registration.participant));
+        } catch (RuntimeException e) {
+            registration.result.completeExceptionally(e);
+        }
+    }
+
+    public static final class Registration {
+        private final String ticket;
+        private final Participant participant;
+        private final CompletableFuture<Participant> result = new CompletableFuture<>();
+        // Set by the writer when it takes the registration, or by a caller withdrawing it first
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        Registration(String ticket, Participant participant) {
+            this.ticket = ticket;
+            this.participant = participant;
+        }
+
+        public String getTicket() {
+            return ticket;
+        }
+
+        public CompletableFuture<Participant> getResult() {
+            return result;
+        }
+
+        boolean take() {
+            return settled.compareAndSet(false, true);
+        }
+
+        boolean withdraw() {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            result.completeExceptionally(new RejectedExecutionException("Registration withdrawn"));
+            return true;
+        }
+
+        public RegistrationStatus status() {
+            if (!result.isDone()) {
+                return new RegistrationStatus(ticket, RegistrationStatus.State.PENDING, null, null);
+            }
+            if (result.isCompletedExceptionally()) {
+                Throwable error = result.handle((participant, e) -> e).join();
+                return new RegistrationStatus(ticket, RegistrationStatus.State.FAILED, null, error.getMessage());
+            }
+            return new RegistrationStatus(ticket, RegistrationStatus.State.COMMITTED, result.join().getIdPart(), null);
+        }
+    }
+
+    /**
+     * A registration that was queued but not committed while the caller waited; its ticket tells how it ends.
+     */
+    public static final class PendingRegistrationException extends RuntimeException {
+        private final RegistrationStatus status;
+
+        public PendingRegistrationException(RegistrationStatus status) {
+            super("Registration " + status.getTicket() + " not committed yet");
+            this.status = status;
+        }
+
+        public RegistrationStatus getStatus() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.repositories.EventRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Change versions of the logistics date queries, per month of event dates. Every {@link EventChange}
+ * and {@link LogisticsChange} bumps the months its event covers (before and after a date change), so the
+ * version of a date range, the highest of its months, moves whenever one of its events or their
+ * logistics is written. Versions are only comparable within one load, hence the epoch in front of them;
+ * until the first load finishes there are none.
+ * <p>
+ * Each node keeps its own versions: the changes made on other nodes are bumped once {@link OutboxRelay}
+ * hands them over, and a client moving to another node sees a different epoch and gets a full response.
+ */
+@Slf4j
+@Component
+public class RangeVersions implements ChangeConsumer {
+
+    // Months of a span bumped one by one, ten years; the rest is bumped as a tail
+    static final int MAX_BUMPED_MONTHS = 120;
+
+    private final EventRepository eventRepository;
+    private final TransactionOperations transactionOperations;
+    private final ExecutorService notifier;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Versions versions = new Versions();
+    private boolean loaded;
+    // Changes seen while a rebuild reads the table, replayed on the new versions
+    private List<Consumer<Versions>> pendingChanges;
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    public RangeVersions(EventRepository eventRepository,
+                         TransactionOperations transactionOperations,
+                         MeterRegistry meterRegistry,
+                         @Value("${events.logistics.poll-threads:4}") int pollThreads) {
+        if (pollThreads < 1) {
+            throw new IllegalArgumentException("Poll threads must be positive");
+        }
+        this.eventRepository = eventRepository;
+        this.transactionOperations = transactionOperations;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Waiters are woken here rather than on the thread that committed the change
+        this.notifier = Executors.newFixedThreadPool(pollThreads, runnable -> {
+            Thread thread = new Thread(runnable, "range-poll-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("events.logistics.poll.waiting", this, RangeVersions::waiting)
+                .description("Long polls waiting for a change of their date range")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reloads the event dates and starts a new epoch. Every pending long poll is woken up.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Versions fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            versions = fresh;
+            loaded = true;
+            notifyWaiters();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Range versions loaded {} events in {} ms", fresh.spans.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        apply(target -> target.moveEvent(change.getIdEvent(), change.getDateDebut(), change.getDateFin()));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLogisticsChange(LogisticsChange change) {
+        apply(target -> target.touchEvent(change.getIdEvent()));
+    }
+
+    /**
+     * Version of the events dated within {@code [from, to]}, or null until the first load.
+     */
+    public String version(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return loaded ? versions.version(monthOf(from), monthOf(to)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes with the version of {@code [from, to]} as soon as it differs from {@code seen}, or with
+     * {@code seen} once {@code timeout} has passed. Completes at once, with null, until the first load.
+     */
+    public CompletableFuture<String> awaitChange(LocalDate from, LocalDate to, String seen, Duration timeout) {
+        Waiter waiter = new Waiter(monthOf(from), monthOf(to), seen);
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return CompletableFuture.completedFuture(null);
+            }
+            String current = versions.version(waiter.fromMonth, waiter.toMonth);
+            if (!current.equals(seen)) {
+                return CompletableFuture.completedFuture(current);
+            }
+            waiters.add(waiter);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        waiter.future.whenComplete((version, failure) -> forget(waiter));
+        return waiter.future.completeOnTimeout(seen, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int waiting() {
+        lock.readLock().lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Versions> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(versions);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            notifyWaiters();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called with the write lock held
+    private void notifyWaiters() {
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+            Waiter waiter = it.next();
+            String current = versions.version(waiter.fromMonth, waiter.toMonth);
+            if (!current.equals(waiter.seen)) {
+                it.remove();
+                notifier.execute(() -> waiter.future.complete(current));
+            }
+        }
+    }
+
+    private void forget(Waiter waiter) {
+        lock.writeLock().lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Versions load() {
+        return transactionOperations.execute(status -> {
+            Versions fresh = new Versions();
+            try (Stream<EventDates> dates = eventRepository.streamDates()) {
+                dates.forEach(event -> fresh.spans.put(event.getIdEvent(), span(event.getDateDebut(), event.getDateFin())));
+            }
+            return fresh;
+        });
+    }
+
+    private static int monthOf(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    // Months from the start to the end date; without an end date, or with one before the start, the start month
+    private static int[] span(LocalDate dateDebut, LocalDate dateFin) {
+        int from = monthOf(dateDebut);
+        return new int[]{from, dateFin == null ? from : Math.max(from, monthOf(dateFin))};
+    }
+
+    private static final class Waiter {
+        final int fromMonth;
+        final int toMonth;
+        final String seen;
+        final CompletableFuture<String> future = new CompletableFuture<>();
+
+        Waiter(int fromMonth, int toMonth, String seen) {
+            this.fromMonth = fromMonth;
+            this.toMonth = toMonth;
+            this.seen = seen;
+        }
+    }
+
+    private static final class Versions {
+        final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        // Events without a start date are in no date range
+        final Map<Integer, int[]> spans = new HashMap<>();
+        final TreeMap<Integer, Long> months = new TreeMap<>();
+        // Bumps of every month from the key on, for the part of a span past MAX_BUMPED_MONTHS (an end date in
+        // year 9999 would take ~95,000 entries). Later ranges move along, which costs them a full response
+        final TreeMap<Integer, Long> tails = new TreeMap<>();
+        long sequence;
+
+        void moveEvent(int idEvent, LocalDate dateDebut, LocalDate dateFin) {
+            int[] previous = dateDebut == null ? spans.remove(idEvent) : spans.put(idEvent, span(dateDebut, dateFin));
+            sequence++;
+            if (previous != null) {
+                bump(previous);
+            }
+            if (dateDebut != null) {
+                bump(spans.get(idEvent));
+            }
+        }
+
+        void touchEvent(int idEvent) {
+            int[] span = spans.get(idEvent);
+            if (span != null) {
+                sequence++;
+                bump(span);
+            }
+        }
+
+        // A reversed range holds no event, its version never moves
+        String version(int fromMonth, int toMonth) {
+            if (fromMonth > toMonth) {
+                return epoch + "-0";
+            }
+            long latest = 0;
+            for (long version : months.subMap(fromMonth, true, toMonth, true).values()) {
+                latest = Math.max(latest, version);
+            }
+            for (long version : tails.headMap(toMonth, true).values()) {
+                latest = Math.max(latest, version);
+            }
+            return epoch + "-" + latest;
+        }
+
+        private void bump(int[] span) {
+            int last = Math.min(span[1], span[0] + MAX_BUMPED_MONTHS - 1);
+            for (int month = span[0]; month <= last; month++) {
+                months.put(month, sequence);
+            }
+            if (last < span[1]) {
+                tails.put(last + 1, sequence);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package tn.esprit.eventsproject.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Record rules shared by {@link EventServicesImpl} and {@link BulkImportService}, so an upload rejects a
+ * record with the same message the service would. Each check returns the broken rule, or null when the
+ * record passes; the lookups it needs are left to the caller, which batches them as it sees fit.
+ */
+final class RecordRules {
+
+    private RecordRules() {
+    }
+
+    static String checkParticipant(Object participant) {
+        return participant == null ? "Participant cannot be null" : null;
+    }
+
+    /**
+     * Participants of an event, of which {@code existingIds} are stored.
+     */
+    static String checkParticipants(Collection<Integer> participantIds, Set<Integer> existingIds) {
+        if (participantIds == null) {
+            return "Event must have participants";
+        }
+        List<Integer> missingIds = participantIds.stream()
+                .filter(id -> !existingIds.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+        return missingIds.isEmpty() ? null : "Participants not found with IDs: " + missingIds;
+    }
+
+    /**
+     * Logistics for the event with {@code eventDescription}, which resolved to {@code idEvent} (null when unknown).
+     */
+    static String checkLogistics(Object logistics, String eventDescription, Integer idEvent) {
+        if (logistics == null) {
+            return "Logistics cannot be null";
+        }
+        if (eventDescription == null) {
+            return "Event description cannot be null";
+        }
+        return idEvent == null ? "Event not found with description: " + eventDescription : null;
+    }
+
+    static void require(String violation) {
+        if (violation != null) {
+            throw new IllegalArgumentException(violation);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tn.esprit.eventsproject.dto.Booking;
+import tn.esprit.eventsproject.dto.ConflictReport;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds participants booked on events that overlap in time. Only members of
+ * {@code events.conflicts.taches} are checked; an event without an end date lasts its start day.
+ * Assignments that create a conflict are logged and counted, or rejected when
+ * {@code events.conflicts.reject} is set.
+ */
+@Slf4j
+@Component
+public class ScheduleConflictDetector {
+
+    private final ParticipantRepository participantRepository;
+    private final Set<Tache> taches;
+    private final boolean reject;
+    private final Counter detected;
+
+    public ScheduleConflictDetector(ParticipantRepository participantRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${events.conflicts.taches:ORGANISATEUR,SERVEUR}") Tache[] taches,
+                                    @Value("${events.conflicts.reject:false}") boolean reject) {
+        this.participantRepository = participantRepository;
+        this.taches = taches.length == 0 ? EnumSet.noneOf(Tache.class) : EnumSet.copyOf(Arrays.asList(taches));
+        this.reject = reject;
+        this.detected = Counter.builder("events.conflicts.detected")
+                .description("Assignments that booked a participant on overlapping events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks that booking {@code participantIds} on {@code event} does not overlap their other events.
+     * One query whatever the number of participants; nothing to check for an event without dates.
+     */
+    public void checkAssignment(Collection<Integer> participantIds, Event event) {
+        if (event.getDateDebut() == null || participantIds.isEmpty() || taches.isEmpty()) {
+            return;
+        }
+        List<Booking> conflicts = participantRepository.findBookingsOverlapping(
+                participantIds, taches, event.getIdEvent(), event.getDateDebut(), end(event));
+        if (conflicts.isEmpty()) {
+            return;
+        }
+
+        detected.increment();
+        String message = message(conflicts, Collections.emptyMap());
+        if (reject) {
+            throw new IllegalArgumentException(message);
+        }
+        log.warn("{} (event '{}')", message, event.getDescription());
+    }
+
+    /**
+     * Checks a batch of new events, each booking the participants listed in its {@code participants}, as
+     * {@link #checkAssignment} would one by one and against the events of the batch before it. Two queries
+     * whatever the size of the batch. Returns the message of every conflicting event by its position in
+     * {@code events}; empty unless conflicts are rejected, they are only logged and counted otherwise.
+     */
+    public Map<Integer, String> checkAssignments(List<Event> events) {
+        Map<Integer, String> rejected = new HashMap<>();
+        Set<Integer> participantIds = new HashSet<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (Event event : events) {
+            if (event.getDateDebut() != null && event.getParticipants() != null && !event.getParticipants().isEmpty()) {
+                event.getParticipants().forEach(participant -> participantIds.add(participant.getIdPart()));
+                from = from == null || event.getDateDebut().isBefore(from) ? event.getDateDebut() : from;
+                to = to == null || end(event).isAfter(to) ? end(event) : to;
+            }
+        }
+        if (participantIds.isEmpty() || taches.isEmpty()) {
+            return rejected;
+        }
+        Set<Integer> checked = participantRepository.findIdsWithTache(participantIds, taches);
+        if (checked.isEmpty()) {
+            return rejected;
+        }
+        // None of the events is stored yet, so no event ID is left out
+        List<Booking> bookings = participantRepository.findBookingsOverlapping(checked, taches, 0, from, to);
+
+        List<Event> booked = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event.getDateDebut() == null || event.getParticipants() == null) {
+                continue;
+            }
+            Set<Integer> ids = event.getParticipants().stream()
+                    .map(Participant::getIdPart)
+                    .filter(checked::contains)
+                    .collect(Collectors.toSet());
+            if (ids.isEmpty()) {
+                continue;
+            }
+            List<Booking> conflicts = bookings.stream()
+                    .filter(booking -> ids.contains(booking.getIdPart())
+                            && overlaps(booking.getDateDebut(), booking.getDateFin(), event))
+                    .collect(Collectors.toList());
+            Map<Integer, List<String>> inBatch = new TreeMap<>();
+            for (Event other : booked) {
+                if (overlaps(other.getDateDebut(), other.getDateFin(), event)) {
+                    other.getParticipants().stream()
+                            .map(Participant::getIdPart)
+                            .filter(ids::contains)
+                            .forEach(idPart -> inBatch.computeIfAbsent(idPart, id -> new ArrayList<>()).add(other.getDescription()));
+                }
+            }
+            if (conflicts.isEmpty() && inBatch.isEmpty()) {
+                booked.add(event);
+                continue;
+            }
+            detected.increment();
+            String message = message(conflicts, inBatch);
+            if (reject) {
+                rejected.put(i, message);
+            } else {
+                booked.add(event);
+                log.warn("{} (event '{}')", message, event.getDescription());
+            }
+        }
+        return rejected;
+    }
+
+    private static String message(List<Booking> conflicts, Map<Integer, List<String>> inBatch) {
+        StringBuilder message = new StringBuilder();
+        if (!conflicts.isEmpty()) {
+            Map<Integer, List<Integer>> eventsByParticipant = conflicts.stream()
+                    .collect(Collectors.groupingBy(Booking::getIdPart, TreeMap::new,
+                            Collectors.mapping(Booking::getIdEvent, Collectors.toList())));
+            message.append("Participants already booked on overlapping events: ").append(eventsByParticipant);
+        }
+        if (!inBatch.isEmpty()) {
+            message.append(message.length() == 0 ? "" : "; ")
+                    .append("Participants booked on overlapping events of the same batch: ").append(inBatch);
+        }
+        return message.toString();
+    }
+
+    // An event without an end date, or with one before its start, lasts its start day
+    private static LocalDate end(Event event) {
+        return event.getDateFin() == null || event.getDateFin().isBefore(event.getDateDebut())
+                ? event.getDateDebut()
+                : event.getDateFin();
+    }
+
+    private static boolean overlaps(LocalDate dateDebut, LocalDate dateFin, Event event) {
+        return !dateDebut.isAfter(end(event))
+                && !(dateFin == null ? dateDebut : dateFin).isBefore(event.getDateDebut());
+    }
+
+    /**
+     * Scans the bookings of every checked participant, sorted by the database, in a single sweep.
+     * Must run inside a transaction since the bookings are streamed.
+     */
+    public ConflictReport report(int limit) {
+        ConflictReport report = new ConflictReport(limit);
+        if (taches.isEmpty()) {
+            return report;
+        }
+        ScheduleSweep sweep = new ScheduleSweep((idPart, firstEvent, secondEvent, fromDay, toDay) ->
+                report.addConflict(idPart, firstEvent, secondEvent, LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay)));
+        try (Stream<Booking> bookings = participantRepository.streamBookings(taches)) {
+            bookings.forEach(booking -> {
+                int start = (int) booking.getDateDebut().toEpochDay();
+                int end = booking.getDateFin() == null ? start : (int) booking.getDateFin().toEpochDay();
+                sweep.add(booking.getIdPart(), booking.getIdEvent(), start, end);
+            });
+        }
+        report.record(sweep.getParticipants(), sweep.getBookings());
+        log.info("Schedule scan checked {} bookings of {} participants, found {} conflicts",
+                sweep.getBookings(), sweep.getParticipants(), report.getConflictCount());
+        return report;
+    }
+}
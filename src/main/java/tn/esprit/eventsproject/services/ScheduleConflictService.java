@@ -0,0 +1,26 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.dto.ConflictReport;
+
+/**
+ * Reports the participants booked on overlapping events, see {@link ScheduleConflictDetector#report}.
+ */
+@RequiredArgsConstructor
+@Service
+public class ScheduleConflictService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final ScheduleConflictDetector conflictDetector;
+
+    @Transactional(readOnly = true)
+    public ConflictReport getScheduleConflicts(int limit) {
+        if (limit < 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Conflict limit must be between 0 and " + MAX_LIMIT);
+        }
+        return conflictDetector.report(limit);
+    }
+}
@@ -0,0 +1,105 @@
+package tn.esprit.eventsproject.services;
+
+import java.util.Arrays;
+
+/**
+ * Sweep-line pass over bookings sorted by {@code (idPart, start)}. For each participant it keeps the
+ * bookings still running in a min-heap on their end day: a new booking first evicts those that ended
+ * before it starts, and overlaps every booking left. That is O(n log n + k) for n bookings and k
+ * conflicts, with memory bounded by the largest set of simultaneous bookings of one participant.
+ * Days are epoch days; intervals are closed.
+ */
+public final class ScheduleSweep {
+
+    public interface ConflictSink {
+        void conflict(int idPart, int firstEvent, int secondEvent, int fromDay, int toDay);
+    }
+
+    private final ConflictSink sink;
+    // Running bookings of the current participant, packed as (end << 32 | idEvent) so the heap orders by end
+    private long[] running = new long[16];
+    private int runningCount;
+    private int currentPart;
+    private int lastStart;
+    private boolean started;
+    private long participants;
+    private long bookings;
+
+    public ScheduleSweep(ConflictSink sink) {
+        this.sink = sink;
+    }
+
+    public void add(int idPart, int idEvent, int startDay, int endDay) {
+        if (!started || idPart != currentPart) {
+            if (started && idPart < currentPart) {
+                throw new IllegalArgumentException("Bookings must be sorted by participant");
+            }
+            started = true;
+            currentPart = idPart;
+            runningCount = 0;
+            participants++;
+        } else if (startDay < lastStart) {
+            throw new IllegalArgumentException("Bookings of participant " + idPart + " must be sorted by start date");
+        }
+        lastStart = startDay;
+        bookings++;
+
+        while (runningCount > 0 && endOf(running[0]) < startDay) {
+            pop();
+        }
+        for (int i = 0; i < runningCount; i++) {
+            sink.conflict(idPart, idOf(running[i]), idEvent, startDay, Math.min(endDay, endOf(running[i])));
+        }
+        push(((long) Math.max(startDay, endDay) << 32) | (idEvent & 0xFFFFFFFFL));
+    }
+
+    public long getParticipants() {
+        return participants;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    private static int endOf(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int idOf(long packed) {
+        return (int) packed;
+    }
+
+    private void push(long value) {
+        if (runningCount == running.length) {
+            running = Arrays.copyOf(running, runningCount * 2);
+        }
+        int i = runningCount++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (running[parent] <= value) {
+                break;
+            }
+            running[i] = running[parent];
+            i = parent;
+        }
+        running[i] = value;
+    }
+
+    private void pop() {
+        long last = running[--runningCount];
+        int i = 0;
+        int half = runningCount >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < runningCount && running[child + 1] < running[child]) {
+                child++;
+            }
+            if (last <= running[child]) {
+                break;
+            }
+            running[i] = running[child];
+            i = child;
+        }
+        running[i] = last;
+    }
+}
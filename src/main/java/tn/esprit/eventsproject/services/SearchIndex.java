@@ -0,0 +1,449 @@
+package tn.esprit.eventsproject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.dto.SearchDocument;
+import tn.esprit.eventsproject.dto.SearchResult;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory full-text index over event descriptions and participant names. Each word of a document
+ * maps to a (Roaring) bitmap of the documents holding it; prefix queries read the bitmaps of the short
+ * prefixes directly or merge those of a vocabulary range, and typos are matched against the words
+ * sharing enough trigrams with the query word. Loaded once the application is ready and kept current
+ * from {@link EventChange}s and {@link ParticipantChange}s; until the first load finishes, searches
+ * return nothing.
+ */
+@Slf4j
+@Component
+public class SearchIndex implements ChangeConsumer {
+
+    // Prefixes up to this length get their own bitmap; longer ones merge the words they start
+    static final int SHORT_PREFIX = 3;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final EventRepository eventRepository;
+    private final ParticipantRepository participantRepository;
+    private final TransactionOperations transactionOperations;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Corpora corpora = new Corpora();
+    private boolean loaded;
+    // Changes seen while a rebuild reads the tables, replayed on the new corpora
+    private List<Consumer<Corpora>> pendingChanges;
+
+    public SearchIndex(EventRepository eventRepository,
+                       ParticipantRepository participantRepository,
+                       TransactionOperations transactionOperations,
+                       MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.participantRepository = participantRepository;
+        this.transactionOperations = transactionOperations;
+        Gauge.builder("events.index.search.words", this, index -> index.wordCount(corpora -> corpora.events))
+                .description("Distinct words in the search index")
+                .tag("corpus", "events")
+                .register(meterRegistry);
+        Gauge.builder("events.index.search.words", this, index -> index.wordCount(corpora -> corpora.participants))
+                .description("Distinct words in the search index")
+                .tag("corpus", "participants")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reloads both corpora from the database. Searches keep using the previous ones meanwhile.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Corpora fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            corpora = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index loaded {} events and {} participants in {} ms", fresh.events.texts.size(),
+                fresh.participants.texts.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChange(EventChange change) {
+        apply(target -> target.events.replace(change.getIdEvent(), change.getDescription()));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParticipantChange(ParticipantChange change) {
+        String name = participantName(change.getNom(), change.getPrenom());
+        apply(target -> target.participants.replace(change.getIdPart(), name));
+    }
+
+    public SearchResult searchEvents(String query, int limit) {
+        return search(corpora -> corpora.events, query, limit);
+    }
+
+    public SearchResult searchParticipants(String query, int limit) {
+        return search(corpora -> corpora.participants, query, limit);
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case words of {@code text}, accents removed, in order and without duplicates.
+     */
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String word : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Typos tolerated in a query word of the given length: none below 4 letters, two from 8.
+     */
+    static int maxEdits(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance between {@code a} and {@code b} (an adjacent transposition
+     * counts as one edit), or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] before = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int best = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    best = Math.min(best, before[j - 2] + 1);
+                }
+                current[j] = best;
+                rowMin = Math.min(rowMin, best);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    static String participantName(String nom, String prenom) {
+        return nom == null && prenom == null
+                ? null
+                : Objects.toString(nom, "") + " " + Objects.toString(prenom, "");
+    }
+
+    private SearchResult search(Function<Corpora, Corpus> corpus, String query, int limit) {
+        Set<String> words = words(query);
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return new SearchResult(false, Collections.emptyList());
+            }
+            return new SearchResult(true, words.isEmpty()
+                    ? Collections.emptyList()
+                    : corpus.apply(corpora).search(words, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int wordCount(Function<Corpora, Corpus> corpus) {
+        lock.readLock().lock();
+        try {
+            return corpus.apply(corpora).vocabulary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Corpora> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(corpora);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Corpora load() {
+        return transactionOperations.execute(status -> {
+            Corpora fresh = new Corpora();
+            try (Stream<SearchDocument> descriptions = eventRepository.streamDescriptions()) {
+                descriptions.forEach(document -> fresh.events.replace(document.getId(), document.getText()));
+            }
+            try (Stream<SearchDocument> names = participantRepository.streamNames()) {
+                names.forEach(document -> fresh.participants.replace(document.getId(), document.getText()));
+            }
+            fresh.optimize();
+            return fresh;
+        });
+    }
+
+    private static final class Corpora {
+        final Corpus events = new Corpus();
+        final Corpus participants = new Corpus();
+
+        void optimize() {
+            events.optimize();
+            participants.optimize();
+        }
+    }
+
+    private static final class Word {
+        final int id;
+        final RoaringBitmap documents = new RoaringBitmap();
+
+        Word(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * The documents of one kind. Words are never dropped from the vocabulary, only emptied, so that
+     * their IDs in the trigram index stay valid.
+     */
+    private static final class Corpus {
+        final Map<Integer, String> texts = new HashMap<>();
+        final NavigableMap<String, Word> vocabulary = new TreeMap<>();
+        final List<String> wordsById = new ArrayList<>();
+        final Map<String, RoaringBitmap> wordsByTrigram = new HashMap<>();
+        final Map<String, RoaringBitmap> documentsByPrefix = new HashMap<>();
+
+        void replace(int id, String text) {
+            String previous = text == null ? texts.remove(id) : texts.put(id, text);
+            Set<String> removed = words(previous);
+            Set<String> added = words(text);
+            Set<String> kept = new HashSet<>(removed);
+            kept.retainAll(added);
+            removed.removeAll(kept);
+            added.removeAll(kept);
+
+            removed.forEach(word -> vocabulary.get(word).documents.remove(id));
+            added.forEach(word -> vocabulary.computeIfAbsent(word, this::newWord).documents.add(id));
+
+            Set<String> removedPrefixes = prefixes(removed);
+            Set<String> keptPrefixes = prefixes(kept);
+            keptPrefixes.addAll(prefixes(added));
+            removedPrefixes.removeAll(keptPrefixes);
+            removedPrefixes.forEach(prefix -> documentsByPrefix.get(prefix).remove(id));
+            prefixes(added).forEach(prefix -> documentsByPrefix.computeIfAbsent(prefix, p -> new RoaringBitmap()).add(id));
+        }
+
+        List<SearchResult.Hit> search(Set<String> query, int limit) {
+            List<RoaringBitmap> exact = new ArrayList<>(query.size());
+            List<RoaringBitmap> prefix = new ArrayList<>(query.size());
+            List<RoaringBitmap> fuzzy = new ArrayList<>(query.size());
+            for (String word : query) {
+                Word match = vocabulary.get(word);
+                exact.add(match == null ? new RoaringBitmap() : match.documents);
+                RoaringBitmap startingWith = startingWith(word);
+                prefix.add(startingWith);
+                fuzzy.add(withTypos(word, startingWith));
+            }
+
+            List<SearchResult.Hit> hits = new ArrayList<>(limit);
+            RoaringBitmap exactMatches = intersect(exact);
+            collect(exactMatches, SearchResult.Match.EXACT, hits, limit);
+            if (hits.size() < limit) {
+                RoaringBitmap prefixMatches = intersect(prefix);
+                collect(RoaringBitmap.andNot(prefixMatches, exactMatches), SearchResult.Match.PREFIX, hits, limit);
+                if (hits.size() < limit) {
+                    collect(RoaringBitmap.andNot(intersect(fuzzy), prefixMatches), SearchResult.Match.FUZZY, hits, limit);
+                }
+            }
+            return hits;
+        }
+
+        void optimize() {
+            vocabulary.values().forEach(word -> word.documents.runOptimize());
+            wordsByTrigram.values().forEach(RoaringBitmap::runOptimize);
+            documentsByPrefix.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private RoaringBitmap startingWith(String prefix) {
+            if (prefix.length() <= SHORT_PREFIX) {
+                RoaringBitmap documents = documentsByPrefix.get(prefix);
+                return documents == null ? new RoaringBitmap() : documents;
+            }
+            Collection<Word> words = vocabulary.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            return FastAggregation.or(words.stream().map(word -> word.documents).iterator());
+        }
+
+        private RoaringBitmap withTypos(String word, RoaringBitmap startingWith) {
+            int max = maxEdits(word.length());
+            if (max == 0) {
+                return startingWith;
+            }
+            List<RoaringBitmap> matches = new ArrayList<>();
+            matches.add(startingWith);
+            for (int candidate : similarWords(word, max)) {
+                String other = wordsById.get(candidate);
+                if (distance(word, other, max) <= max) {
+                    matches.add(vocabulary.get(other).documents);
+                }
+            }
+            return matches.size() == 1 ? startingWith : FastAggregation.or(matches.iterator());
+        }
+
+        /**
+         * IDs of the words that may be within {@code max} edits of {@code word}: each edit breaks at
+         * most three of its trigrams, so those words share all the others.
+         */
+        private int[] similarWords(String word, int max) {
+            Set<String> trigrams = trigrams(word);
+            int required = trigrams.size() - 3 * max;
+            if (required <= 0) {
+                // Too few distinct trigrams to filter on
+                int[] all = new int[wordsById.size()];
+                Arrays.setAll(all, i -> i);
+                return all;
+            }
+            int[] shared = new int[wordsById.size()];
+            RoaringBitmap candidates = new RoaringBitmap();
+            for (String trigram : trigrams) {
+                RoaringBitmap words = wordsByTrigram.get(trigram);
+                if (words == null) {
+                    continue;
+                }
+                IntIterator ids = words.getIntIterator();
+                while (ids.hasNext()) {
+                    int id = ids.next();
+                    if (++shared[id] == required) {
+                        candidates.add(id);
+                    }
+                }
+            }
+            return candidates.toArray();
+        }
+
+        private Word newWord(String word) {
+            Word created = new Word(wordsById.size());
+            wordsById.add(word);
+            for (String trigram : trigrams(word)) {
+                wordsByTrigram.computeIfAbsent(trigram, t -> new RoaringBitmap()).add(created.id);
+            }
+            return created;
+        }
+
+        private static Set<String> trigrams(String word) {
+            String padded = "^" + word + "$";
+            Set<String> trigrams = new HashSet<>();
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+            return trigrams;
+        }
+
+        private static Set<String> prefixes(Set<String> words) {
+            Set<String> prefixes = new HashSet<>();
+            for (String word : words) {
+                for (int length = 1; length <= Math.min(SHORT_PREFIX, word.length()); length++) {
+                    prefixes.add(word.substring(0, length));
+                }
+            }
+            return prefixes;
+        }
+
+        private void collect(RoaringBitmap documents, SearchResult.Match match, List<SearchResult.Hit> hits, int limit) {
+            IntIterator ids = documents.getIntIterator();
+            while (ids.hasNext() && hits.size() < limit) {
+                int id = ids.next();
+                hits.add(new SearchResult.Hit(id, texts.get(id), match));
+            }
+        }
+
+        private static RoaringBitmap intersect(List<RoaringBitmap> sets) {
+            // Smallest set first, so the intersection shrinks as early as possible
+            List<RoaringBitmap> sorted = new ArrayList<>(sets);
+            sorted.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+            RoaringBitmap result = sorted.get(0).clone();
+            for (int i = 1; i < sorted.size() && !result.isEmpty(); i++) {
+                result.and(sorted.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package tn.esprit.eventsproject.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import tn.esprit.eventsproject.dto.SearchResult;
+
+/**
+ * Typo-tolerant prefix search over event descriptions and participant names, answered from the
+ * in-memory {@link SearchIndex}.
+ */
+@RequiredArgsConstructor
+@Service
+public class SearchService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final SearchIndex searchIndex;
+
+    public SearchResult searchEvents(String query, int limit) {
+        checkSearch(query, limit);
+        return searchIndex.searchEvents(query, limit);
+    }
+
+    public SearchResult searchParticipants(String query, int limit) {
+        checkSearch(query, limit);
+        return searchIndex.searchParticipants(query, limit);
+    }
+
+    private static void checkSearch(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+}
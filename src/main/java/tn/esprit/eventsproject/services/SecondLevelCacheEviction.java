@@ -0,0 +1,113 @@
+package tn.esprit.eventsproject.services;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts from the second-level cache of this node the entries written by other nodes, as
+ * {@link OutboxRelay} hands their changes over, and invalidates the query results over their tables.
+ * The writes of this node are kept in step by Hibernate and {@code CacheInvalidator}, so it does not
+ * listen to the local changes. Does nothing while the second-level cache is off.
+ */
+@Component
+public class SecondLevelCacheEviction implements ChangeConsumer {
+
+    private static final String EVENT_LOGISTICS = Event.class.getName() + ".logistics";
+    private static final String EVENT_PARTICIPANTS = Event.class.getName() + ".participants";
+    private static final String PARTICIPANT_EVENTS = Participant.class.getName() + ".events";
+
+    private final SessionFactoryImplementor factory;
+
+    public SecondLevelCacheEviction(EntityManagerFactory entityManagerFactory) {
+        this.factory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    @Override
+    public void onEventChange(EventChange change) {
+        if (!enabled()) {
+            return;
+        }
+        factory.getCache().evictEntityData(Event.class, change.getIdEvent());
+        invalidateQueries(entitySpaces(Event.class));
+    }
+
+    @Override
+    public void onLogisticsChange(LogisticsChange change) {
+        if (!enabled()) {
+            return;
+        }
+        factory.getCache().evictEntityData(Logistics.class, change.getIdLog());
+        // The cost of the event moved with its logistics
+        factory.getCache().evictEntityData(Event.class, change.getIdEvent());
+        factory.getCache().evictCollectionData(EVENT_LOGISTICS, change.getIdEvent());
+        Set<Serializable> spaces = new LinkedHashSet<>(entitySpaces(Logistics.class));
+        spaces.addAll(entitySpaces(Event.class));
+        spaces.addAll(collectionSpaces(EVENT_LOGISTICS));
+        invalidateQueries(spaces);
+    }
+
+    @Override
+    public void onParticipantChange(ParticipantChange change) {
+        if (!enabled()) {
+            return;
+        }
+        factory.getCache().evictEntityData(Participant.class, change.getIdPart());
+        factory.getCache().evictCollectionData(PARTICIPANT_EVENTS, change.getIdPart());
+        // The change only holds the new event set, not the events the participant left
+        factory.getCache().evictCollectionData(EVENT_PARTICIPANTS);
+        Set<Serializable> spaces = new LinkedHashSet<>(entitySpaces(Participant.class));
+        spaces.addAll(collectionSpaces(PARTICIPANT_EVENTS));
+        invalidateQueries(spaces);
+    }
+
+    @Override
+    public void onParticipationChange(ParticipationChange change) {
+        if (!enabled()) {
+            return;
+        }
+        factory.getCache().evictCollectionData(EVENT_PARTICIPANTS, change.getIdEvent());
+        change.getParticipantIds().forEach(idPart -> factory.getCache().evictCollectionData(PARTICIPANT_EVENTS, idPart));
+        invalidateQueries(collectionSpaces(EVENT_PARTICIPANTS));
+    }
+
+    private boolean enabled() {
+        return factory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+
+    private List<Serializable> entitySpaces(Class<?> entity) {
+        return Arrays.asList(factory.getMetamodel().entityPersister(entity).getPropertySpaces());
+    }
+
+    private List<Serializable> collectionSpaces(String role) {
+        return Arrays.asList(factory.getMetamodel().collectionPersister(role).getCollectionSpaces());
+    }
+
+    // Results cached before now are stale; the session is only needed to stamp the tables
+    private void invalidateQueries(Collection<Serializable> spaces) {
+        if (!factory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+        try (Session session = factory.openSession()) {
+            factory.getCache().getTimestampsCache()
+                    .invalidate(spaces.toArray(new Serializable[0]), (SharedSessionContractImplementor) session);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package tn.esprit.eventsproject.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import tn.esprit.eventsproject.dto.CacheStatistics;
+
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the Caffeine statistics of the Hibernate cache regions, when SecondLevelCacheConfig is on.
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public SecondLevelCacheStats(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public CacheStatistics statistics() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager == null) {
+            return new CacheStatistics(false, List.of());
+        }
+        List<CacheStatistics.Region> regions = new ArrayList<>();
+        for (String name : manager.getCacheNames()) {
+            Cache<?, ?> region = manager.getCache(name).unwrap(Cache.class);
+            CacheStats stats = region.stats();
+            regions.add(new CacheStatistics.Region(name, region.estimatedSize(),
+                    stats.hitCount(), stats.missCount(), stats.evictionCount()));
+        }
+        return new CacheStatistics(true, regions);
+    }
+}
@@ -0,0 +1,135 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.EventServicesImpl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers addAffectLog from several threads on a couple of hot events and checks that no logistics
+ * row or cost increment is lost.
+ */
+@Slf4j
+// Every call commits on its own, so the test must not wrap them in a rollback-only transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("h2")
+@Import({EventServicesSlice.class, AddAffectLogConcurrencyTest.StressConfig.class})
+class AddAffectLogConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 100;
+    private static final String[] HOT_EVENTS = {"Hot A", "Hot B"};
+
+    @Autowired
+    private EventServicesImpl eventServices;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from event_logistics");
+        jdbcTemplate.update("delete from logistics");
+        jdbcTemplate.update("delete from event");
+    }
+
+    @Test
+    void testConcurrentAddAffectLog_LosesNoUpdate() throws Exception {
+        // Arrange
+        for (String description : HOT_EVENTS) {
+            eventServices.addAffectEvenParticipant(event(description));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String description = HOT_EVENTS[t % HOT_EVENTS.length];
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    eventServices.addAffectLog(new Logistics(0, "Chair", true, 1.5f, 2), description);
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+
+        // Assert: every call of every thread left its row, its link and its 3.0 cost increment
+        int callsPerEvent = THREADS / HOT_EVENTS.length * CALLS_PER_THREAD;
+        for (String description : HOT_EVENTS) {
+            Event event = eventRepository.findByDescription(description);
+            assertEquals(callsPerEvent, jdbcTemplate.queryForObject(
+                    "select count(*) from event_logistics where event_id_event = ?", Integer.class, event.getIdEvent()));
+            assertEquals(callsPerEvent * 3f, event.getCout(), 0.001f);
+            assertEquals(callsPerEvent, event.getVersion());
+        }
+        log.info("{} addAffectLog calls from {} threads on {} events in {} ms ({} calls/s)",
+                THREADS * CALLS_PER_THREAD, THREADS, HOT_EVENTS.length, elapsed / 1_000_000,
+                THREADS * CALLS_PER_THREAD * 1_000_000_000L / elapsed);
+    }
+
+    @Test
+    void testStaleEventCannotOverwriteCost() {
+        // Arrange: a copy read before logistics were added still carries the old cost and version
+        Event saved = eventServices.addAffectEvenParticipant(event("Stale"));
+        Event stale = event("Stale");
+        stale.setIdEvent(saved.getIdEvent());
+        stale.setVersion(saved.getVersion());
+        stale.setLogistics(new HashSet<>());
+        eventServices.addAffectLog(new Logistics(0, "Stage", true, 100f, 1), "Stale");
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> eventServices.addAffectEvenParticipant(stale));
+        assertEquals(100f, eventRepository.findByDescription("Stale").getCout(), 0.001f);
+    }
+
+    private static Event event(String description) {
+        Event event = new Event();
+        event.setDescription(description);
+        event.setParticipants(new HashSet<>());
+        return event;
+    }
+
+    @TestConfiguration
+    static class StressConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
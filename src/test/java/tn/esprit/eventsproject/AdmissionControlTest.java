@@ -0,0 +1,231 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tn.esprit.eventsproject.config.AdaptiveLimit;
+import tn.esprit.eventsproject.config.AdaptiveLimit.Priority;
+import tn.esprit.eventsproject.config.AdmissionControlFilter;
+import tn.esprit.eventsproject.config.ClientRateLimiter;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testLimit_ShrinksOnSlowRequestsAndGrowsBack() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(20, 4, 40, Duration.ofMillis(250), 0.75, 0.25);
+
+        // Act: the 20 requests in flight during one slow spell all complete late
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire(Priority.READ));
+        }
+        for (int i = 0; i < 20; i++) {
+            limit.release(SLOW, true);
+        }
+
+        // Assert: a single decrease for the spell
+        assertEquals(18, limit.getLimit());
+
+        // Act: slow requests for many windows
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire(Priority.READ));
+            limit.release(SLOW, true);
+        }
+
+        // Assert
+        assertEquals(4, limit.getLimit());
+
+        // Act: the limit is full of requests that complete in time
+        for (int round = 0; round < 10; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire(Priority.READ)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(FAST, true);
+            }
+        }
+
+        // Assert: one more slot per request completed while at least half were in use
+        assertTrue(limit.getLimit() > 20);
+        assertEquals(0, limit.getInFlight());
+
+        // Act: unsampled requests leave the limit alone
+        int before = limit.getLimit();
+        limit.tryAcquire(Priority.BULK);
+        limit.release(SLOW, false);
+
+        // Assert
+        assertEquals(before, limit.getLimit());
+    }
+
+    @Test
+    void testLimit_ReadsKeepTheSlotsWritesCannotTake() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(8, 4, 8, Duration.ofMillis(250), 0.75, 0.25);
+
+        // Act & Assert: bulk writes get 2 slots, writes 6, reads all 8
+        assertTrue(limit.tryAcquire(Priority.BULK));
+        assertTrue(limit.tryAcquire(Priority.BULK));
+        assertFalse(limit.tryAcquire(Priority.BULK));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire(Priority.WRITE));
+        }
+        assertFalse(limit.tryAcquire(Priority.WRITE));
+        assertTrue(limit.tryAcquire(Priority.READ));
+        assertTrue(limit.tryAcquire(Priority.READ));
+        assertFalse(limit.tryAcquire(Priority.READ));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveLimit(8, 4, 8, Duration.ofMillis(250), 0.25, 0.75));
+    }
+
+    @Test
+    void testRateLimiter_RefillsAtTheRate() {
+        // Arrange: 2 per second, bursts of 3
+        ClientRateLimiter limiter = new ClientRateLimiter(64, 2, 3, clock::get);
+
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("10.0.0.1"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        // Another client, on another stripe, still has its burst
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void testFilter_ThrottlesWritesPerClientAndShedsOverTheLimit() throws Exception {
+        // Arrange: one write per client per second; four slots, two for writes, one for bulk writes,
+        // one of them held by a read
+        AdaptiveLimit limit = new AdaptiveLimit(4, 4, 4, Duration.ofMillis(250), 0.5, 0.25);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limit,
+                new ClientRateLimiter(64, 1, 1, clock::get), meterRegistry);
+        assertTrue(limit.tryAcquire(Priority.READ));
+
+        // Act
+        MockHttpServletResponse first = perform(filter, "POST", "/event/addPart", "10.0.0.1");
+        MockHttpServletResponse second = perform(filter, "POST", "/event/addPart", "10.0.0.1");
+        MockHttpServletResponse otherClient = perform(filter, "PUT", "/event/addAffectLogs/Gala", "10.0.0.2");
+        MockHttpServletResponse read = perform(filter, "GET", "/event/participants", "10.0.0.1");
+
+        // Assert: the second write of the client is throttled, the bulk write finds its share taken
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("1", second.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, otherClient.getStatus());
+        assertEquals("1", otherClient.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, read.getStatus());
+        assertEquals(1, limit.getInFlight());
+        assertEquals(1, count("write", "throttled"));
+        assertEquals(1, count("bulk", "shed"));
+        assertEquals(1, count("read", "admitted"));
+    }
+
+    @Test
+    void testFilter_AsyncRequestKeepsItsSlotUntilComplete() throws Exception {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(4, 4, 4, Duration.ofMillis(250), 0.75, 0.25);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limit,
+                new ClientRateLimiter(64, 1, 1, clock::get), meterRegistry);
+        MockHttpServletRequest request = request("GET", "/event/getLogs/2024-01-01/2024-12-31/stream", "10.0.0.1");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        // Assert
+        assertEquals(1, limit.getInFlight());
+        AsyncContext context = request.getAsyncContext();
+        context.complete();
+        assertEquals(0, limit.getInFlight());
+        for (AsyncListener listener : ((MockAsyncContext) context).getListeners()) {
+            listener.onComplete(new AsyncEvent(context));
+        }
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testFilter_LongPollGivesItsSlotBackAtOnce() throws Exception {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(4, 4, 4, Duration.ofMillis(250), 0.75, 0.25);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limit,
+                new ClientRateLimiter(64, 1, 1, clock::get), meterRegistry);
+        MockHttpServletRequest request = request("GET", "/event/getLogs/2024-01-01/2024-12-31/poll", "10.0.0.1");
+        request.setAsyncSupported(true);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // Assert
+        assertTrue(request.isAsyncStarted());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testFilter_RangeReadsDoNotMoveTheLimit() throws Exception {
+        // Arrange: every request is slower than a zero target
+        AdaptiveLimit limit = new AdaptiveLimit(10, 4, 10, Duration.ZERO, 0.75, 0.25);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limit,
+                new ClientRateLimiter(64, 1, 1, clock::get), meterRegistry);
+
+        // Act
+        perform(filter, "GET", "/event/getLogs/2024-01-01/2024-12-31", "10.0.0.1");
+        perform(filter, "GET", "/event/analytics/costs/monthly/2024-01-01/2024-12-31", "10.0.0.1");
+
+        // Assert
+        assertEquals(10, limit.getLimit());
+
+        // Act
+        perform(filter, "GET", "/event/participants", "10.0.0.1");
+
+        // Assert
+        assertEquals(9, limit.getLimit());
+    }
+
+    private MockHttpServletResponse perform(AdmissionControlFilter filter, String method, String path, String client)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path, client), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private double count(String priority, String outcome) {
+        return meterRegistry.get("events.admission.requests").tag("priority", priority).tag("outcome", outcome)
+                .counter().count();
+    }
+}
@@ -0,0 +1,103 @@
+package tn.esprit.eventsproject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tn.esprit.eventsproject.controllers.BulkImportRestController;
+import tn.esprit.eventsproject.dto.ImportReport;
+import tn.esprit.eventsproject.services.BulkImportService;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BulkImportRestController.class)
+class BulkImportRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private BulkImportService bulkImportService;
+
+    @Test
+    void testImportEvents_Csv_ReturnsReport() throws Exception {
+        // Arrange
+        ImportReport report = new ImportReport();
+        report.recordReceived();
+        report.recordFailure(1, "Event must have participants");
+        when(bulkImportService.importEvents(any(InputStream.class), eq(BulkImportService.Format.CSV))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/event/import/events")
+                        .contentType("text/csv")
+                        .content("description,dateDebut,dateFin,participants\nSummit,2024-05-01,2024-05-03,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("Event must have participants"));
+    }
+
+    @Test
+    void testImportParticipants_UnsupportedMediaType() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/event/import/participants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+        verifyNoInteractions(bulkImportService);
+    }
+
+    @Test
+    void testImportLogistics_AcceptingNdjson_StreamsProgress() throws Exception {
+        // Arrange
+        ImportReport report = new ImportReport();
+        when(bulkImportService.importLogistics(any(InputStream.class), eq(BulkImportService.Format.NDJSON), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<ImportReport> progress = invocation.getArgument(2);
+                    for (int chunk = 0; chunk < 2; chunk++) {
+                        report.recordReceived();
+                        report.recordImported(1);
+                        report.chunkWritten();
+                        progress.accept(report);
+                    }
+                    return report;
+                });
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/event/import/logistics")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content("{\"event\":\"Summit\"}\n{\"event\":\"Summit\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        // Assert: a line per chunk, then the report
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(1, objectMapper.readTree(lines[0]).get("chunks").asInt());
+        assertEquals(2, objectMapper.readTree(lines[1]).get("imported").asInt());
+        assertTrue(objectMapper.readTree(lines[2]).has("errors"));
+    }
+}
@@ -0,0 +1,246 @@
+package tn.esprit.eventsproject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.eventsproject.dto.ImportReport;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.BulkImportService;
+import tn.esprit.eventsproject.services.BulkImportService.Format;
+import tn.esprit.eventsproject.services.EventCostEngine;
+import tn.esprit.eventsproject.services.EventDescriptionCache;
+import tn.esprit.eventsproject.services.EventWriteGuard;
+import tn.esprit.eventsproject.services.ScheduleConflictDetector;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Chunks commit on their own, so the test must not wrap them in a rollback-only transaction
+@DataJpaTest(properties = {"events.import.chunk-size=2", "events.conflicts.reject=true"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("h2")
+@Import({BulkImportService.class, EventCostEngine.class, EventDescriptionCache.class, ScheduleConflictDetector.class,
+        EventWriteGuard.class, BulkImportServiceTest.ImportConfig.class})
+class BulkImportServiceTest {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @SpyBean
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from participant_events");
+        jdbcTemplate.update("delete from event_logistics");
+        jdbcTemplate.update("delete from logistics");
+        jdbcTemplate.update("delete from event");
+        jdbcTemplate.update("delete from participant");
+    }
+
+    @Test
+    void testImportParticipants_Ndjson_ReportsMalformedLines() throws IOException {
+        // Arrange
+        String upload = "{\"nom\":\"Tounsi\",\"prenom\":\"Ahmed\",\"tache\":\"ORGANISATEUR\"}\n"
+                + "{\"nom\":\"Ben Ali\",\"prenom\":\"Sami\",\"tache\":\"INVITE\"}\n"
+                + "{\"nom\":\"broken\"\n"
+                + "\n"
+                + "{\"nom\":\"Trabelsi\",\"prenom\":\"Ines\",\"tache\":\"SERVEUR\"}\n"
+                + "{\"idPart\":42,\"nom\":\"Gharbi\",\"prenom\":\"Nour\",\"tache\":\"INVITE\"}\n";
+
+        // Act
+        ImportReport report = bulkImportService.importParticipants(stream(upload), Format.NDJSON);
+
+        // Assert
+        assertEquals(5, report.getReceived());
+        assertEquals(4, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).getRecord());
+        assertEquals(2, report.getChunks());
+        assertEquals(4, participantRepository.count());
+        assertFalse(participantRepository.existsById(42));
+    }
+
+    @Test
+    void testImportParticipants_ReportsProgressAfterEachChunk() throws IOException {
+        // Arrange
+        String upload = "{\"nom\":\"Tounsi\",\"prenom\":\"Ahmed\",\"tache\":\"ORGANISATEUR\"}\n"
+                + "{\"nom\":\"Ben Ali\",\"prenom\":\"Sami\",\"tache\":\"INVITE\"}\n"
+                + "{\"nom\":\"Trabelsi\",\"prenom\":\"Ines\",\"tache\":\"SERVEUR\"}\n";
+        List<ImportReport.Progress> progress = new ArrayList<>();
+
+        // Act
+        bulkImportService.importParticipants(stream(upload), Format.NDJSON, report -> progress.add(report.progress()));
+
+        // Assert: a full chunk, then the rest; each after its records are stored
+        assertEquals(2, progress.size());
+        assertEquals(2, progress.get(0).getImported());
+        assertEquals(1, progress.get(0).getChunks());
+        assertEquals(3, progress.get(1).getImported());
+        assertEquals(2, progress.get(1).getChunks());
+    }
+
+    @Test
+    void testImportEvents_Csv_AppliesServiceValidationRules() throws IOException {
+        // Arrange
+        Participant organiser = participantRepository.saveAndFlush(new Participant(0, "Tounsi", "Ahmed", Tache.ORGANISATEUR, null));
+        Participant guest = participantRepository.saveAndFlush(new Participant(0, "Ben Ali", "Sami", Tache.INVITE, null));
+        String upload = "description,dateDebut,dateFin,participants\n"
+                + "Summit,2024-05-01,2024-05-03," + organiser.getIdPart() + ";" + guest.getIdPart() + "\n"
+                + "Workshop,2024-06-01,2024-06-01,999999\n"
+                + "Summit,2024-07-01,2024-07-02," + guest.getIdPart() + "\n"
+                + "Meetup,not-a-date,2024-08-01," + guest.getIdPart() + "\n"
+                + "Hackathon,2024-09-01,2024-09-02," + guest.getIdPart() + "\n";
+
+        // Act
+        ImportReport report = bulkImportService.importEvents(stream(upload), Format.CSV);
+
+        // Assert
+        assertEquals(5, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals("Participants not found with IDs: [999999]", errorOf(report, 2));
+        assertEquals("Event already exists with description: Summit", errorOf(report, 3));
+        assertTrue(errorOf(report, 4).contains("not-a-date"));
+        int summitId = eventRepository.findIdByDescription("Summit").orElseThrow(AssertionError::new);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from participant_events where events_id_event = ?", Integer.class, summitId));
+    }
+
+    @Test
+    void testImportEvents_RejectsScheduleConflicts() throws IOException {
+        // Arrange: the organiser is booked on a stored event from May 1st to 3rd
+        Participant organiser = participantRepository.saveAndFlush(new Participant(0, "Tounsi", "Ahmed", Tache.ORGANISATEUR, null));
+        int id = organiser.getIdPart();
+        bulkImportService.importEvents(stream("description,dateDebut,dateFin,participants\nSummit,2024-05-01,2024-05-03," + id + "\n"), Format.CSV);
+        int summitId = eventRepository.findIdByDescription("Summit").orElseThrow(AssertionError::new);
+        String upload = "description,dateDebut,dateFin,participants\n"
+                + "Kickoff,2024-05-02,," + id + "\n"
+                + "Retreat,2024-06-01,2024-06-05," + id + "\n"
+                + "Offsite,2024-07-01,2024-07-03," + id + "\n"
+                + "Dinner,2024-07-02,," + id + "\n";
+
+        // Act
+        ImportReport report = bulkImportService.importEvents(stream(upload), Format.CSV);
+
+        // Assert: Kickoff overlaps the stored event, Dinner the one before it in its chunk
+        assertEquals(2, report.getImported());
+        assertEquals("Participants already booked on overlapping events: {" + id + "=[" + summitId + "]}", errorOf(report, 1));
+        assertEquals("Participants booked on overlapping events of the same batch: {" + id + "=[Offsite]}", errorOf(report, 4));
+        assertFalse(eventRepository.findIdByDescription("Dinner").isPresent());
+    }
+
+    @Test
+    void testImportLogistics_Ndjson_UpdatesEventCost() throws IOException {
+        // Arrange
+        bulkImportService.importEvents(stream("{\"description\":\"Summit\",\"participants\":[]}\n"), Format.NDJSON);
+        String upload = "{\"event\":\"Summit\",\"description\":\"Chairs\",\"reserve\":true,\"prixUnit\":2.5,\"quantite\":100}\n"
+                + "{\"event\":\"Unknown\",\"description\":\"Tables\",\"reserve\":true,\"prixUnit\":10,\"quantite\":5}\n"
+                + "{\"event\":\"Summit\",\"description\":\"Projector\",\"reserve\":false,\"prixUnit\":300,\"quantite\":1}\n"
+                + "{\"event\":\"Summit\",\"description\":\"Mics\",\"reserve\":true,\"prixUnit\":20,\"quantite\":4}\n";
+
+        // Act
+        ImportReport report = bulkImportService.importLogistics(stream(upload), Format.NDJSON);
+
+        // Assert
+        assertEquals(3, report.getImported());
+        assertEquals("Event not found with description: Unknown", errorOf(report, 2));
+        assertEquals(330f, eventRepository.findByDescription("Summit").getCout(), 0.001f);
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from event_logistics", Integer.class));
+    }
+
+    @Test
+    void testImportLogistics_ResolvesEventsOncePerChunk() throws IOException {
+        // Arrange
+        bulkImportService.importEvents(stream("{\"description\":\"Summit\",\"participants\":[]}\n"
+                + "{\"description\":\"Gala\",\"participants\":[]}\n"), Format.NDJSON);
+        String upload = "{\"event\":\"Summit\",\"description\":\"Chairs\",\"reserve\":true,\"prixUnit\":2.5,\"quantite\":100}\n"
+                + "{\"event\":\"Gala\",\"description\":\"Tables\",\"reserve\":true,\"prixUnit\":10,\"quantite\":5}\n";
+
+        // Act
+        ImportReport report = bulkImportService.importLogistics(stream(upload), Format.NDJSON);
+
+        // Assert
+        assertEquals(2, report.getImported());
+        verify(eventRepository, times(1)).findIdsByDescriptions(any());
+        verify(eventRepository, never()).findIdByDescription(anyString());
+        assertEquals(250f, eventRepository.findByDescription("Summit").getCout(), 0.001f);
+        assertEquals(50f, eventRepository.findByDescription("Gala").getCout(), 0.001f);
+    }
+
+    @Test
+    void testImportLogistics_SharedDescription_GoesToFirstEvent() throws IOException {
+        // Arrange: descriptions were never unique, older tables hold duplicates
+        jdbcTemplate.update("insert into event (id_event, description, cout, version) values (?, ?, ?, ?)", 101, "Retreat", 0f, 0);
+        jdbcTemplate.update("insert into event (id_event, description, cout, version) values (?, ?, ?, ?)", 102, "Retreat", 0f, 0);
+        String upload = "{\"event\":\"Retreat\",\"description\":\"Tables\",\"reserve\":true,\"prixUnit\":10,\"quantite\":5}\n";
+
+        // Act
+        ImportReport report = bulkImportService.importLogistics(stream(upload), Format.NDJSON);
+
+        // Assert
+        assertEquals(1, report.getImported());
+        assertEquals(Optional.of(101), eventRepository.findIdByDescription("Retreat"));
+        assertEquals(50f, eventRepository.findById(101).orElseThrow(AssertionError::new).getCout(), 0.001f);
+        assertEquals(0f, eventRepository.findById(102).orElseThrow(AssertionError::new).getCout(), 0.001f);
+    }
+
+    private static String errorOf(ImportReport report, long record) {
+        return report.getErrors().stream()
+                .filter(error -> error.getRecord() == record)
+                .map(ImportReport.RecordError::getMessage)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No error reported for record " + record));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TestConfiguration
+    static class ImportConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.dto.CacheStatistics;
+import tn.esprit.eventsproject.controllers.CacheStatsRestController;
+import tn.esprit.eventsproject.services.SecondLevelCacheStats;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CacheStatsRestController.class)
+ class CacheStatsRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SecondLevelCacheStats cacheStats;
+
+    @Test
+     void testGetCacheStatistics() throws Exception {
+        // Arrange
+        Mockito.when(cacheStats.statistics()).thenReturn(new CacheStatistics(true, List.of(
+                new CacheStatistics.Region("tn.esprit.eventsproject.entities.Event", 2, 3, 1, 0),
+                new CacheStatistics.Region("default-query-results-region", 0, 0, 4, 0))));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.hitRatio").value(0.375))
+                .andExpect(jsonPath("$.regions[0].size").value(2))
+                .andExpect(jsonPath("$.regions[0].hitRatio").value(0.75));
+    }
+}
@@ -0,0 +1,41 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+import tn.esprit.eventsproject.controllers.ChangeFeedRestController;
+import tn.esprit.eventsproject.services.ChangeFeedService;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeFeedRestController.class)
+ class ChangeFeedRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeFeedService changeFeedService;
+
+    @Test
+     void testGetChanges_EmbedsPayload() throws Exception {
+        // Arrange
+        Mockito.when(changeFeedService.getChanges(128L, 1)).thenReturn(List.of(new ChangeRecord(128, 190, 7, "EVENT", 3,
+                Instant.parse("2024-05-02T08:00:00Z"), "{\"idEvent\":3,\"description\":\"Gala\"}")));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/changes").param("offset", "128").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nextOffset").value(190))
+                .andExpect(jsonPath("$[0].type").value("EVENT"))
+                .andExpect(jsonPath("$[0].payload.description").value("Gala"));
+    }
+}
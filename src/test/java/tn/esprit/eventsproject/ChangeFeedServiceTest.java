@@ -0,0 +1,51 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+import tn.esprit.eventsproject.services.ChangeFeedService;
+import tn.esprit.eventsproject.services.ChangeLog;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ class ChangeFeedServiceTest {
+
+   private ChangeLog changeLog;
+
+   private ChangeFeedService changeFeedService;
+
+   @TempDir
+   Path changeLogDir;
+
+   @BeforeEach
+   public void setUp() {
+     changeLog = new ChangeLog(changeLogDir.toString(), DataSize.ofKilobytes(4), 2, new SimpleMeterRegistry());
+     changeFeedService = new ChangeFeedService(changeLog);
+   }
+
+   // Test for getChanges from the start of the change log, then from the last nextOffset
+   @Test
+    void testGetChanges() {
+      // Arrange
+      changeLog.append(1, "EVENT", 1, Instant.now(), "{\"idEvent\":1}");
+      changeLog.append(2, "EVENT", 2, Instant.now(), "{\"idEvent\":2}");
+
+      // Act
+      List<ChangeRecord> first = changeFeedService.getChanges(null, 1);
+      List<ChangeRecord> rest = changeFeedService.getChanges(first.get(0).getNextOffset(), 10);
+
+      // Assert
+      assertEquals(1, first.size());
+      assertEquals(1, first.get(0).getOutboxId());
+      assertEquals(1, rest.size());
+      assertEquals(2, rest.get(0).getAggregateId());
+      assertThrows(IllegalArgumentException.class, () -> changeFeedService.getChanges(null, 0));
+   }
+}
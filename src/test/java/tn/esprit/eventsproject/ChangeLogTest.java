@@ -0,0 +1,157 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+import tn.esprit.eventsproject.services.ChangeLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    private static final Instant CREATED = Instant.parse("2024-03-01T10:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private ChangeLog open(int retainedSegments) {
+        return new ChangeLog(dir.toString(), DataSize.ofKilobytes(1), retainedSegments, new SimpleMeterRegistry());
+    }
+
+    private static String payload(int id) {
+        return "{\"idEvent\":" + id + ",\"description\":\"" + "x".repeat(100) + "\"}";
+    }
+
+    @Test
+    void testAppendAndRead() {
+        // Arrange
+        ChangeLog log = open(4);
+
+        // Act
+        long first = log.append(1, "EVENT", 10, CREATED, payload(10));
+        long second = log.append(2, "LOGISTICS", 20, CREATED, payload(20));
+        List<ChangeRecord> records = log.read(first, 10);
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(2, records.size());
+        assertEquals(second, records.get(1).getOffset());
+        assertEquals(records.get(0).getNextOffset(), records.get(1).getOffset());
+        assertEquals(log.getEndOffset(), records.get(1).getNextOffset());
+        assertEquals("LOGISTICS", records.get(1).getType());
+        assertEquals(20, records.get(1).getAggregateId());
+        assertEquals(CREATED, records.get(1).getCreatedAt());
+        assertEquals(payload(20), records.get(1).getPayload());
+        assertEquals(1, log.read(second, 10).size());
+        assertTrue(log.read(log.getEndOffset(), 10).isEmpty());
+    }
+
+    @Test
+    void testRead_AcrossSegments() throws IOException {
+        // Arrange: about 7 records fit in a 1KB segment
+        ChangeLog log = open(16);
+        for (int i = 1; i <= 20; i++) {
+            log.append(i, "EVENT", i, CREATED, payload(i));
+        }
+
+        // Act
+        List<ChangeRecord> page = log.read(log.getStartOffset(), 12);
+        List<ChangeRecord> rest = log.read(page.get(11).getNextOffset(), 100);
+
+        // Assert
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() > 2);
+        }
+        assertEquals(12, page.size());
+        assertEquals(8, rest.size());
+        assertEquals(13, rest.get(0).getOutboxId());
+        assertEquals(20, rest.get(7).getOutboxId());
+    }
+
+    @Test
+    void testRetention_DropsOldestSegments() throws IOException {
+        // Arrange
+        ChangeLog log = open(2);
+
+        // Act
+        for (int i = 1; i <= 40; i++) {
+            log.append(i, "EVENT", i, CREATED, payload(i));
+        }
+
+        // Assert
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+        assertTrue(log.getStartOffset() > 0);
+        List<ChangeRecord> retained = log.read(log.getStartOffset(), 100);
+        assertEquals(40, retained.get(retained.size() - 1).getOutboxId());
+        assertThrows(IllegalArgumentException.class, () -> log.read(0, 10));
+    }
+
+    @Test
+    void testReopen_ContinuesAfterLastRecord() {
+        // Arrange
+        ChangeLog log = open(16);
+        for (int i = 1; i <= 10; i++) {
+            log.append(i, "EVENT", i, CREATED, payload(i));
+        }
+        log.close();
+        long end = log.getEndOffset();
+
+        // Act
+        ChangeLog reopened = open(16);
+        long lastOutboxId = reopened.getLastOutboxId();
+        long offset = reopened.append(11, "EVENT", 11, CREATED, payload(11));
+
+        // Assert: the relay resumes after the last outbox ID found
+        assertEquals(10, lastOutboxId);
+        assertEquals(11, reopened.getLastOutboxId());
+        assertEquals(end, offset);
+        List<ChangeRecord> records = reopened.read(reopened.getStartOffset(), 100);
+        assertEquals(11, records.size());
+        assertEquals(11, records.get(10).getOutboxId());
+    }
+
+    @Test
+    void testReopen_TruncatesTornRecord() throws IOException {
+        // Arrange: corrupt the payload of the second record
+        ChangeLog log = open(16);
+        log.append(1, "EVENT", 1, CREATED, payload(1));
+        long second = log.append(2, "EVENT", 2, CREATED, payload(2));
+        log.close();
+        try (FileChannel channel = FileChannel.open(dir.resolve(String.format("%020d.log", 0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), second + 40);
+        }
+
+        // Act
+        ChangeLog reopened = open(16);
+
+        // Assert
+        assertEquals(second, reopened.getEndOffset());
+        assertEquals(1, reopened.read(0, 10).size());
+        assertEquals(second, reopened.append(3, "EVENT", 3, CREATED, payload(3)));
+    }
+
+    @Test
+    void testRead_RejectsOffsetInsideRecord() {
+        // Arrange
+        ChangeLog log = open(4);
+        log.append(1, "EVENT", 1, CREATED, payload(1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> log.read(3, 10));
+        assertThrows(IllegalArgumentException.class, () -> log.read(log.getEndOffset() + 1, 10));
+    }
+}
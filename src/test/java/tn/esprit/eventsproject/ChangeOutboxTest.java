@@ -0,0 +1,227 @@
+package tn.esprit.eventsproject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.eventsproject.changes.ChangeConsumer;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.dto.ChangeRecord;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.services.*;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that service writes leave their changes in the outbox only when they commit, and that the
+ * relay copies them to the change log and hands the ones of other nodes over.
+ */
+// The outbox rows are inserted just before commit, so the test must let each call commit
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("h2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = "events.changelog.dir=${java.io.tmpdir}/events-changelog-test")
+@Import({EventServicesSlice.class, ChangeLog.class, ChangeOutbox.class, OutboxRelay.class, ChangeOutboxTest.OutboxConfig.class})
+class ChangeOutboxTest {
+
+    @Autowired
+    private IEventServices eventServices;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RecordingConsumer consumer;
+
+    @AfterEach
+    void cleanUp() {
+        consumer.events.clear();
+        jdbcTemplate.update("delete from outbox_record");
+        jdbcTemplate.update("delete from event_logistics");
+        jdbcTemplate.update("delete from logistics");
+        jdbcTemplate.update("delete from event");
+        jdbcTemplate.update("delete from participant");
+    }
+
+    @Test
+    void testCommittedWrites_AreRecorded() {
+        // Act
+        eventServices.addAffectEvenParticipant(event("Outbox"));
+        eventServices.addAffectLog(new Logistics(0, "Chair", true, 1.5f, 2), "Outbox");
+        eventServices.addParticipant(new Participant(0, "Tounsi", "Ahmed", Tache.INVITE, new HashSet<>()));
+
+        // Assert
+        assertEquals(List.of("EVENT", "LOGISTICS", "PARTICIPANT"),
+                jdbcTemplate.queryForList("select type from outbox_record order by id", String.class));
+    }
+
+    @Test
+    void testRolledBackWrite_IsNotRecorded() {
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            eventServices.addAffectEvenParticipant(event("Rolled back"));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from outbox_record", Integer.class));
+    }
+
+    @Test
+    void testRelay_CopiesOutboxToChangeLog() {
+        // Arrange
+        long end = changeLog.getEndOffset();
+        Event saved = eventServices.addAffectEvenParticipant(event("Relayed"));
+        eventServices.addAffectLog(new Logistics(0, "Stage", true, 100f, 1), "Relayed");
+
+        // Act
+        int relayed = relay.relay();
+
+        // Assert
+        assertEquals(2, relayed);
+        // Other nodes relay the same rows, they stay until the retention has passed
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from outbox_record", Integer.class));
+        List<ChangeRecord> records = changeLog.read(end, 10);
+        assertEquals(2, records.size());
+        assertEquals("EVENT", records.get(0).getType());
+        assertEquals(saved.getIdEvent(), records.get(0).getAggregateId());
+        assertTrue(records.get(0).getPayload().contains("\"description\":\"Relayed\""));
+        assertEquals("LOGISTICS", records.get(1).getType());
+        assertTrue(records.get(0).getOutboxId() < records.get(1).getOutboxId());
+        assertEquals(0, relay.relay());
+        // Changes of this node were applied after their commit
+        assertTrue(consumer.events.isEmpty());
+    }
+
+    @Test
+    void testRelay_HandsOverOtherNodesChangesOnceEach() throws Exception {
+        // Arrange: another node's transaction took an outbox ID, and commits after a later one
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread slow = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            recordOnOtherNode(new EventChange(901, "Slow", null, null));
+            inserted.countDown();
+            try {
+                commit.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        slow.start();
+        assertTrue(inserted.await(5, TimeUnit.SECONDS));
+        recordOnOtherNode(new EventChange(902, "Fast", null, null));
+
+        // Act
+        relay.relay();
+        List<Integer> beforeCommit = handedOver();
+        commit.countDown();
+        slow.join(TimeUnit.SECONDS.toMillis(5));
+        relay.relay();
+        relay.relay();
+
+        // Assert: the skipped ID is picked up once it commits
+        assertEquals(List.of(902), beforeCommit);
+        assertEquals(List.of(902, 901), handedOver());
+        assertEquals("Slow", consumer.events.get(1).getDescription());
+    }
+
+    @Test
+    void testPrune_DeletesRowsPastRetention() {
+        // Arrange
+        eventServices.addAffectEvenParticipant(event("Old"));
+        eventServices.addAffectEvenParticipant(event("Recent"));
+        jdbcTemplate.update("update outbox_record set created_at = ? where payload like '%Old%'",
+                Timestamp.from(Instant.now().minus(Duration.ofHours(2))));
+
+        // Act
+        int pruned = relay.prune();
+
+        // Assert
+        assertEquals(1, pruned);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from outbox_record", Integer.class));
+    }
+
+    private void recordOnOtherNode(EventChange change) {
+        try {
+            jdbcTemplate.update("insert into outbox_record (type, aggregate_id, origin, payload, created_at) values (?, ?, ?, ?, ?)",
+                    "EVENT", change.getIdEvent(), "other-node", objectMapper.writeValueAsString(change),
+                    Timestamp.from(Instant.now()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Integer> handedOver() {
+        return consumer.events.stream().map(EventChange::getIdEvent).collect(Collectors.toList());
+    }
+
+    private static Event event(String description) {
+        Event event = new Event();
+        event.setDescription(description);
+        event.setParticipants(new HashSet<>());
+        return event;
+    }
+
+    @TestConfiguration
+    static class OutboxConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements ChangeConsumer {
+        final List<EventChange> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onEventChange(EventChange change) {
+            events.add(change);
+        }
+    }
+}
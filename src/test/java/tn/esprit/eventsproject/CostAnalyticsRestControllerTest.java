@@ -0,0 +1,59 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.dto.CostBuckets;
+import tn.esprit.eventsproject.dto.CostRollup;
+import tn.esprit.eventsproject.controllers.CostAnalyticsRestController;
+import tn.esprit.eventsproject.services.CostAnalyticsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CostAnalyticsRestController.class)
+ class CostAnalyticsRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CostAnalyticsService costAnalyticsService;
+
+    @Test
+     void testGetCostBuckets() throws Exception {
+        // Arrange
+        Mockito.when(costAnalyticsService.getCostBuckets(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 14))
+                .thenReturn(new CostBuckets(true, LocalDate.of(2024, 1, 1), 14,
+                        new double[]{10, 0, 5}, new double[]{0, 0, 1}));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/analytics/costs/{d1}/{d2}", "2024-01-01", "2024-01-31").param("bucketDays", "14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reserved", hasSize(3)))
+                .andExpect(jsonPath("$.reserved[2]").value(5.0))
+                .andExpect(jsonPath("$.bucketDays").value(14));
+    }
+
+    @Test
+     void testGetDailyCosts() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 5, 2);
+        Mockito.when(costAnalyticsService.getCostRollup(CostRollup.Granularity.DAY, day, day.plusDays(6)))
+                .thenReturn(new CostRollup(true, CostRollup.Granularity.DAY, List.of(new CostRollup.Period(day, 42.5))));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/analytics/costs/daily/{d1}/{d2}", day, day.plusDays(6)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("DAY"))
+                .andExpect(jsonPath("$.periods[0].start").value("2024-05-02"))
+                .andExpect(jsonPath("$.periods[0].reserved").value(42.5));
+    }
+}
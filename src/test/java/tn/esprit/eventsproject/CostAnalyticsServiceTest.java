@@ -0,0 +1,96 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.dto.CostBuckets;
+import tn.esprit.eventsproject.dto.CostRollup;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.LogisticsCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.services.CostAnalyticsService;
+import tn.esprit.eventsproject.services.CostRollups;
+import tn.esprit.eventsproject.services.LogisticsColumnStore;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+ class CostAnalyticsServiceTest {
+
+   @Mock
+   private EventRepository eventRepository;
+
+   @Mock
+   private LogisticsRepository logisticsRepository;
+
+   private LogisticsColumnStore logisticsStore;
+
+   private CostRollups costRollups;
+
+   private CostAnalyticsService costAnalyticsService;
+
+   @BeforeEach
+   public void setUp() {
+     MockitoAnnotations.openMocks(this);
+     SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+     logisticsStore = new LogisticsColumnStore(logisticsRepository, eventRepository, TransactionOperations.withoutTransaction(), meterRegistry);
+     costRollups = new CostRollups(logisticsRepository, eventRepository, TransactionOperations.withoutTransaction(), meterRegistry);
+     costAnalyticsService = new CostAnalyticsService(logisticsStore, costRollups);
+   }
+
+   // Test for getCostBuckets with a shorter last bucket
+   @Test
+    void testGetCostBuckets() {
+      // Arrange: event 3 starts after the range
+      when(eventRepository.streamDates()).thenReturn(Stream.of(
+              new EventDates(1, LocalDate.of(2024, 1, 1), null),
+              new EventDates(2, LocalDate.of(2024, 1, 9), null),
+              new EventDates(3, LocalDate.of(2024, 1, 11), null)));
+      when(logisticsRepository.streamCosts()).thenReturn(Stream.of(
+              new LogisticsCost(1, 10, true, 10f, 2),
+              new LogisticsCost(1, 11, false, 5f, 1),
+              new LogisticsCost(2, 12, true, 7f, 3),
+              new LogisticsCost(3, 13, true, 100f, 1)));
+      logisticsStore.rebuild();
+
+      // Act
+      CostBuckets result = costAnalyticsService.getCostBuckets(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10), 7);
+
+      // Assert
+      assertTrue(result.isLoaded());
+      assertArrayEquals(new double[]{20, 21}, result.getReserved());
+      assertArrayEquals(new double[]{5, 0}, result.getUnreserved());
+   }
+
+   // Test for getCostRollup by month
+   @Test
+    void testGetCostRollup_Monthly() {
+      // Arrange
+      when(eventRepository.streamDates()).thenReturn(Stream.of(
+              new EventDates(1, LocalDate.of(2024, 1, 5), null),
+              new EventDates(2, LocalDate.of(2024, 1, 20), null),
+              new EventDates(3, LocalDate.of(2024, 3, 1), null)));
+      when(logisticsRepository.streamCosts()).thenReturn(Stream.of(
+              new LogisticsCost(1, 10, true, 10f, 2),
+              new LogisticsCost(2, 11, true, 5f, 1),
+              new LogisticsCost(3, 12, true, 1f, 4)));
+      costRollups.rebuild();
+
+      // Act
+      CostRollup result = costAnalyticsService.getCostRollup(CostRollup.Granularity.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+
+      // Assert
+      assertTrue(result.isLoaded());
+      assertEquals(List.of(new CostRollup.Period(LocalDate.of(2024, 1, 1), 25)), result.getPeriods());
+      assertThrows(IllegalArgumentException.class, () -> costAnalyticsService.getCostRollup(
+              CostRollup.Granularity.DAY, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+   }
+}
@@ -0,0 +1,128 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.config.DatabaseLease;
+import tn.esprit.eventsproject.dto.EventCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.CostReconciler;
+import tn.esprit.eventsproject.services.EventCostEngine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CostReconcilerTest {
+
+    private EventRepository eventRepository;
+    private DatabaseLease lease;
+    private TransactionOperations transactionOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private CostReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        lease = mock(DatabaseLease.class);
+        transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new CostReconciler(eventRepository, new EventCostEngine(eventRepository, meterRegistry), lease,
+                transactionOperations, meterRegistry, 500, 4, Duration.ofMinutes(90));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciler.shutdown();
+    }
+
+    @Test
+    void testReconcile_OneTransactionPerChunk() {
+        // Arrange: 1200 events, every third one drifted
+        stubCosts(IntStream.rangeClosed(1, 1200)
+                .mapToObj(i -> new EventCost(i, "Event " + i, i % 3 == 0 ? 0f : 10f, 0, 10.0))
+                .collect(Collectors.toList()));
+        when(eventRepository.updateCout(anyInt(), anyFloat(), eq(0))).thenReturn(1);
+
+        // Act
+        int corrected = reconciler.reconcile();
+
+        // Assert
+        assertEquals(400, corrected);
+        verify(transactionOperations, times(3)).execute(any());
+        // Keyset chunks: each read starts after the last event of the previous one, the short one ends the cycle
+        verify(eventRepository).findCostsAfter(eq(0), any(Pageable.class));
+        verify(eventRepository).findCostsAfter(eq(500), any(Pageable.class));
+        verify(eventRepository).findCostsAfter(eq(1000), any(Pageable.class));
+        verify(eventRepository, times(3)).findCostsAfter(anyInt(), any(Pageable.class));
+        verify(eventRepository, times(400)).updateCout(anyInt(), eq(10f), eq(0));
+        assertEquals(1, meterRegistry.get("events.cost.reconcile.duration").timer().count());
+        assertEquals(1200, meterRegistry.get("events.cost.reconcile.events").summary().totalAmount());
+    }
+
+    @Test
+    void testReconcile_FailedChunkDoesNotStopOthers() {
+        // Arrange
+        stubCosts(IntStream.rangeClosed(1, 1000)
+                .mapToObj(i -> new EventCost(i, "Event " + i, 0f, 0, 10.0))
+                .collect(Collectors.toList()));
+        when(eventRepository.updateCout(anyInt(), anyFloat(), eq(0))).thenReturn(1);
+        when(eventRepository.updateCout(eq(1), anyFloat(), eq(0))).thenThrow(new IllegalStateException("deadlock"));
+
+        // Act
+        int corrected = reconciler.reconcile();
+
+        // Assert
+        assertEquals(500, corrected);
+        assertEquals(1, meterRegistry.get("events.cost.reconcile.failures").counter().count());
+    }
+
+    @Test
+    void testReconcile_SkipsEventWrittenSinceRead() {
+        // Arrange: the version read is stale, so the guarded update matches no row
+        stubCosts(List.of(new EventCost(1, "Event 1", 0f, 3, 10.0)));
+        when(eventRepository.updateCout(1, 10f, 3)).thenReturn(0);
+
+        // Act
+        int corrected = reconciler.reconcile();
+
+        // Assert
+        assertEquals(0, corrected);
+        verify(eventRepository).updateCout(1, 10f, 3);
+    }
+
+    @Test
+    void testScheduledReconcile_SkipsWithoutLease() {
+        // Arrange
+        when(lease.tryAcquire(eq("cost-reconcile"), any(Duration.class))).thenReturn(false);
+
+        // Act
+        reconciler.scheduledReconcile();
+
+        // Assert
+        verifyNoInteractions(eventRepository);
+        assertEquals(1, meterRegistry.get("events.cost.reconcile.skipped").counter().count());
+    }
+
+    private void stubCosts(List<EventCost> costs) {
+        when(eventRepository.findCostsAfter(anyInt(), any(Pageable.class))).thenAnswer(invocation -> {
+            int afterId = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return costs.stream()
+                    .filter(cost -> cost.getIdEvent() > afterId)
+                    .limit(page.getPageSize())
+                    .collect(Collectors.toList());
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.dto.CostRollup;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.LogisticsCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.services.CostRollups;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CostRollupsTest {
+
+    private static final LocalDate DAY_ZERO = LocalDate.of(2024, 1, 30);
+
+    private EventRepository eventRepository;
+    private LogisticsRepository logisticsRepository;
+    private CostRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        logisticsRepository = mock(LogisticsRepository.class);
+        rollups = new CostRollups(logisticsRepository, eventRepository,
+                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRebuildSumsReservedCostPerDayAndMonth() {
+        // Arrange: event 3 has no start date, row 11 is not reserved
+        when(eventRepository.streamDates()).thenReturn(Stream.of(
+                new EventDates(1, DAY_ZERO, null),
+                new EventDates(2, DAY_ZERO.plusDays(3), null)));
+        when(logisticsRepository.streamCosts()).thenReturn(Stream.of(
+                new LogisticsCost(1, 10, true, 2.5f, 4),
+                new LogisticsCost(1, 11, false, 3f, 1),
+                new LogisticsCost(2, 12, true, 1f, 7),
+                new LogisticsCost(3, 13, true, 50f, 1)));
+
+        // Act
+        rollups.rebuild();
+
+        // Assert
+        assertTrue(rollups.isLoaded());
+        assertEquals(List.of(new CostRollup.Period(DAY_ZERO, 10), new CostRollup.Period(DAY_ZERO.plusDays(3), 7)),
+                rollups.daily(DAY_ZERO, DAY_ZERO.plusDays(10)));
+        assertEquals(List.of(new CostRollup.Period(LocalDate.of(2024, 1, 1), 10), new CostRollup.Period(LocalDate.of(2024, 2, 1), 7)),
+                rollups.monthly(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 2, 2)));
+        assertTrue(rollups.daily(DAY_ZERO.plusDays(1), DAY_ZERO.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    void testChangesMatchBruteForce() {
+        // Arrange
+        when(eventRepository.streamDates()).thenReturn(Stream.empty());
+        when(logisticsRepository.streamCosts()).thenReturn(Stream.empty());
+        rollups.rebuild();
+        Random random = new Random(11);
+        int events = 2_000;
+        int[] startDays = new int[events];
+        double[] costs = new double[events];
+
+        // Act: costs land before and after events get a date, then events move around
+        int idLog = 0;
+        for (int step = 0; step < 20_000; step++) {
+            int idEvent = 1 + random.nextInt(events - 1);
+            if (random.nextInt(4) == 0) {
+                startDays[idEvent] = 1 + random.nextInt(400);
+                rollups.onEventChange(new EventChange(idEvent, "Event " + idEvent, DAY_ZERO.plusDays(startDays[idEvent]), null));
+            } else {
+                boolean reserve = random.nextBoolean();
+                float prixUnit = random.nextInt(100) / 4f;
+                int quantite = 1 + random.nextInt(5);
+                LogisticsChange change = new LogisticsChange(idEvent, ++idLog, reserve, prixUnit, quantite);
+                rollups.onLogisticsChange(change);
+                // Delivered twice, as when a change is replayed after a rebuild
+                rollups.onLogisticsChange(change);
+                if (reserve) {
+                    costs[idEvent] += (double) prixUnit * quantite;
+                }
+            }
+        }
+
+        // Assert
+        TreeMap<LocalDate, Double> daily = new TreeMap<>();
+        TreeMap<LocalDate, Double> monthly = new TreeMap<>();
+        for (int idEvent = 1; idEvent < events; idEvent++) {
+            if (startDays[idEvent] != 0 && costs[idEvent] != 0) {
+                LocalDate day = DAY_ZERO.plusDays(startDays[idEvent]);
+                daily.merge(day, costs[idEvent], Double::sum);
+                monthly.merge(day.withDayOfMonth(1), costs[idEvent], Double::sum);
+            }
+        }
+        assertPeriods(daily, rollups.daily(DAY_ZERO, DAY_ZERO.plusDays(400)));
+        assertPeriods(monthly, rollups.monthly(DAY_ZERO, DAY_ZERO.plusDays(400)));
+    }
+
+    private static void assertPeriods(TreeMap<LocalDate, Double> expected, List<CostRollup.Period> actual) {
+        assertEquals(new ArrayList<>(expected.keySet()), actual.stream()
+                .map(CostRollup.Period::getStart)
+                .collect(Collectors.toList()));
+        for (CostRollup.Period period : actual) {
+            assertEquals(expected.get(period.getStart()), period.getReserved(), 1e-3);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.eventsproject.config.DatabaseLease;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class DatabaseLeaseTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testOnlyOneNodeHoldsTheLease() {
+        // Arrange
+        DatabaseLease nodeA = new DatabaseLease(jdbcTemplate, "node-a");
+        DatabaseLease nodeB = new DatabaseLease(jdbcTemplate, "node-b");
+
+        // Act & Assert
+        assertTrue(nodeA.tryAcquire("job", Duration.ofMinutes(5)));
+        assertFalse(nodeB.tryAcquire("job", Duration.ofMinutes(5)));
+        assertTrue(nodeA.tryAcquire("job", Duration.ofMinutes(5)));
+        nodeA.release("job");
+        assertTrue(nodeB.tryAcquire("job", Duration.ofMinutes(5)));
+        assertEquals("node-b", jdbcTemplate.queryForObject(
+                "select owner from scheduler_lease where name = 'job'", String.class));
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() {
+        // Arrange
+        DatabaseLease nodeA = new DatabaseLease(jdbcTemplate, "node-a");
+        DatabaseLease nodeB = new DatabaseLease(jdbcTemplate, "node-b");
+        assertTrue(nodeA.tryAcquire("job", Duration.ofMinutes(-1)));
+
+        // Act & Assert
+        assertTrue(nodeB.tryAcquire("job", Duration.ofMinutes(5)));
+        assertFalse(nodeA.tryAcquire("job", Duration.ofMinutes(5)));
+    }
+}
@@ -0,0 +1,77 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.EventDescriptionCache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventDescriptionCacheTest {
+
+    private EventRepository eventRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private EventDescriptionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EventDescriptionCache(eventRepository, meterRegistry, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testHitDoesNotQueryRepository() {
+        when(eventRepository.findIdByDescription("Gala")).thenReturn(Optional.of(7));
+
+        assertEquals(Optional.of(7), cache.findIdByDescription("Gala"));
+        assertEquals(Optional.of(7), cache.findIdByDescription("Gala"));
+
+        verify(eventRepository, times(1)).findIdByDescription("Gala");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testUnknownDescriptionIsNotCached() {
+        when(eventRepository.findIdByDescription("Gala")).thenReturn(Optional.empty(), Optional.of(7));
+
+        assertEquals(Optional.empty(), cache.findIdByDescription("Gala"));
+        assertEquals(Optional.of(7), cache.findIdByDescription("Gala"));
+    }
+
+    @Test
+    void testEventChangeInvalidatesOldAndNewDescription() {
+        when(eventRepository.findIdByDescription("Gala")).thenReturn(Optional.of(7));
+        cache.findIdByDescription("Gala");
+
+        // Event 7 renamed: the entry for its old description has to go as well
+        cache.onEventChange(new EventChange(7, "Gala 2025", null, null));
+        when(eventRepository.findIdByDescription("Gala")).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), cache.findIdByDescription("Gala"));
+    }
+
+    @Test
+    void testEventChangeInvalidatesEveryDescriptionOfTheEventOnly() {
+        // Both the old and the new description of event 7 were looked up around its rename
+        when(eventRepository.findIdByDescription("Gala")).thenReturn(Optional.of(7));
+        when(eventRepository.findIdByDescription("Gala 2025")).thenReturn(Optional.of(7));
+        cache.findIdByDescription("Gala");
+        cache.findIdByDescription("Gala 2025");
+
+        cache.onEventChange(new EventChange(8, "Workshop", null, null));
+        cache.onEventChange(new EventChange(7, null, null, null));
+        cache.findIdByDescription("Gala");
+        cache.findIdByDescription("Gala 2025");
+
+        verify(eventRepository, times(2)).findIdByDescription("Gala");
+        verify(eventRepository, times(2)).findIdByDescription("Gala 2025");
+    }
+}
@@ -0,0 +1,99 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.EventIntervalIndex;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventIntervalIndexTest {
+
+    private static final LocalDate DAY_ZERO = LocalDate.of(2024, 1, 1);
+
+    private EventRepository eventRepository;
+    private EventIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        index = new EventIntervalIndex(eventRepository, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testFallsBackToDatabaseUntilLoaded() {
+        // Arrange
+        when(eventRepository.findIdsOverlapping(DAY_ZERO, DAY_ZERO.plusDays(5))).thenReturn(List.of(4, 2));
+
+        // Act & Assert
+        assertFalse(index.isLoaded());
+        assertArrayEquals(new int[]{4, 2}, index.findOverlapping(DAY_ZERO, DAY_ZERO.plusDays(5)));
+    }
+
+    @Test
+    void testRebuildFindsEventsRunningIntoTheWindow() {
+        // Arrange
+        when(eventRepository.streamDates()).thenReturn(Stream.of(
+                new EventDates(1, DAY_ZERO, DAY_ZERO.plusDays(30)),
+                new EventDates(2, DAY_ZERO.plusDays(3), DAY_ZERO.plusDays(4)),
+                new EventDates(3, DAY_ZERO.plusDays(10), null),
+                new EventDates(4, DAY_ZERO.plusDays(11), DAY_ZERO.plusDays(12))));
+
+        // Act
+        index.rebuild();
+
+        // Assert: event 1 starts before the window, event 2 ends before it
+        assertArrayEquals(new int[]{1, 3}, index.findOverlapping(DAY_ZERO.plusDays(5), DAY_ZERO.plusDays(10)));
+        assertEquals(4, index.size());
+        verify(eventRepository, never()).findIdsOverlapping(any(), any());
+    }
+
+    @Test
+    void testChangesMatchBruteForce() {
+        // Arrange
+        when(eventRepository.streamDates()).thenReturn(Stream.empty());
+        index.rebuild();
+        Random random = new Random(42);
+        Map<Integer, int[]> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            int idEvent = random.nextInt(1_500);
+            if (random.nextInt(10) == 0) {
+                index.onEventChange(new EventChange(idEvent, "Event " + idEvent, null, null));
+                expected.remove(idEvent);
+            } else {
+                int start = random.nextInt(1_000);
+                int end = start + random.nextInt(60);
+                index.onEventChange(new EventChange(idEvent, "Event " + idEvent,
+                        DAY_ZERO.plusDays(start), DAY_ZERO.plusDays(end)));
+                expected.put(idEvent, new int[]{start, end});
+            }
+        }
+
+        // Act & Assert
+        assertEquals(expected.size(), index.size());
+        for (int q = 0; q < 300; q++) {
+            int from = random.nextInt(1_100) - 50;
+            int to = from + random.nextInt(40);
+            Set<Integer> bruteForce = new HashSet<>();
+            expected.forEach((idEvent, interval) -> {
+                if (interval[0] <= to && interval[1] >= from) {
+                    bruteForce.add(idEvent);
+                }
+            });
+            Set<Integer> found = new HashSet<>();
+            for (int idEvent : index.findOverlapping(DAY_ZERO.plusDays(from), DAY_ZERO.plusDays(to))) {
+                assertTrue(found.add(idEvent), "duplicate id " + idEvent);
+            }
+            assertEquals(bruteForce, found);
+        }
+    }
+}
@@ -7,19 +7,35 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tn.esprit.eventsproject.dto.RegistrationStatus;
 import tn.esprit.eventsproject.controllers.EventRestController;
 import tn.esprit.eventsproject.entities.Event;
 import tn.esprit.eventsproject.entities.Logistics;
 import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
 import tn.esprit.eventsproject.services.IEventServices;
+import tn.esprit.eventsproject.services.LogisticsDatesService;
+import tn.esprit.eventsproject.services.ParticipantWriteBehind;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +49,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
     @MockBean
     private IEventServices eventServices;
 
+    @MockBean
+    private LogisticsDatesService logisticsDatesService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -103,6 +122,144 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         verify(eventServices).addAffectEvenParticipant(any(Event.class));
     }
 
+    @Test
+     void testAddEvent_VersionRoundTrips() throws Exception {
+        // Arrange: an update of an event read at version 3
+        Event savedEvent = new Event();
+        savedEvent.setIdEvent(1);
+        savedEvent.setDescription("Sample Event");
+        savedEvent.setVersion(4);
+        Mockito.when(eventServices.addAffectEvenParticipant(any(Event.class))).thenReturn(savedEvent);
+
+        // Act & Assert
+        mockMvc.perform(post("/event/addEvent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idEvent\":1,\"description\":\"Sample Event\",\"version\":3,\"participants\":[]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(4));
+        verify(eventServices).addAffectEvenParticipant(argThat((Event event) -> event.getVersion() == 3));
+    }
+
+    @Test
+     void testAddEvent_ParticipantsListedById() throws Exception {
+        // Arrange: the participant points back at the event
+        Event savedEvent = new Event();
+        savedEvent.setIdEvent(1);
+        savedEvent.setDescription("Sample Event");
+        Participant participant = new Participant(5, "Doe", "John", Tache.INVITE, new HashSet<>(Set.of(savedEvent)));
+        savedEvent.setParticipants(Set.of(participant));
+        savedEvent.setLogistics(Set.of(new Logistics(3, "Chairs", true, 2f, 10)));
+        Mockito.when(eventServices.addAffectEvenParticipant(any(Event.class))).thenReturn(savedEvent);
+
+        // Act & Assert
+        mockMvc.perform(post("/event/addEvent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Sample Event\",\"participants\":[{\"idPart\":5}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.participants", hasSize(1)))
+                .andExpect(jsonPath("$.participants[0]").value(5))
+                .andExpect(jsonPath("$.logistics[0].idLog").value(3));
+    }
+
+    @Test
+     void testGetLogistiquesDates_SparseFields() throws Exception {
+        // Arrange
+        Mockito.when(logisticsDatesService.getLogisticsDates(any(LocalDate.class), any(LocalDate.class), eq(false)))
+                .thenReturn(List.of(new Logistics(1, "Stage", true, 100f, 1)));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/getLogs/{d1}/{d2}", "2024-01-01", "2024-01-31").param("fields", "idLog, prixUnit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idLog").value(1))
+                .andExpect(jsonPath("$[0].prixUnit").value(100.0))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].reserve").doesNotExist());
+    }
+
+    @Test
+     void testGetLogistiquesDates_NotModified() throws Exception {
+        // Arrange
+        LocalDate dateDebut = LocalDate.of(2024, 1, 1);
+        LocalDate dateFin = LocalDate.of(2024, 1, 31);
+        Mockito.when(logisticsDatesService.getLogisticsDatesVersion(dateDebut, dateFin)).thenReturn("e1-7");
+        Mockito.when(logisticsDatesService.getLogisticsDates(dateDebut, dateFin, false)).thenReturn(List.of(new Logistics(1, "Stage", true, 100f, 1)));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/getLogs/{d1}/{d2}", dateDebut, dateFin))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-7\""));
+        mockMvc.perform(get("/event/getLogs/{d1}/{d2}", dateDebut, dateFin).header(HttpHeaders.IF_NONE_MATCH, "\"e1-6\", W/\"e1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-7\""))
+                .andExpect(content().string(""));
+        verify(logisticsDatesService, times(1)).getLogisticsDates(dateDebut, dateFin, false);
+    }
+
+    @Test
+     void testPollLogistiquesDates_AnswersOnChangeOrTimeout() throws Exception {
+        // Arrange
+        LocalDate dateDebut = LocalDate.of(2024, 1, 1);
+        LocalDate dateFin = LocalDate.of(2024, 1, 31);
+        Mockito.when(logisticsDatesService.awaitLogisticsDatesChange(dateDebut, dateFin, "e1-7", Duration.ofSeconds(10)))
+                .thenReturn(CompletableFuture.completedFuture("e1-8"));
+        Mockito.when(logisticsDatesService.awaitLogisticsDatesChange(dateDebut, dateFin, "e1-8", Duration.ofSeconds(10)))
+                .thenReturn(CompletableFuture.completedFuture("e1-8"));
+        Mockito.when(logisticsDatesService.getLogisticsDates(dateDebut, dateFin, false)).thenReturn(List.of(new Logistics(1, "Stage", true, 100f, 1)));
+
+        // Act & Assert: changed since e1-7
+        MvcResult changed = mockMvc.perform(get("/event/getLogs/{d1}/{d2}/poll", dateDebut, dateFin)
+                        .param("timeout", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"e1-7\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(changed))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-8\""))
+                .andExpect(jsonPath("$[0].idLog").value(1));
+
+        // Act & Assert: still e1-8 when the wait is over
+        MvcResult unchanged = mockMvc.perform(get("/event/getLogs/{d1}/{d2}/poll", dateDebut, dateFin)
+                        .param("timeout", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"e1-8\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(unchanged))
+                .andExpect(status().isNotModified());
+        verify(logisticsDatesService, times(1)).getLogisticsDates(dateDebut, dateFin, false);
+    }
+
+    @Test
+     void testPollLogistiquesDates_QueriesOffTheNotifierThread() throws Exception {
+        // Arrange: the wait ends on a thread of RangeVersions' notifier pool
+        LocalDate dateDebut = LocalDate.of(2024, 1, 1);
+        LocalDate dateFin = LocalDate.of(2024, 1, 31);
+        CompletableFuture<String> change = new CompletableFuture<>();
+        Mockito.when(logisticsDatesService.awaitLogisticsDatesChange(dateDebut, dateFin, "e1-7", Duration.ofSeconds(10)))
+                .thenReturn(change);
+        List<String> queryThreads = new CopyOnWriteArrayList<>();
+        Mockito.when(logisticsDatesService.getLogisticsDates(dateDebut, dateFin, false)).thenAnswer(invocation -> {
+            queryThreads.add(Thread.currentThread().getName());
+            return List.of(new Logistics(1, "Stage", true, 100f, 1));
+        });
+        MvcResult polling = mockMvc.perform(get("/event/getLogs/{d1}/{d2}/poll", dateDebut, dateFin)
+                        .param("timeout", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"e1-7\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Act
+        Thread notifier = new Thread(() -> change.complete("e1-8"), "range-poll-1");
+        notifier.start();
+        notifier.join();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(polling))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-8\""));
+        assertEquals(1, queryThreads.size());
+        assertNotEquals("range-poll-1", queryThreads.get(0));
+    }
+
     @Test
      void testAddEventPart_Success() throws Exception {
         // Arrange
@@ -177,7 +334,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
         List<Logistics> logisticsList = Arrays.asList(logistics1, logistics2);
 
-        Mockito.when(eventServices.getLogisticsDates(any(LocalDate.class), any(LocalDate.class)))
+        Mockito.when(logisticsDatesService.getLogisticsDates(any(LocalDate.class), any(LocalDate.class), eq(false)))
                 .thenReturn(logisticsList);
 
         // Act & Assert
@@ -192,7 +349,93 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 .andExpect(jsonPath("$[1].reserve").value(false));
 
         // Verify service call with correct dates
-        verify(eventServices).getLogisticsDates(LocalDate.parse(dateDebut), LocalDate.parse(dateFin));
+        verify(logisticsDatesService).getLogisticsDates(LocalDate.parse(dateDebut), LocalDate.parse(dateFin), false);
+    }
+
+    @Test
+     void testGetLogistiquesDates_Overlap() throws Exception {
+        // Arrange
+        Logistics logistics = new Logistics(3, "Stage", true, 100f, 1);
+        Mockito.when(logisticsDatesService.getLogisticsDates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), true))
+                .thenReturn(List.of(logistics));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/getLogs/{d1}/{d2}", "2024-01-01", "2024-01-31").param("overlap", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].idLog").value(3));
+
+        verify(logisticsDatesService, Mockito.never()).getLogisticsDates(any(), any(), eq(false));
+    }
+
+    @Test
+     void testAddParticipantAsync_ReturnsTicket() throws Exception {
+        // Arrange
+        Participant participant = new Participant();
+        participant.setNom("John");
+        Mockito.when(eventServices.addParticipantAsync(any(Participant.class)))
+                .thenReturn(new RegistrationStatus("t-1", RegistrationStatus.State.PENDING, null, null));
+
+        // Act & Assert
+        mockMvc.perform(post("/event/addPart/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(participant)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "tickets/t-1"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+    }
+
+    @Test
+     void testAddParticipant_QueueFull() throws Exception {
+        // Arrange
+        Mockito.when(eventServices.addParticipant(any(Participant.class)))
+                .thenThrow(new RejectedExecutionException("Registration queue is full (10 pending)"));
+
+        // Act & Assert
+        mockMvc.perform(post("/event/addPart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Participant())))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+     void testAddParticipant_AckTimeoutAnswersWithTicket() throws Exception {
+        // Arrange
+        Mockito.when(eventServices.addParticipant(any(Participant.class)))
+                .thenThrow(new ParticipantWriteBehind.PendingRegistrationException(
+                        new RegistrationStatus("t-9", RegistrationStatus.State.PENDING, null, null)));
+
+        // Act & Assert
+        mockMvc.perform(post("/event/addPart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Participant())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "addPart/tickets/t-9"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+    }
+
+    @Test
+     void testAddAffectLog_ConcurrentWriteConflict() throws Exception {
+        // Arrange
+        Mockito.when(eventServices.addAffectLog(any(Logistics.class), eq("Busy")))
+                .thenThrow(new CannotAcquireLockException("Event 1 is busy, try again later"));
+
+        // Act & Assert
+        mockMvc.perform(put("/event/addAffectLog/{description}", "Busy")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Logistics())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+     void testGetRegistration_UnknownTicket() throws Exception {
+        // Arrange
+        Mockito.when(eventServices.getRegistration("gone")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/event/addPart/tickets/{ticket}", "gone"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -205,4 +448,32 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         mockMvc.perform(get("/event/getLogs/{d1}/{d2}", invalidDate, dateFin))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+     void testStreamLogistiquesDates_WritesNdjson() throws Exception {
+        // Arrange
+        Logistics logistics1 = new Logistics(1, "Logistics 1", true, 10f, 2);
+        Logistics logistics2 = new Logistics(2, "Logistics 2", true, 5f, 1);
+        doAnswer(invocation -> {
+            Consumer<Logistics> consumer = invocation.getArgument(2);
+            consumer.accept(logistics1);
+            consumer.accept(logistics2);
+            return null;
+        }).when(eventServices).streamLogisticsDates(any(LocalDate.class), any(LocalDate.class), any());
+
+        // Act
+        MvcResult started = mockMvc.perform(get("/event/getLogs/{d1}/{d2}/stream", "2024-01-01", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+
+        // Assert
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assert lines.length == 2;
+        assert objectMapper.readValue(lines[0], Logistics.class).getIdLog() == 1;
+        assert objectMapper.readValue(lines[1], Logistics.class).getIdLog() == 2;
+    }
 }
@@ -1,14 +1,40 @@
 package tn.esprit.eventsproject;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.config.DatabaseLease;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.dto.Booking;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.RegistrationStatus;
+import tn.esprit.eventsproject.dto.EventCost;
 import tn.esprit.eventsproject.entities.*;
 import tn.esprit.eventsproject.repositories.*;
+import tn.esprit.eventsproject.services.CostReconciler;
+import tn.esprit.eventsproject.services.EventCostEngine;
+import tn.esprit.eventsproject.services.EventDescriptionCache;
+import tn.esprit.eventsproject.services.EventIntervalIndex;
 import tn.esprit.eventsproject.services.EventServicesImpl;
+import tn.esprit.eventsproject.services.EventWriteGuard;
+import tn.esprit.eventsproject.services.ParticipantWriteBehind;
+import tn.esprit.eventsproject.services.ScheduleConflictDetector;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,13 +50,39 @@ import static org.mockito.Mockito.*;
    @Mock
    private LogisticsRepository logisticsRepository;
 
+   @Mock
+   private EntityManagerFactory entityManagerFactory;
+
+   @Mock
+   private Cache secondLevelCache;
+
    @InjectMocks
    private EventServicesImpl eventServices;
 
+   @Mock
+   private ApplicationEventPublisher eventPublisher;
+
+   private SimpleMeterRegistry meterRegistry;
+
+   private EventIntervalIndex intervalIndex;
+
    @BeforeEach
    public void setUp() {
      MockitoAnnotations.openMocks(this);
-     eventServices = new EventServicesImpl(eventRepository, participantRepository, logisticsRepository);
+     meterRegistry = new SimpleMeterRegistry();
+     when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+     EventCostEngine costEngine = new EventCostEngine(eventRepository, meterRegistry);
+     EventDescriptionCache descriptionCache = new EventDescriptionCache(eventRepository, meterRegistry, 100, Duration.ofMinutes(1));
+     intervalIndex = new EventIntervalIndex(eventRepository, TransactionOperations.withoutTransaction(), meterRegistry);
+     CostReconciler costReconciler = new CostReconciler(eventRepository, costEngine, mock(DatabaseLease.class),
+             TransactionOperations.withoutTransaction(), meterRegistry, 500, 1, Duration.ofMinutes(90));
+     eventServices = new EventServicesImpl(eventRepository, participantRepository, logisticsRepository, costEngine,
+             descriptionCache, eventPublisher, costReconciler, intervalIndex,
+             new ScheduleConflictDetector(participantRepository, meterRegistry, new Tache[]{Tache.ORGANISATEUR}, true),
+             new ParticipantWriteBehind(participantRepository, eventPublisher,
+             TransactionOperations.withoutTransaction(), meterRegistry, false, 200, Duration.ofMillis(20), 100,
+             Duration.ofSeconds(5), Duration.ofMinutes(10)),
+             new EventWriteGuard(TransactionOperations.withoutTransaction(), entityManagerFactory, meterRegistry, 16, 3, Duration.ofSeconds(2)));
    }
 
    // Test for addParticipant
@@ -49,6 +101,25 @@ import static org.mockito.Mockito.*;
       assertNotNull(result);
       assertEquals("John", result.getNom());
       verify(participantRepository, times(1)).save(participant);
+      verify(eventPublisher, times(1)).publishEvent(new ParticipantChange(1, "John", null, null, Set.of()));
+   }
+
+   // Test for addParticipantAsync without write-behind: saved right away, no ticket
+   @Test
+    void testAddParticipantAsync_WriteBehindDisabled() {
+      // Arrange
+      Participant participant = new Participant();
+      participant.setIdPart(4);
+      when(participantRepository.save(participant)).thenReturn(participant);
+
+      // Act
+      RegistrationStatus status = eventServices.addParticipantAsync(participant);
+
+      // Assert
+      assertNull(status.getTicket());
+      assertEquals(RegistrationStatus.State.COMMITTED, status.getState());
+      assertEquals(4, status.getIdPart());
+      assertFalse(eventServices.getRegistration("unknown").isPresent());
    }
 
    // Test for addAffectEvenParticipant (Event and Participant by ID)
@@ -74,6 +145,8 @@ import static org.mockito.Mockito.*;
       assertTrue(participant.getEvents().contains(event));
       verify(participantRepository, times(1)).findById(1);
       verify(eventRepository, times(1)).save(event);
+      verify(eventPublisher, times(1)).publishEvent(new EventChange(100, "Sample Event", null, null));
+      verify(eventPublisher, times(1)).publishEvent(new ParticipationChange(100, Set.of(1)));
    }
 
    // Test for addAffectEvenParticipant (Event with Participants)
@@ -91,45 +164,181 @@ import static org.mockito.Mockito.*;
       set.add(participant);
       event.setParticipants(set);
 
-      when(participantRepository.findById(1)).thenReturn(Optional.of(participant));
-      when(eventRepository.save(event)).thenReturn(event);
+      when(participantRepository.findExistingIds(Set.of(1))).thenReturn(Set.of(1));
+      when(eventRepository.saveAndFlush(event)).thenReturn(event);
 
       // Act
       Event result = eventServices.addAffectEvenParticipant(event);
 
       // Assert
       assertNotNull(result);
-      assertTrue(participant.getEvents().contains(event));
-      verify(participantRepository, times(1)).findById(1);
-      verify(eventRepository, times(1)).save(event);
+      verify(participantRepository, times(1)).findExistingIds(Set.of(1));
+      verify(participantRepository, never()).findById(anyInt());
+      verify(participantRepository, times(1)).addEventToParticipants(100, Set.of(1));
+      verify(eventRepository, times(1)).saveAndFlush(event);
+      verify(eventPublisher, times(1)).publishEvent(new EventChange(100, "Sample Event", null, null));
+      verify(eventPublisher, times(1)).publishEvent(new ParticipationChange(100, Set.of(1)));
    }
 
-   // Test for addAffectLog
+   // Test for addAffectEvenParticipant reporting every unknown participant at once
    @Test
-    void testAddAffectLog() {
+    void testAddAffectEvenParticipant_MissingParticipants() {
       // Arrange
       Event event = new Event();
-      event.setIdEvent(1);
       event.setDescription("Sample Event");
-      event.setLogistics(new HashSet<>());
+      Set<Participant> set = new LinkedHashSet<>();
+      for (int id = 1; id <= 3; id++) {
+         Participant participant = new Participant();
+         participant.setIdPart(id);
+         set.add(participant);
+      }
+      event.setParticipants(set);
+
+      when(participantRepository.findExistingIds(anyCollection())).thenReturn(Set.of(2));
+
+      // Act
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+              () -> eventServices.addAffectEvenParticipant(event));
 
+      // Assert
+      assertEquals("Participants not found with IDs: [1, 3]", exception.getMessage());
+      verify(eventRepository, never()).saveAndFlush(any(Event.class));
+      verify(participantRepository, never()).addEventToParticipants(anyInt(), anyCollection());
+   }
+
+   // Test for addAffectLog
+   @Test
+    void testAddAffectLog() {
+      // Arrange
       Logistics logistics = new Logistics();
       logistics.setIdLog(1);
       logistics.setReserve(true);
       logistics.setPrixUnit(50);
       logistics.setQuantite(2);
 
-      when(eventRepository.findByDescription("Sample Event")).thenReturn(event);
-      when(logisticsRepository.save(logistics)).thenReturn(logistics);
+      when(eventRepository.findIdByDescription("Sample Event")).thenReturn(Optional.of(1));
+      when(logisticsRepository.saveAndFlush(logistics)).thenReturn(logistics);
 
       // Act
       Logistics result = eventServices.addAffectLog(logistics, "Sample Event");
 
       // Assert
       assertNotNull(result);
-      assertTrue(event.getLogistics().contains(logistics));
-      verify(eventRepository, times(1)).findByDescription("Sample Event");
-      verify(logisticsRepository, times(1)).save(logistics);
+      verify(eventRepository, times(1)).findIdByDescription("Sample Event");
+      verify(eventRepository, never()).findByDescription(anyString());
+      verify(logisticsRepository, times(1)).saveAndFlush(logistics);
+      verify(eventRepository, times(1)).addLogisticsToEvent(1, 1);
+      verify(eventRepository, times(1)).addToCout(1, 100f);
+      assertEquals(1, meterRegistry.counter("events.cost.deltas").count());
+      verify(eventPublisher, times(1)).publishEvent(new LogisticsChange(1, 1, true, 50f, 2));
+   }
+
+   // Test for addAffectLog with unreserved logistics
+   @Test
+    void testAddAffectLog_NotReserved_NoCostDelta() {
+      // Arrange
+      Logistics logistics = new Logistics();
+      logistics.setIdLog(1);
+      logistics.setReserve(false);
+      logistics.setPrixUnit(50);
+      logistics.setQuantite(2);
+
+      when(eventRepository.findIdByDescription("Sample Event")).thenReturn(Optional.of(1));
+      when(logisticsRepository.saveAndFlush(logistics)).thenReturn(logistics);
+
+      // Act
+      eventServices.addAffectLog(logistics, "Sample Event");
+
+      // Assert
+      verify(eventRepository, never()).addToCout(anyInt(), anyFloat());
+   }
+
+   // Test for addAffectLog resolving the same description twice
+   @Test
+    void testAddAffectLog_DescriptionLookupIsCached() {
+      // Arrange
+      when(eventRepository.findIdByDescription("Sample Event")).thenReturn(Optional.of(1));
+      when(logisticsRepository.saveAndFlush(any(Logistics.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+      // Act
+      eventServices.addAffectLog(new Logistics(), "Sample Event");
+      eventServices.addAffectLog(new Logistics(), "Sample Event");
+
+      // Assert
+      verify(eventRepository, times(1)).findIdByDescription("Sample Event");
+      verify(eventRepository, times(2)).addLogisticsToEvent(eq(1), anyInt());
+   }
+
+   // Test for addAffectLog retrying after a concurrent write
+   @Test
+    void testAddAffectLog_RetriesConcurrencyFailure() {
+      // Arrange
+      Logistics logistics = new Logistics();
+      logistics.setIdLog(1);
+      when(eventRepository.findIdByDescription("Sample Event")).thenReturn(Optional.of(1));
+      when(logisticsRepository.saveAndFlush(logistics))
+              .thenThrow(new ObjectOptimisticLockingFailureException(Event.class, 1))
+              .thenReturn(logistics);
+
+      // Act
+      Logistics result = eventServices.addAffectLog(logistics, "Sample Event");
+
+      // Assert
+      assertSame(logistics, result);
+      verify(eventRepository, times(1)).addLogisticsToEvent(1, 1);
+      // The event may have been cached before another node wrote it
+      verify(secondLevelCache).evict(Event.class, 1);
+      assertEquals(1, meterRegistry.counter("events.write.retries").count());
+   }
+
+   // Test for addAffectLog giving up after the last attempt
+   @Test
+    void testAddAffectLog_ConcurrencyFailureExhausted() {
+      // Arrange
+      when(eventRepository.findIdByDescription("Sample Event")).thenReturn(Optional.of(1));
+      when(logisticsRepository.saveAndFlush(any(Logistics.class)))
+              .thenThrow(new CannotAcquireLockException("Deadlock found"));
+
+      // Act & Assert
+      assertThrows(CannotAcquireLockException.class, () -> eventServices.addAffectLog(new Logistics(), "Sample Event"));
+      verify(logisticsRepository, times(3)).saveAndFlush(any(Logistics.class));
+      assertEquals(1, meterRegistry.counter("events.write.exhausted").count());
+   }
+
+   // Test for addAffectLog with an unknown event
+   @Test
+    void testAddAffectLog_EventNotFound() {
+      // Arrange
+      when(eventRepository.findIdByDescription("Unknown")).thenReturn(Optional.empty());
+
+      // Act & Assert
+      assertThrows(IllegalArgumentException.class, () -> eventServices.addAffectLog(new Logistics(), "Unknown"));
+      verify(logisticsRepository, never()).saveAndFlush(any(Logistics.class));
+   }
+
+   // Test for addAffectEvenParticipant when the organiser is already busy
+   @Test
+    void testAddAffectEvenParticipant_RejectsOverlappingBooking() {
+      // Arrange
+      Participant participant = new Participant();
+      participant.setIdPart(1);
+      Event event = new Event();
+      event.setDescription("Gala");
+      event.setDateDebut(LocalDate.of(2024, 3, 10));
+      event.setDateFin(LocalDate.of(2024, 3, 12));
+      when(participantRepository.findById(1)).thenReturn(Optional.of(participant));
+      when(participantRepository.findBookingsOverlapping(Set.of(1), EnumSet.of(Tache.ORGANISATEUR), 0,
+              LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 12)))
+              .thenReturn(List.of(new Booking(1, 7, LocalDate.of(2024, 3, 11), null)));
+
+      // Act
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+              () -> eventServices.addAffectEvenParticipant(event, 1));
+
+      // Assert
+      assertEquals("Participants already booked on overlapping events: {1=[7]}", exception.getMessage());
+      verify(eventRepository, never()).save(any(Event.class));
+      assertEquals(1, meterRegistry.counter("events.conflicts.detected").count());
    }
 
    // Test for getLogisticsDates
@@ -139,19 +348,10 @@ import static org.mockito.Mockito.*;
       LocalDate startDate = LocalDate.of(2024, 1, 1);
       LocalDate endDate = LocalDate.of(2024, 1, 31);
 
-      Event event = new Event();
-      event.setIdEvent(1);
-      event.setDescription("Sample Event");
-
       Logistics logistics = new Logistics();
       logistics.setIdLog(1);
       logistics.setReserve(true);
-      Set<Logistics> set = new HashSet<>();
-      set.add(logistics);
-      event.setLogistics(set);
-      List<Event> events = new ArrayList<>();
-      events.add(event);
-      when(eventRepository.findByDateDebutBetween(startDate, endDate)).thenReturn(events);
+      when(logisticsRepository.findReservedBetween(startDate, endDate)).thenReturn(List.of(logistics));
 
       // Act
       List<Logistics> result = eventServices.getLogisticsDates(startDate, endDate);
@@ -160,37 +360,62 @@ import static org.mockito.Mockito.*;
       assertNotNull(result);
       assertEquals(1, result.size());
       assertTrue(result.contains(logistics));
-      verify(eventRepository, times(1)).findByDateDebutBetween(startDate, endDate);
+      verify(logisticsRepository, times(1)).findReservedBetween(startDate, endDate);
+      verify(eventRepository, never()).findByDateDebutBetween(any(), any());
+   }
+
+   // Test for getLogisticsDatesOverlapping
+   @Test
+    void testGetLogisticsDatesOverlapping() {
+      // Arrange: event 1 started before the window but is still running during it
+      LocalDate startDate = LocalDate.of(2024, 1, 10);
+      LocalDate endDate = LocalDate.of(2024, 1, 20);
+      when(eventRepository.streamDates()).thenReturn(Stream.of(
+              new EventDates(1, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15)),
+              new EventDates(2, LocalDate.of(2024, 1, 12), null),
+              new EventDates(3, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2))));
+      intervalIndex.rebuild();
+      Logistics logistics = new Logistics(5, "Tent", true, 10f, 2);
+      when(logisticsRepository.findReservedForEvents(List.of(1, 2))).thenReturn(List.of(logistics));
+
+      // Act
+      List<Logistics> result = eventServices.getLogisticsDatesOverlapping(startDate, endDate);
+
+      // Assert
+      assertEquals(List.of(logistics), result);
+      verify(eventRepository, never()).findIdsOverlapping(any(), any());
    }
 
    // Test for calculCout
    @Test
     void testCalculCout() {
       // Arrange
-      Event event = new Event();
-      event.setIdEvent(1);
-      event.setDescription("Sample Event");
-      event.setLogistics(new HashSet<>());
+      when(eventRepository.findCostsAfter(eq(0), any(Pageable.class)))
+              .thenReturn(List.of(new EventCost(1, "Sample Event", 0f, 0, 200.0)));
+      when(eventRepository.updateCout(1, 200f, 0)).thenReturn(1);
 
-      Logistics logistics = new Logistics();
-      logistics.setIdLog(1);
-      logistics.setReserve(true);
-      logistics.setPrixUnit(100);
-      logistics.setQuantite(2);
-      event.getLogistics().add(logistics);
-      List<Event> eventList = new ArrayList<>();
-      eventList.add(event);
-      when(eventRepository.findByParticipants_NomAndParticipants_PrenomAndParticipants_Tache(
-              "Tounsi", "Ahmed", Tache.ORGANISATEUR))
-              .thenReturn(eventList);
+      // Act
+      eventServices.calculCout();
+
+      // Assert
+      verify(eventRepository, times(1)).findCostsAfter(eq(0), any(Pageable.class));
+      verify(eventRepository, times(1)).updateCout(1, 200f, 0);
+      verify(eventRepository, never()).save(any(Event.class));
+      assertEquals(1, meterRegistry.counter("events.cost.drift").count());
+   }
+
+   // Test for calculCout when the stored cost is already correct
+   @Test
+    void testCalculCout_NoDrift_DoesNotSave() {
+      // Arrange
+      when(eventRepository.findCostsAfter(eq(0), any(Pageable.class)))
+              .thenReturn(List.of(new EventCost(1, "Sample Event", 200f, 0, 200.0)));
 
       // Act
       eventServices.calculCout();
 
       // Assert
-      assertEquals(200, event.getCout());
-      verify(eventRepository, times(1)).findByParticipants_NomAndParticipants_PrenomAndParticipants_Tache(
-              "Tounsi", "Ahmed", Tache.ORGANISATEUR);
-      verify(eventRepository, times(1)).save(event);
+      verify(eventRepository, never()).updateCout(anyInt(), anyFloat(), anyInt());
+      assertEquals(0, meterRegistry.counter("events.cost.drift").count());
    }
 }
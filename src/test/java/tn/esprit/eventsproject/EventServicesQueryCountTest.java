@@ -0,0 +1,164 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.EventServicesImpl;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({EventServicesSlice.class, EventServicesQueryCountTest.QueryCountConfig.class})
+class EventServicesQueryCountTest {
+
+    private static final int JOIN_BATCH_SIZE = 500;
+
+    @Autowired
+    private EventServicesImpl eventServices;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 2000})
+    void testAddAffectEvenParticipant_ConstantRoundTrips(int participantCount) {
+        // Arrange
+        List<Participant> saved = participantRepository.saveAllAndFlush(IntStream.range(0, participantCount)
+                .mapToObj(i -> participant("Nom" + i))
+                .collect(Collectors.toList()));
+
+        Event event = new Event();
+        event.setDescription("Conference " + participantCount);
+        event.setParticipants(saved.stream().map(p -> stub(p.getIdPart())).collect(Collectors.toSet()));
+        QueryCountHolder.clear();
+
+        // Act
+        Event result = eventServices.addAffectEvenParticipant(event);
+
+        // Assert: one id lookup, one event insert, one join-table batch per 500 participants
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertEquals(1, count.getSelect());
+        assertEquals(1 + (participantCount + JOIN_BATCH_SIZE - 1) / JOIN_BATCH_SIZE, count.getInsert());
+        assertEquals(participantCount, jdbcTemplate.queryForObject(
+                "select count(*) from participant_events where events_id_event = ?", Integer.class, result.getIdEvent()));
+    }
+
+    @Test
+    void testAddParticipants_InsertsInJdbcBatches() {
+        // Arrange
+        List<Participant> participants = IntStream.range(0, 120)
+                .mapToObj(i -> participant("Bulk" + i))
+                .collect(Collectors.toList());
+        QueryCountHolder.clear();
+
+        // Act
+        eventServices.addParticipants(participants);
+        participantRepository.flush();
+
+        // Assert: hibernate.jdbc.batch_size=50 and pooled ids, so 3 batches instead of 120 statements
+        assertEquals(3, QueryCountHolder.getGrandTotal().getInsert());
+        assertTrue(participants.stream().allMatch(p -> p.getIdPart() > 0));
+    }
+
+    @Test
+    void testAddAffectLogs_InsertsInJdbcBatches() {
+        // Arrange
+        Event event = new Event();
+        event.setDescription("Bulk logistics");
+        event.setParticipants(new HashSet<>());
+        eventServices.addAffectEvenParticipant(event);
+        List<Logistics> logistics = IntStream.range(0, 100)
+                .mapToObj(i -> new Logistics(0, "Chair " + i, true, 2f, 1))
+                .collect(Collectors.toList());
+        QueryCountHolder.clear();
+
+        // Act
+        eventServices.addAffectLogs(logistics, "Bulk logistics");
+
+        // Assert: 2 logistics batches, 1 join-table batch; the cost delta is a single update
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertEquals(3, count.getInsert());
+        assertEquals(1, count.getUpdate());
+        assertEquals(100, jdbcTemplate.queryForObject(
+                "select count(*) from event_logistics where event_id_event = ?", Integer.class, event.getIdEvent()));
+    }
+
+    @Test
+    void testAddAffectEvenParticipant_ReportsAllMissingIds() {
+        // Arrange
+        Participant existing = participantRepository.saveAndFlush(participant("Tounsi"));
+        Event event = new Event();
+        event.setDescription("Missing participants");
+        event.setParticipants(new LinkedHashSet<>(List.of(stub(existing.getIdPart()), stub(-1), stub(-2))));
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> eventServices.addAffectEvenParticipant(event));
+
+        // Assert
+        assertEquals("Participants not found with IDs: [-1, -2]", exception.getMessage());
+    }
+
+    private static Participant participant(String nom) {
+        Participant participant = new Participant();
+        participant.setNom(nom);
+        participant.setPrenom("Ahmed");
+        participant.setTache(Tache.INVITE);
+        return participant;
+    }
+
+    private static Participant stub(int idPart) {
+        Participant participant = new Participant();
+        participant.setIdPart(idPart);
+        return participant;
+    }
+
+    @TestConfiguration
+    static class QueryCountConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        static BeanPostProcessor queryCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource) {
+                        return ProxyDataSourceBuilder.create((DataSource) bean).countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
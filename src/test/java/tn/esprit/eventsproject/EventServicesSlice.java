@@ -0,0 +1,24 @@
+package tn.esprit.eventsproject;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import tn.esprit.eventsproject.config.DatabaseLease;
+import tn.esprit.eventsproject.services.CostReconciler;
+import tn.esprit.eventsproject.services.EventCostEngine;
+import tn.esprit.eventsproject.services.EventDescriptionCache;
+import tn.esprit.eventsproject.services.EventIntervalIndex;
+import tn.esprit.eventsproject.services.EventServicesImpl;
+import tn.esprit.eventsproject.services.EventWriteGuard;
+import tn.esprit.eventsproject.services.ParticipantWriteBehind;
+import tn.esprit.eventsproject.services.ScheduleConflictDetector;
+
+/**
+ * {@link EventServicesImpl} with the components it is built from, for the {@code @DataJpaTest}s that
+ * call it through its Spring proxy. Tests import what they exercise beyond it themselves.
+ */
+@TestConfiguration
+@Import({EventServicesImpl.class, EventCostEngine.class, EventDescriptionCache.class, CostReconciler.class,
+        DatabaseLease.class, EventIntervalIndex.class, ScheduleConflictDetector.class, ParticipantWriteBehind.class,
+        EventWriteGuard.class})
+class EventServicesSlice {
+}
@@ -0,0 +1,47 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.eventsproject.config.IdSequenceMigration;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(IdSequenceMigration.class)
+class IdSequenceMigrationTest {
+
+    @Autowired
+    private IdSequenceMigration idSequenceMigration;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSequenceMovesAboveRowsInsertedWithIdentity() {
+        // Arrange: rows written before the switch to sequences
+        for (int id = 1; id <= 75; id++) {
+            jdbcTemplate.update("insert into participant (id_part, nom, prenom, tache) values (?, ?, ?, ?)",
+                    id, "Nom" + id, "Prenom" + id, "INVITE");
+        }
+
+        // Act
+        idSequenceMigration.alignSequences();
+        Participant participant = new Participant();
+        participant.setNom("After");
+        participant = participantRepository.saveAndFlush(participant);
+
+        // Assert
+        assertTrue(participant.getIdPart() > 75);
+        assertEquals(76, participantRepository.count());
+    }
+}
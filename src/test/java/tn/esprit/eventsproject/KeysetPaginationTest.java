@@ -0,0 +1,94 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the keyset queries page by page, with several events per start date, and checks that every
+ * row comes back exactly once and in order.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+class KeysetPaginationTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Test
+    void testFindBetweenAfter_WalksDateOrder() {
+        // Arrange: three events a day, saved in reverse date order
+        List<Event> saved = eventRepository.saveAllAndFlush(IntStream.range(0, 15)
+                .mapToObj(i -> event("Event " + i, START.plusDays(4 - i / 3)))
+                .collect(Collectors.toList()));
+        LocalDate from = START.plusDays(1);
+        LocalDate to = START.plusDays(3);
+        List<Integer> expected = saved.stream()
+                .filter(e -> !e.getDateDebut().isBefore(from) && !e.getDateDebut().isAfter(to))
+                .sorted(Comparator.comparing(Event::getDateDebut).thenComparing(Event::getIdEvent))
+                .map(Event::getIdEvent)
+                .collect(Collectors.toList());
+
+        // Act
+        List<Integer> walked = new ArrayList<>();
+        LocalDate afterDate = from;
+        int afterId = 0;
+        List<Event> page;
+        do {
+            page = eventRepository.findBetweenAfter(from, to, afterDate, afterId, PageRequest.of(0, 2));
+            page.forEach(e -> walked.add(e.getIdEvent()));
+            if (!page.isEmpty()) {
+                afterDate = page.get(page.size() - 1).getDateDebut();
+                afterId = page.get(page.size() - 1).getIdEvent();
+            }
+        } while (page.size() == 2);
+
+        // Assert
+        assertEquals(9, expected.size());
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void testFindByTacheAfter_OnlyThatTask() {
+        // Arrange
+        List<Participant> saved = participantRepository.saveAllAndFlush(IntStream.range(0, 10)
+                .mapToObj(i -> new Participant(0, "Nom" + i, "Prenom" + i, i % 3 == 0 ? Tache.ORGANISATEUR : Tache.INVITE, null))
+                .collect(Collectors.toList()));
+        int secondOrganiser = saved.get(3).getIdPart();
+
+        // Act
+        List<Participant> page = participantRepository.findByTacheAfter(Tache.ORGANISATEUR, secondOrganiser - 1, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(saved.get(3).getIdPart(), saved.get(6).getIdPart(), saved.get(9).getIdPart()),
+                page.stream().map(Participant::getIdPart).collect(Collectors.toList()));
+    }
+
+    private static Event event(String description, LocalDate day) {
+        Event event = new Event();
+        event.setDescription(description);
+        event.setDateDebut(day);
+        return event;
+    }
+}
@@ -0,0 +1,71 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.dto.CursorPage;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.controllers.ListingRestController;
+import tn.esprit.eventsproject.services.ListingService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ListingRestController.class)
+ class ListingRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ListingService listingService;
+
+    @Test
+     void testGetLogistiquesDatesPage_Success() throws Exception {
+        // Arrange
+        Logistics logistics = new Logistics();
+        logistics.setIdLog(7);
+        logistics.setDescription("Logistics 7");
+        logistics.setReserve(true);
+
+        Mockito.when(listingService.getLogisticsDatesPage(any(LocalDate.class), any(LocalDate.class), eq("Nw"), eq(1)))
+                .thenReturn(new CursorPage<>(List.of(logistics), CursorPage.encodeCursor(7)));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/getLogs/{d1}/{d2}/page", "2024-01-01", "2024-01-31")
+                        .param("cursor", "Nw")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].idLog").value(7))
+                .andExpect(jsonPath("$.nextCursor").value(CursorPage.encodeCursor(7)));
+    }
+
+    @Test
+     void testGetParticipantsPage() throws Exception {
+        // Arrange
+        Mockito.when(listingService.getParticipantsPage(Tache.INVITE, "Mw", 2))
+                .thenReturn(new CursorPage<>(List.of(new Participant(4, "Doe", "John", Tache.INVITE, null)), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/participants")
+                        .param("tache", "INVITE")
+                        .param("cursor", "Mw")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].idPart").value(4))
+                .andExpect(jsonPath("$.items[0].events").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import tn.esprit.eventsproject.dto.CursorPage;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.ListingService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+ class ListingServiceTest {
+
+   @Mock
+   private EventRepository eventRepository;
+
+   @Mock
+   private ParticipantRepository participantRepository;
+
+   @Mock
+   private LogisticsRepository logisticsRepository;
+
+   @InjectMocks
+   private ListingService listingService;
+
+   @BeforeEach
+   public void setUp() {
+     MockitoAnnotations.openMocks(this);
+   }
+
+   // Test for getLogisticsDatesPage
+   @Test
+    void testGetLogisticsDatesPage() {
+      // Arrange
+      LocalDate startDate = LocalDate.of(2024, 1, 1);
+      LocalDate endDate = LocalDate.of(2024, 1, 31);
+      List<Logistics> rows = List.of(new Logistics(11, "A", true, 1f, 1),
+              new Logistics(12, "B", true, 1f, 1),
+              new Logistics(13, "C", true, 1f, 1));
+      when(logisticsRepository.findReservedBetweenAfter(startDate, endDate, 10, PageRequest.of(0, 3)))
+              .thenReturn(rows);
+
+      // Act
+      CursorPage<Logistics> page = listingService.getLogisticsDatesPage(startDate, endDate, CursorPage.encodeCursor(10), 2);
+
+      // Assert
+      assertEquals(2, page.getItems().size());
+      assertEquals(12, CursorPage.decodeCursor(page.getNextCursor()));
+   }
+
+   // Test for getLogisticsDatesPage on the last page
+   @Test
+    void testGetLogisticsDatesPage_LastPage() {
+      // Arrange
+      LocalDate startDate = LocalDate.of(2024, 1, 1);
+      LocalDate endDate = LocalDate.of(2024, 1, 31);
+      when(logisticsRepository.findReservedBetweenAfter(startDate, endDate, 0, PageRequest.of(0, 3)))
+              .thenReturn(List.of(new Logistics(1, "A", true, 1f, 1)));
+
+      // Act
+      CursorPage<Logistics> page = listingService.getLogisticsDatesPage(startDate, endDate, null, 2);
+
+      // Assert
+      assertEquals(1, page.getItems().size());
+      assertNull(page.getNextCursor());
+   }
+
+   // Test for getEventsPage with a date range: the cursor carries the last date and id
+   @Test
+    void testGetEventsPage_ByDate() {
+      // Arrange
+      LocalDate startDate = LocalDate.of(2024, 1, 1);
+      LocalDate endDate = LocalDate.of(2024, 1, 31);
+      Event first = new Event();
+      first.setIdEvent(9);
+      first.setDateDebut(LocalDate.of(2024, 1, 5));
+      Event second = new Event();
+      second.setIdEvent(4);
+      second.setDateDebut(LocalDate.of(2024, 1, 6));
+      when(eventRepository.findBetweenAfter(startDate, endDate, LocalDate.of(2024, 1, 5), 3, PageRequest.of(0, 2)))
+              .thenReturn(List.of(first, second));
+
+      // Act
+      CursorPage<Event> page = listingService.getEventsPage(startDate, endDate,
+              CursorPage.encodeCursor(LocalDate.of(2024, 1, 5), 3), 1);
+
+      // Assert
+      assertEquals(List.of(first), page.getItems());
+      assertEquals(new CursorPage.DateKey(LocalDate.of(2024, 1, 5), 9), CursorPage.decodeDateCursor(page.getNextCursor()));
+   }
+
+   // Test for getEventsPage with only one end of the date range
+   @Test
+    void testGetEventsPage_OneDateOnly() {
+      // Act & Assert
+      assertThrows(IllegalArgumentException.class,
+              () -> listingService.getEventsPage(LocalDate.of(2024, 1, 1), null, null, 10));
+      verifyNoInteractions(eventRepository);
+   }
+
+   // Test for getParticipantsPage filtered on a task
+   @Test
+    void testGetParticipantsPage_ByTache() {
+      // Arrange
+      when(participantRepository.findByTacheAfter(Tache.INVITE, 0, PageRequest.of(0, 11)))
+              .thenReturn(List.of(new Participant(3, "Doe", "John", Tache.INVITE, null)));
+
+      // Act
+      CursorPage<Participant> page = listingService.getParticipantsPage(Tache.INVITE, null, 10);
+
+      // Assert
+      assertEquals(1, page.getItems().size());
+      assertNull(page.getNextCursor());
+      verify(participantRepository, never()).findAfter(anyInt(), any());
+   }
+}
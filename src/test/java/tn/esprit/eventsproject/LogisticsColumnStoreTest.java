@@ -0,0 +1,109 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.dto.LogisticsCost;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.services.LogisticsColumnStore;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LogisticsColumnStoreTest {
+
+    private static final LocalDate DAY_ZERO = LocalDate.of(2024, 1, 1);
+
+    private EventRepository eventRepository;
+    private LogisticsRepository logisticsRepository;
+    private LogisticsColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        logisticsRepository = mock(LogisticsRepository.class);
+        store = new LogisticsColumnStore(logisticsRepository, eventRepository,
+                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRebuildAggregates() {
+        // Arrange: event 2 has no start date
+        when(eventRepository.streamDates()).thenReturn(Stream.of(new EventDates(1, DAY_ZERO, null)));
+        when(logisticsRepository.streamCosts()).thenReturn(Stream.of(
+                new LogisticsCost(1, 10, true, 2.5f, 4),
+                new LogisticsCost(1, 11, false, 3f, 1),
+                new LogisticsCost(2, 12, true, 1f, 7)));
+
+        // Act
+        store.rebuild();
+
+        // Assert
+        assertTrue(store.isLoaded());
+        assertEquals(3, store.size());
+        assertEquals(10, store.costOfEvent(1));
+        double[] perEvent = new double[store.maxEventId() + 1];
+        store.costPerEvent(perEvent);
+        assertArrayEquals(new double[]{0, 10, 7}, perEvent);
+        double[] perState = new double[2];
+        store.costPerReserveState(perState);
+        assertArrayEquals(new double[]{3, 17}, perState);
+        double[] buckets = new double[2];
+        store.costPerDateBucket(DAY_ZERO.minusDays(7), DAY_ZERO.plusDays(6), 7, true, buckets);
+        assertArrayEquals(new double[]{0, 10}, buckets);
+        assertThrows(IllegalArgumentException.class, () -> store.costPerEvent(new double[2]));
+    }
+
+    @Test
+    void testChangesMatchBruteForce() {
+        // Arrange: enough rows and event IDs to grow every column several times
+        when(eventRepository.streamDates()).thenReturn(Stream.empty());
+        when(logisticsRepository.streamCosts()).thenReturn(Stream.empty());
+        store.rebuild();
+        Random random = new Random(5);
+        int events = 3_000;
+        int[] startDays = new int[events];
+        double[] reservedPerEvent = new double[events];
+        double[] unreservedPerEvent = new double[events];
+        for (int idEvent = 1; idEvent < events; idEvent++) {
+            startDays[idEvent] = random.nextInt(60);
+            store.onEventChange(new EventChange(idEvent, "Event " + idEvent, DAY_ZERO.plusDays(startDays[idEvent]), null));
+        }
+        for (int idLog = 1; idLog <= 20_000; idLog++) {
+            int idEvent = 1 + random.nextInt(events - 1);
+            boolean reserve = random.nextBoolean();
+            float prixUnit = random.nextInt(1_000) / 4f;
+            int quantite = random.nextInt(20);
+            store.onLogisticsChange(new LogisticsChange(idEvent, idLog, reserve, prixUnit, quantite));
+            (reserve ? reservedPerEvent : unreservedPerEvent)[idEvent] += (double) prixUnit * quantite;
+        }
+        // A change replayed for a row already held is ignored
+        store.onLogisticsChange(new LogisticsChange(1, 1, true, 1_000f, 1_000));
+
+        // Act
+        double[] perEvent = new double[store.maxEventId() + 1];
+        store.costPerEvent(perEvent);
+        double[] buckets = new double[6];
+        store.costPerDateBucket(DAY_ZERO, DAY_ZERO.plusDays(59), 10, false, buckets);
+
+        // Assert
+        assertEquals(20_000, store.size());
+        double[] expectedBuckets = new double[6];
+        for (int idEvent = 1; idEvent < events; idEvent++) {
+            assertEquals(reservedPerEvent[idEvent], perEvent[idEvent], 1e-6);
+            expectedBuckets[startDays[idEvent] / 10] += unreservedPerEvent[idEvent];
+        }
+        assertArrayEquals(expectedBuckets, buckets, 1e-6);
+        assertEquals(reservedPerEvent[42], store.costOfEvent(42), 1e-6);
+        assertTrue(store.offHeapBytes() >= 12L * 20_000);
+    }
+}
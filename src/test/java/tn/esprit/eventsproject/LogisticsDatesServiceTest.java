@@ -0,0 +1,43 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import tn.esprit.eventsproject.services.LogisticsDatesService;
+import tn.esprit.eventsproject.services.RangeVersions;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+ class LogisticsDatesServiceTest {
+
+   @Mock
+   private RangeVersions rangeVersions;
+
+   @InjectMocks
+   private LogisticsDatesService logisticsDatesService;
+
+   @BeforeEach
+   public void setUp() {
+     MockitoAnnotations.openMocks(this);
+   }
+
+   // Test for awaitLogisticsDatesChange with a timeout out of range
+   @Test
+    void testAwaitLogisticsDatesChange_InvalidTimeout() {
+      // Arrange
+      LocalDate day = LocalDate.of(2024, 1, 1);
+
+      // Act & Assert
+      assertThrows(IllegalArgumentException.class,
+              () -> logisticsDatesService.awaitLogisticsDatesChange(day, day, "v-1", Duration.ZERO));
+      assertThrows(IllegalArgumentException.class,
+              () -> logisticsDatesService.awaitLogisticsDatesChange(day, day, "v-1", Duration.ofMinutes(3)));
+      verifyNoInteractions(rangeVersions);
+   }
+}
@@ -0,0 +1,141 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.changes.ParticipationChange;
+import tn.esprit.eventsproject.dto.Membership;
+import tn.esprit.eventsproject.dto.MembershipFootprint;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.MembershipIndex;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MembershipIndexTest {
+
+    private ParticipantRepository participantRepository;
+    private MembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        participantRepository = mock(ParticipantRepository.class);
+        index = new MembershipIndex(participantRepository, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testFallsBackToDatabaseUntilLoaded() {
+        // Arrange
+        when(participantRepository.findSharedEventIds(Set.of(1, 2), 2)).thenReturn(List.of(5, 8));
+        when(participantRepository.findIdsAlreadyInEvent(5, Set.of(1))).thenReturn(Set.of(1));
+
+        // Act & Assert
+        assertFalse(index.isLoaded());
+        assertArrayEquals(new int[]{5, 8}, index.findSharedEvents(Set.of(1, 2)));
+        assertTrue(index.isMember(1, 5));
+    }
+
+    @Test
+    void testRebuildAnswersFromBitmaps() {
+        // Arrange: participant 3 has no event yet
+        when(participantRepository.streamMemberships()).thenReturn(Stream.of(
+                new Membership(1, Tache.ORGANISATEUR, 10),
+                new Membership(1, Tache.ORGANISATEUR, 20),
+                new Membership(2, Tache.ORGANISATEUR, 20),
+                new Membership(2, Tache.ORGANISATEUR, 30),
+                new Membership(3, Tache.SERVEUR, null),
+                new Membership(4, Tache.INVITE, 20)));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertArrayEquals(new int[]{20}, index.findSharedEvents(List.of(1, 2)));
+        assertArrayEquals(new int[0], index.findSharedEvents(List.of(1, 3)));
+        assertEquals(2, index.countSharedEvents(List.of(2)));
+        assertTrue(index.isMember(4, 20));
+        assertFalse(index.isMember(4, 10));
+        assertArrayEquals(new int[]{1, 2}, index.findParticipants(20, Tache.ORGANISATEUR));
+        assertArrayEquals(new int[0], index.findParticipants(20, Tache.SERVEUR));
+        verify(participantRepository, never()).findSharedEventIds(any(), anyLong());
+        verify(participantRepository, never()).findIdsAlreadyInEvent(anyInt(), any());
+    }
+
+    @Test
+    void testChangesMatchBruteForce() {
+        // Arrange
+        when(participantRepository.streamMemberships()).thenReturn(Stream.empty());
+        index.rebuild();
+        Random random = new Random(13);
+        Map<Integer, Set<Integer>> expected = new HashMap<>();
+        Map<Integer, Tache> taches = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            int idPart = random.nextInt(300);
+            if (random.nextInt(5) == 0) {
+                // A saved participant replaces its whole event set
+                Tache tache = Tache.values()[random.nextInt(Tache.values().length)];
+                Set<Integer> events = new HashSet<>();
+                for (int e = random.nextInt(4); e > 0; e--) {
+                    events.add(random.nextInt(200));
+                }
+                index.onParticipantChange(new ParticipantChange(idPart, "Nom", "Prenom", tache, events));
+                expected.put(idPart, new HashSet<>(events));
+                taches.put(idPart, tache);
+            } else {
+                int idEvent = random.nextInt(200);
+                index.onParticipationChange(new ParticipationChange(idEvent, Set.of(idPart)));
+                expected.computeIfAbsent(idPart, id -> new HashSet<>()).add(idEvent);
+            }
+        }
+
+        // Act & Assert
+        for (int q = 0; q < 300; q++) {
+            int first = random.nextInt(300);
+            int second = random.nextInt(300);
+            Set<Integer> bruteForce = new TreeSet<>(expected.getOrDefault(first, Set.of()));
+            bruteForce.retainAll(expected.getOrDefault(second, Set.of()));
+            int[] shared = index.findSharedEvents(List.of(first, second));
+            assertArrayEquals(bruteForce.stream().mapToInt(Integer::intValue).toArray(), shared);
+
+            int idEvent = random.nextInt(200);
+            Tache tache = Tache.values()[random.nextInt(Tache.values().length)];
+            int[] participants = expected.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(idEvent) && taches.get(entry.getKey()) == tache)
+                    .mapToInt(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            assertArrayEquals(participants, index.findParticipants(idEvent, tache));
+        }
+    }
+
+    @Test
+    void testFootprintCountsLinks() {
+        // Arrange
+        List<Membership> memberships = new ArrayList<>();
+        for (int idPart = 1; idPart <= 1_000; idPart++) {
+            for (int idEvent = idPart; idEvent < idPart + 10; idEvent++) {
+                memberships.add(new Membership(idPart, Tache.INVITE, idEvent));
+            }
+        }
+        when(participantRepository.streamMemberships()).thenReturn(memberships.stream());
+        index.rebuild();
+
+        // Act
+        MembershipFootprint footprint = index.footprint();
+
+        // Assert
+        assertTrue(footprint.isLoaded());
+        assertEquals(1_000, footprint.getParticipants());
+        assertEquals(1_009, footprint.getEvents());
+        assertEquals(10_000, footprint.getLinks());
+        assertTrue(footprint.getHeapBytes() > 0);
+        assertTrue(footprint.getSerializedBytes() > 0);
+    }
+}
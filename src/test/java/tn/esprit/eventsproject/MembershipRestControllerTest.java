@@ -0,0 +1,49 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.controllers.MembershipRestController;
+import tn.esprit.eventsproject.services.MembershipService;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MembershipRestController.class)
+ class MembershipRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MembershipService membershipService;
+
+    @Test
+     void testGetSharedEvents() throws Exception {
+        // Arrange
+        Mockito.when(membershipService.getSharedEvents(List.of(1, 2))).thenReturn(new int[]{11, 14});
+
+        // Act & Assert
+        mockMvc.perform(get("/event/shared").param("participants", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1]").value(14));
+    }
+
+    @Test
+     void testIsParticipating() throws Exception {
+        // Arrange
+        Mockito.when(membershipService.isParticipating(3, 7)).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(get("/event/{id}/participants/{idPart}", 7, 3))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+}
@@ -0,0 +1,68 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.dto.Membership;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.MembershipIndex;
+import tn.esprit.eventsproject.services.MembershipService;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+ class MembershipServiceTest {
+
+   @Mock
+   private ParticipantRepository participantRepository;
+
+   private MembershipIndex membershipIndex;
+
+   private MembershipService membershipService;
+
+   @BeforeEach
+   public void setUp() {
+     MockitoAnnotations.openMocks(this);
+     membershipIndex = new MembershipIndex(participantRepository, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+     membershipService = new MembershipService(membershipIndex);
+   }
+
+   // Test for getSharedEvents once the membership index is loaded
+   @Test
+    void testGetSharedEvents_FromIndex() {
+      // Arrange
+      when(participantRepository.streamMemberships()).thenReturn(Stream.of(
+              new Membership(1, Tache.ORGANISATEUR, 10),
+              new Membership(1, Tache.ORGANISATEUR, 11),
+              new Membership(2, Tache.ORGANISATEUR, 11),
+              new Membership(2, Tache.ORGANISATEUR, 12)));
+      membershipIndex.rebuild();
+
+      // Act
+      int[] result = membershipService.getSharedEvents(List.of(1, 2, 2));
+
+      // Assert
+      assertArrayEquals(new int[]{11}, result);
+      assertEquals(1, membershipService.countSharedEvents(List.of(2, 1)));
+      verify(participantRepository, never()).findSharedEventIds(any(), anyLong());
+   }
+
+   // Test for getSharedEvents without any participant
+   @Test
+    void testGetSharedEvents_RequiresParticipants() {
+      // Act
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+              () -> membershipService.getSharedEvents(List.of()));
+
+      // Assert
+      assertEquals("Between 1 and 1000 participant IDs are required", exception.getMessage());
+      verifyNoInteractions(participantRepository);
+   }
+}
@@ -0,0 +1,195 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.dto.RegistrationStatus;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.ParticipantWriteBehind;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ParticipantWriteBehindTest {
+
+    private ParticipantRepository participantRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private ParticipantWriteBehind writeBehind;
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        participantRepository = mock(ParticipantRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(participantRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Participant> participants = invocation.getArgument(0);
+            participants.forEach(participant -> participant.setIdPart(nextId.incrementAndGet()));
+            return new ArrayList<>(participants);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.shutdown();
+    }
+
+    private ParticipantWriteBehind start(int batchSize, Duration flushInterval, int capacity) {
+        return start(batchSize, flushInterval, capacity, Duration.ofSeconds(5));
+    }
+
+    private ParticipantWriteBehind start(int batchSize, Duration flushInterval, int capacity, Duration ackTimeout) {
+        writeBehind = new ParticipantWriteBehind(participantRepository, eventPublisher, TransactionOperations.withoutTransaction(),
+                meterRegistry, true, batchSize, flushInterval, capacity, ackTimeout, Duration.ofMinutes(1));
+        return writeBehind;
+    }
+
+    private static Participant participant(String nom) {
+        Participant participant = new Participant();
+        participant.setNom(nom);
+        return participant;
+    }
+
+    @Test
+    void testFlushesWhenBatchIsFull() throws Exception {
+        // Arrange: the interval alone would never trigger a flush during the test
+        start(5, Duration.ofMinutes(1), 100);
+        List<ParticipantWriteBehind.Registration> registrations = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            registrations.add(writeBehind.submit(participant("P" + i)));
+        }
+
+        // Assert
+        for (ParticipantWriteBehind.Registration registration : registrations) {
+            assertTrue(registration.getResult().get(5, TimeUnit.SECONDS).getIdPart() > 0);
+        }
+        verify(participantRepository, times(2)).saveAll(argThat(batch -> ((List<?>) batch).size() == 5));
+        verify(eventPublisher, times(10)).publishEvent(any(ParticipantChange.class));
+    }
+
+    @Test
+    void testFlushesAfterInterval() {
+        // Arrange
+        start(100, Duration.ofMillis(20), 100);
+
+        // Act
+        Participant saved = writeBehind.submitAndWait(participant("Solo"));
+
+        // Assert
+        assertEquals(1, saved.getIdPart());
+        verify(participantRepository).saveAll(argThat(batch -> ((List<?>) batch).size() == 1));
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        // Arrange: the writer is stuck in its first batch
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(participantRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ArrayList<>(invocation.<List<Participant>>getArgument(0));
+        });
+        start(1, Duration.ofMillis(5), 2);
+        writeBehind.submit(participant("Writing"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        writeBehind.submit(participant("Queued 1"));
+        writeBehind.submit(participant("Queued 2"));
+
+        // Assert
+        assertThrows(RejectedExecutionException.class, () -> writeBehind.submit(participant("Rejected")));
+        assertEquals(1, meterRegistry.counter("events.registration.rejected").count());
+        release.countDown();
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOneByOne() throws Exception {
+        // Arrange
+        when(participantRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(participantRepository.save(any(Participant.class))).thenAnswer(invocation -> {
+            Participant participant = invocation.getArgument(0);
+            if ("Bad".equals(participant.getNom())) {
+                throw new IllegalArgumentException("Nom rejected");
+            }
+            participant.setIdPart(nextId.incrementAndGet());
+            return participant;
+        });
+        start(2, Duration.ofMinutes(1), 10);
+
+        // Act
+        ParticipantWriteBehind.Registration good = writeBehind.submit(participant("Good"));
+        ParticipantWriteBehind.Registration bad = writeBehind.submit(participant("Bad"));
+
+        // Assert
+        assertEquals("Good", good.getResult().get(5, TimeUnit.SECONDS).getNom());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals("Nom rejected", failure.getCause().getMessage());
+        RegistrationStatus status = writeBehind.status(bad.getTicket()).orElseThrow();
+        assertEquals(RegistrationStatus.State.FAILED, status.getState());
+        assertEquals(RegistrationStatus.State.COMMITTED, writeBehind.status(good.getTicket()).orElseThrow().getState());
+    }
+
+    @Test
+    void testAckTimeout_LeavesTheRegistrationPending() {
+        // Arrange: nothing is flushed before the caller gives up
+        start(100, Duration.ofMinutes(1), 10, Duration.ofMillis(50));
+
+        // Act
+        ParticipantWriteBehind.PendingRegistrationException pending = assertThrows(
+                ParticipantWriteBehind.PendingRegistrationException.class,
+                () -> writeBehind.submitAndWait(participant("Slow")));
+
+        // Assert: still queued, and written by the final flush
+        assertEquals(RegistrationStatus.State.PENDING, pending.getStatus().getState());
+        writeBehind.shutdown();
+        assertEquals(RegistrationStatus.State.COMMITTED, writeBehind.status(pending.getStatus().getTicket()).orElseThrow().getState());
+    }
+
+    @Test
+    void testInterruptedWait_WithdrawsTheRegistration() {
+        // Arrange
+        start(100, Duration.ofMinutes(1), 10);
+        Thread.currentThread().interrupt();
+
+        // Act
+        try {
+            assertThrows(RejectedExecutionException.class, () -> writeBehind.submitAndWait(participant("Gone")));
+        } finally {
+            Thread.interrupted();
+        }
+        writeBehind.shutdown();
+
+        // Assert: never written, so a retry cannot register it twice
+        verify(participantRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testRejectsOnceStopped() {
+        // Arrange
+        start(100, Duration.ofMillis(20), 10);
+        writeBehind.shutdown();
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> writeBehind.submitAndWait(participant("Late")));
+    }
+}
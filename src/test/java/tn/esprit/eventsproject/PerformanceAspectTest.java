@@ -0,0 +1,63 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import tn.esprit.eventsproject.config.PerformanceAspect;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.EventServicesImpl;
+import tn.esprit.eventsproject.services.IEventServices;
+import tn.esprit.eventsproject.services.ParticipantWriteBehind;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PerformanceAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ParticipantRepository participantRepository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        participantRepository = mock(ParticipantRepository.class);
+        when(participantRepository.save(any(Participant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private IEventServices proxy(double sampleRate) {
+        EventServicesImpl target = new EventServicesImpl(null, participantRepository, null, null, null,
+                mock(ApplicationEventPublisher.class), null, null, null, mock(ParticipantWriteBehind.class), null);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new PerformanceAspect(meterRegistry, sampleRate));
+        return factory.getProxy();
+    }
+
+    @Test
+    void testRecordsLatencyPerMethod() {
+        IEventServices services = proxy(1.0);
+
+        services.addParticipant(new Participant());
+        services.addParticipant(new Participant());
+
+        assertEquals(2, meterRegistry.get("events.service.method")
+                .tag("class", "EventServicesImpl").tag("method", "addParticipant").timer().count());
+        assertEquals(0, meterRegistry.get("events.service.errors")
+                .tag("method", "addParticipant").counter().count());
+    }
+
+    @Test
+    void testCountsErrorsEvenWhenNotSampled() {
+        IEventServices services = proxy(0.0);
+
+        assertThrows(NullPointerException.class, () -> services.addParticipant(null));
+
+        assertEquals(1, meterRegistry.get("events.service.errors")
+                .tag("method", "addParticipant").counter().count());
+        assertEquals(0, meterRegistry.get("events.service.method")
+                .tag("method", "addParticipant").timer().count());
+    }
+}
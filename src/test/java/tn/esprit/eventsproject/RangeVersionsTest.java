@@ -0,0 +1,173 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.dto.EventDates;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.RangeVersions;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RangeVersionsTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(2024, 1, 31);
+    private static final LocalDate MAR_1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate MAR_31 = LocalDate.of(2024, 3, 31);
+
+    private EventRepository eventRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private RangeVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        versions = new RangeVersions(eventRepository, TransactionOperations.withoutTransaction(), meterRegistry, 1);
+        // Event 1 in January, event 2 from January to March
+        when(eventRepository.streamDates()).thenReturn(Stream.of(
+                new EventDates(1, LocalDate.of(2024, 1, 10), null),
+                new EventDates(2, LocalDate.of(2024, 1, 20), LocalDate.of(2024, 3, 5))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        versions.shutdown();
+    }
+
+    @Test
+    void testNoVersionUntilLoaded() throws Exception {
+        // Act & Assert
+        assertNull(versions.version(JAN_1, JAN_31));
+        assertNull(versions.awaitChange(JAN_1, JAN_31, "any", Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testWritesBumpOnlyTheMonthsTheirEventCovers() {
+        // Arrange
+        versions.rebuild();
+        String january = versions.version(JAN_1, JAN_31);
+        String march = versions.version(MAR_1, MAR_31);
+
+        // Act: logistics of the January event, then a new event dated in May
+        versions.onLogisticsChange(new LogisticsChange(1, 10, true, 5f, 2));
+        versions.onEventChange(new EventChange(3, "May", LocalDate.of(2024, 5, 2), null));
+
+        // Assert
+        assertNotEquals(january, versions.version(JAN_1, JAN_31));
+        assertEquals(march, versions.version(MAR_1, MAR_31));
+        january = versions.version(JAN_1, JAN_31);
+
+        // Act: logistics of the event running into March, of an undated event
+        versions.onLogisticsChange(new LogisticsChange(2, 11, true, 5f, 2));
+        String afterLogistics = versions.version(MAR_1, MAR_31);
+        versions.onLogisticsChange(new LogisticsChange(99, 12, true, 5f, 2));
+
+        // Assert
+        assertNotEquals(january, versions.version(JAN_1, JAN_31));
+        assertNotEquals(march, afterLogistics);
+        assertEquals(afterLogistics, versions.version(MAR_1, MAR_31));
+    }
+
+    @Test
+    void testDateMoveBumpsTheOldAndNewMonths() {
+        // Arrange
+        versions.rebuild();
+        String january = versions.version(JAN_1, JAN_31);
+        String march = versions.version(MAR_1, MAR_31);
+
+        // Act: event 1 moves from January to March
+        versions.onEventChange(new EventChange(1, "Moved", LocalDate.of(2024, 3, 15), null));
+
+        // Assert
+        assertNotEquals(january, versions.version(JAN_1, JAN_31));
+        assertNotEquals(march, versions.version(MAR_1, MAR_31));
+    }
+
+    @Test
+    void testOpenEndedEvent_BumpsItsWholeSpanCheaply() {
+        // Arrange: an event dated until the end of time
+        versions.rebuild();
+        versions.onEventChange(new EventChange(3, "Forever", MAR_1, LocalDate.of(9999, 12, 31)));
+        String before = versions.version(JAN_1, JAN_31);
+        String nextYear = versions.version(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+        String farFuture = versions.version(LocalDate.of(9000, 1, 1), LocalDate.of(9000, 1, 31));
+
+        // Act: every write bumped ~95,000 months before the span was bounded
+        assertTimeout(Duration.ofSeconds(2), () -> {
+            for (int i = 0; i < 1000; i++) {
+                versions.onLogisticsChange(new LogisticsChange(3, i, true, 1f, 1));
+            }
+        });
+
+        // Assert
+        assertEquals(before, versions.version(JAN_1, JAN_31));
+        assertNotEquals(nextYear, versions.version(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)));
+        assertNotEquals(farFuture, versions.version(LocalDate.of(9000, 1, 1), LocalDate.of(9000, 1, 31)));
+    }
+
+    @Test
+    void testAwaitChange_CompletesOnChangeOrTimeout() throws Exception {
+        // Arrange
+        versions.rebuild();
+        String january = versions.version(JAN_1, JAN_31);
+        String march = versions.version(MAR_1, MAR_31);
+        CompletableFuture<String> januaryPoll = versions.awaitChange(JAN_1, JAN_31, january, Duration.ofSeconds(30));
+        CompletableFuture<String> marchPoll = versions.awaitChange(MAR_1, MAR_31, march, Duration.ofMillis(100));
+
+        // Act
+        versions.onLogisticsChange(new LogisticsChange(1, 10, true, 5f, 2));
+
+        // Assert: the January poll gets the new version, the March one times out with the version it had
+        assertEquals(versions.version(JAN_1, JAN_31), januaryPoll.get(5, TimeUnit.SECONDS));
+        assertEquals(march, marchPoll.get(5, TimeUnit.SECONDS));
+        // A poll with an outdated version gets the current one at once
+        assertEquals(versions.version(JAN_1, JAN_31),
+                versions.awaitChange(JAN_1, JAN_31, "stale", Duration.ofSeconds(30)).getNow(null));
+        assertEquals(0,meterRegistry.get("events.logistics.poll.waiting").gauge().value());
+    }
+
+    @Test
+    void testReversedRange_HasAVersionThatNeverMoves() throws Exception {
+        // Arrange
+        versions.rebuild();
+        String reversed = versions.version(MAR_31, JAN_1);
+        CompletableFuture<String> poll = versions.awaitChange(MAR_31, JAN_1, reversed, Duration.ofMillis(100));
+
+        // Act
+        versions.onLogisticsChange(new LogisticsChange(2, 11, true, 5f, 2));
+
+        // Assert
+        assertNotNull(reversed);
+        assertEquals(reversed, versions.version(MAR_31, JAN_1));
+        assertEquals(reversed, poll.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRebuild_StartsANewEpoch() throws Exception {
+        // Arrange
+        versions.rebuild();
+        String january = versions.version(JAN_1, JAN_31);
+        CompletableFuture<String> poll = versions.awaitChange(JAN_1, JAN_31, january, Duration.ofSeconds(30));
+        when(eventRepository.streamDates()).thenReturn(Stream.empty());
+
+        // Act
+        versions.rebuild();
+
+        // Assert: versions of the previous load match nothing anymore
+        assertNotEquals(january, versions.version(JAN_1, JAN_31));
+        assertEquals(versions.version(JAN_1, JAN_31), poll.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,212 @@
+package tn.esprit.eventsproject;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.eventsproject.dto.EventCost;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.LogisticsRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares what the old EAGER entity read paths and the projection queries pull over JDBC:
+ * rows read from result sets and an estimate of the column bytes behind them.
+ */
+@Slf4j
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(ReadPathTransferTest.TransferConfig.class)
+class ReadPathTransferTest {
+
+    private static final int EVENTS = 40;
+    private static final int LOGISTICS_PER_EVENT = 24;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private LogisticsRepository logisticsRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        Participant organiser = new Participant();
+        organiser.setNom("Tounsi");
+        organiser.setPrenom("Ahmed");
+        organiser.setTache(Tache.ORGANISATEUR);
+        organiser = participantRepository.saveAndFlush(organiser);
+
+        for (int e = 0; e < EVENTS; e++) {
+            Event event = new Event();
+            event.setDescription("Event " + e);
+            event.setDateDebut(START.plusDays(e));
+            event.setDateFin(START.plusDays(e + 1));
+            Set<Logistics> logistics = new HashSet<>();
+            for (int l = 0; l < LOGISTICS_PER_EVENT; l++) {
+                logistics.add(new Logistics(0, "Logistics item " + l + " for event " + e + " (chairs, tables, sound)",
+                        l % 4 == 0, 12.5f, l + 1));
+            }
+            event.setLogistics(logistics);
+            event = eventRepository.saveAndFlush(event);
+            participantRepository.addEventToParticipants(event.getIdEvent(), List.of(organiser.getIdPart()));
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void testReservedLogisticsByDate_ProjectionTransfersLess() {
+        LocalDate end = START.plusDays(EVENTS);
+
+        Transfer<Set<Integer>> before = measure(() -> eventRepository.findByDateDebutBetween(START, end).stream()
+                .flatMap(event -> event.getLogistics().stream())
+                .filter(Logistics::isReserve)
+                .map(Logistics::getIdLog)
+                .collect(Collectors.toSet()));
+        Transfer<Set<Integer>> after = measure(() -> logisticsRepository.findReservedBetween(START, end).stream()
+                .map(Logistics::getIdLog)
+                .collect(Collectors.toSet()));
+
+        log.info("Reserved logistics by date - entity graph: {}, projection: {}", before, after);
+        assertEquals(before.result, after.result);
+        assertEquals(EVENTS * LOGISTICS_PER_EVENT / 4, after.result.size());
+        assertTrue(after.rows < before.rows);
+        assertTrue(after.bytes < before.bytes);
+    }
+
+    @Test
+    void testCostSums_ProjectionTransfersLess() {
+        Transfer<Map<Integer, Float>> before = measure(() -> eventRepository.findByParticipants_NomAndParticipants_PrenomAndParticipants_Tache(
+                        "Tounsi", "Ahmed", Tache.ORGANISATEUR).stream()
+                .collect(Collectors.toMap(Event::getIdEvent, event -> event.getLogistics().stream()
+                        .filter(Logistics::isReserve)
+                        .map(logistics -> logistics.getPrixUnit() * logistics.getQuantite())
+                        .reduce(0f, Float::sum))));
+        Transfer<Map<Integer, Float>> after = measure(() -> eventRepository.findCostsAfter(0, PageRequest.of(0, EVENTS)).stream()
+                .collect(Collectors.toMap(EventCost::getIdEvent, EventCost::getReservedCost)));
+
+        log.info("Per-event cost sums - entity graph: {}, projection: {}", before, after);
+        assertEquals(before.result, after.result);
+        assertEquals(EVENTS, after.result.size());
+        assertTrue(after.rows < before.rows);
+        assertTrue(after.bytes < before.bytes);
+    }
+
+    private <T> Transfer<T> measure(Supplier<T> readPath) {
+        TransferCounter.reset();
+        T result = readPath.get();
+        Transfer<T> transfer = new Transfer<>(result, TransferCounter.ROWS.get(), TransferCounter.BYTES.get());
+        entityManager.clear();
+        return transfer;
+    }
+
+    private static final class Transfer<T> {
+        final T result;
+        final long rows;
+        final long bytes;
+
+        Transfer(T result, long rows, long bytes) {
+            this.result = result;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String toString() {
+            return rows + " rows / " + bytes + " bytes";
+        }
+    }
+
+    static final class TransferCounter implements MethodExecutionListener {
+        static final AtomicLong ROWS = new AtomicLong();
+        static final AtomicLong BYTES = new AtomicLong();
+
+        static void reset() {
+            ROWS.set(0);
+            BYTES.set(0);
+        }
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (!(executionContext.getTarget() instanceof ResultSet)) {
+                return;
+            }
+            String method = executionContext.getMethod().getName();
+            Object value = executionContext.getResult();
+            if (method.equals("next") && Boolean.TRUE.equals(value)) {
+                ROWS.incrementAndGet();
+            } else if (method.startsWith("get") && !method.equals("getMetaData") && value != null) {
+                BYTES.addAndGet(sizeOf(value));
+            }
+        }
+
+        private static int sizeOf(Object value) {
+            if (value instanceof String) {
+                return ((String) value).getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (value instanceof Boolean || value instanceof Byte) {
+                return 1;
+            }
+            if (value instanceof Integer || value instanceof Float || value instanceof Short) {
+                return 4;
+            }
+            return 8;
+        }
+    }
+
+    @TestConfiguration
+    static class TransferConfig {
+
+        @Bean
+        static BeanPostProcessor transferCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource) {
+                        return ProxyDataSourceBuilder.create((DataSource) bean)
+                                .proxyResultSet()
+                                .methodListener(new TransferCounter())
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.eventsproject.config.DataSourceRoutingConfig;
+import tn.esprit.eventsproject.config.ReplicaRoutingDataSource;
+import tn.esprit.eventsproject.config.SecondLevelCacheConfig;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.services.IEventServices;
+import tn.esprit.eventsproject.services.LogisticsDatesService;
+import tn.esprit.eventsproject.services.RangeVersions;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the read/write routing against three in-memory H2 databases: one primary and two replicas that
+ * get the primary's schema but their own rows, so every read tells which database served it.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "events.datasource.replica-urls=" + ReplicaRoutingTest.REPLICA_1 + "," + ReplicaRoutingTest.REPLICA_2,
+        "events.datasource.replica-max-lag=5s",
+        // Checked by the tests only
+        "events.datasource.replica-check-ms=3600000"})
+@Import({DataSourceRoutingConfig.class, SecondLevelCacheConfig.class, EventServicesSlice.class, RangeVersions.class,
+        LogisticsDatesService.class, ReplicaRoutingTest.RoutingConfig.class})
+class ReplicaRoutingTest {
+
+    static final String REPLICA_1 = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:routing-replica-2;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private IEventServices eventServices;
+
+    @Autowired
+    private LogisticsDatesService logisticsDatesService;
+
+    private final JdbcTemplate replica1 = new JdbcTemplate(new DriverManagerDataSource(REPLICA_1, "sa", ""));
+    private final JdbcTemplate replica2 = new JdbcTemplate(new DriverManagerDataSource(REPLICA_2, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        // Not in a transaction: goes to the primary
+        jdbcTemplate.update("delete from event_logistics");
+        jdbcTemplate.update("delete from logistics");
+        jdbcTemplate.update("delete from event");
+        insertEvent(jdbcTemplate, "Primary");
+        List<String> schema = jdbcTemplate.queryForList("script nodata", String.class);
+        for (JdbcTemplate replica : List.of(replica1, replica2)) {
+            replica.execute("drop all objects");
+            schema.forEach(replica::execute);
+            replica.update("insert into replica_heartbeat (id, beat) values (1, ?)", Timestamp.from(Instant.now()));
+        }
+        insertEvent(replica1, "Replica 1");
+        insertEvent(replica2, "Replica 2");
+        routingDataSource.checkReplicas();
+        // Rewritten behind Hibernate's back
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testReadOnlyTransactions_RoundRobinAcrossReplicas() {
+        // Act
+        Set<String> reads = new HashSet<>();
+        reads.add(readOnly());
+        reads.add(readOnly());
+
+        // Assert
+        assertEquals(Set.of("Replica 1", "Replica 2"), reads);
+        assertEquals("Primary", readWrite());
+        assertEquals(1, meterRegistry.get("events.datasource.replica.available").tag("pool", "replica-1").gauge().value());
+    }
+
+    @Test
+    void testLaggingReplica_FallsBackToPrimary() {
+        // Arrange: replica 1 stopped applying changes a minute ago
+        replica1.update("update replica_heartbeat set beat = ?", Timestamp.from(Instant.now().minus(Duration.ofMinutes(1))));
+
+        // Act
+        routingDataSource.checkReplicas();
+        String first = readOnly();
+        String second = readOnly();
+
+        // Assert
+        assertEquals("Replica 2", first);
+        assertEquals("Replica 2", second);
+        assertEquals(0, meterRegistry.get("events.datasource.replica.available").tag("pool", "replica-1").gauge().value());
+        assertTrue(meterRegistry.get("events.datasource.replica.lag").tag("pool", "replica-1").gauge().value() > 5_000);
+
+        // Arrange: both replicas behind
+        replica2.update("update replica_heartbeat set beat = ?", Timestamp.from(Instant.now().minus(Duration.ofMinutes(1))));
+        routingDataSource.checkReplicas();
+        double fallbacks = meterRegistry.get("events.datasource.routed").tag("target", "fallback").counter().count();
+
+        // Act & Assert
+        assertEquals("Primary", readOnly());
+        assertEquals(fallbacks + 1, meterRegistry.get("events.datasource.routed").tag("target", "fallback").counter().count());
+    }
+
+    @Test
+    void testFailingReplica_LeftOutOfRotation() {
+        // Arrange: replica 2 lost its tables
+        replica2.execute("drop all objects");
+
+        // Act
+        routingDataSource.checkReplicas();
+
+        // Assert
+        assertEquals("Replica 1", readOnly());
+        assertEquals("Replica 1", readOnly());
+        assertEquals(-1, meterRegistry.get("events.datasource.replica.lag").tag("pool", "replica-2").gauge().value());
+    }
+
+    @Test
+    void testReplicaReads_NotPutInSecondLevelCache() {
+        // Arrange: a replica read of the event, then a primary read that caches it
+        readOnly(() -> eventRepository.findById(1).orElseThrow().getDescription());
+        String primary = readWrite(() -> eventRepository.findById(1).orElseThrow().getDescription());
+
+        // Act
+        String cached = readOnly(() -> eventRepository.findById(1).orElseThrow().getDescription());
+
+        // Assert: the primary read missed the cache, the replica read then got the primary's row from it
+        assertEquals("Primary", primary);
+        assertEquals("Primary", cached);
+        assertTrue(entityManagerFactory.getCache().contains(Event.class, 1));
+    }
+
+    @Test
+    void testTaggedLogisticsDates_ReadOnPrimary() {
+        // Arrange: a stage booked on the primary that the replicas, within the allowed lag, have not applied yet
+        LocalDate day = LocalDate.of(2024, 6, 1);
+        for (JdbcTemplate database : List.of(jdbcTemplate, replica1, replica2)) {
+            database.update("update event set date_debut = ?, date_fin = ? where id_event = 1", day, day);
+        }
+        jdbcTemplate.update("insert into logistics (id_log, description, reserve, prix_unit, quantite) values (7, 'Stage', true, 100, 1)");
+        jdbcTemplate.update("insert into event_logistics (event_id_event, logistics_id_log) values (1, 7)");
+
+        // Act
+        List<Logistics> replica = readOnly(() -> eventServices.getLogisticsDates(day, day));
+        List<Logistics> tagged = logisticsDatesService.getLogisticsDates(day, day, false);
+
+        // Assert: the rows that go out under an ETag include the change that moved it
+        assertTrue(replica.isEmpty());
+        assertEquals(List.of(7), tagged.stream().map(Logistics::getIdLog).collect(Collectors.toList()));
+    }
+
+    private <T> T readOnly(Supplier<T> read) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> read.get());
+    }
+
+    private <T> T readWrite(Supplier<T> read) {
+        return new TransactionTemplate(transactionManager).execute(status -> read.get());
+    }
+
+    private String readOnly() {
+        return readOnly(this::descriptions);
+    }
+
+    private String readWrite() {
+        return readWrite(this::descriptions);
+    }
+
+    private String descriptions() {
+        return eventRepository.findAll().stream().map(Event::getDescription).collect(Collectors.joining(","));
+    }
+
+    private static void insertEvent(JdbcTemplate jdbc, String description) {
+        jdbc.update("insert into event (id_event, description, cout, version) values (1, ?, 0, 0)", description);
+    }
+
+    @TestConfiguration
+    static class RoutingConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tn.esprit.eventsproject.dto.Booking;
+import tn.esprit.eventsproject.dto.ConflictReport;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.ScheduleConflictDetector;
+import tn.esprit.eventsproject.services.ScheduleSweep;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleConflictDetectorTest {
+
+    private static final LocalDate DAY_ZERO = LocalDate.of(2024, 1, 1);
+
+    private ParticipantRepository participantRepository;
+    private ScheduleConflictDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        participantRepository = mock(ParticipantRepository.class);
+        detector = new ScheduleConflictDetector(participantRepository, new SimpleMeterRegistry(),
+                new Tache[]{Tache.ORGANISATEUR, Tache.SERVEUR}, false);
+    }
+
+    @Test
+    void testReportListsOverlappingPairs() {
+        // Arrange: participant 1 has events 10 and 11 overlapping on the 3rd, event 12 is later
+        when(participantRepository.streamBookings(EnumSet.of(Tache.ORGANISATEUR, Tache.SERVEUR))).thenReturn(Stream.of(
+                new Booking(1, 10, DAY_ZERO, DAY_ZERO.plusDays(2)),
+                new Booking(1, 11, DAY_ZERO.plusDays(2), DAY_ZERO.plusDays(4)),
+                new Booking(1, 12, DAY_ZERO.plusDays(5), null),
+                new Booking(2, 10, DAY_ZERO, DAY_ZERO.plusDays(2)),
+                new Booking(2, 13, DAY_ZERO.plusDays(3), DAY_ZERO.plusDays(3))));
+
+        // Act
+        ConflictReport report = detector.report(10);
+
+        // Assert
+        assertEquals(2, report.getParticipantsChecked());
+        assertEquals(5, report.getBookingsChecked());
+        assertEquals(1, report.getConflictCount());
+        ConflictReport.Conflict conflict = report.getConflicts().get(0);
+        assertEquals(1, conflict.getIdPart());
+        assertEquals(10, conflict.getFirstEvent());
+        assertEquals(11, conflict.getSecondEvent());
+        assertEquals(DAY_ZERO.plusDays(2), conflict.getOverlapStart());
+        assertEquals(DAY_ZERO.plusDays(2), conflict.getOverlapEnd());
+    }
+
+    @Test
+    void testCheckAssignmentWithoutDatesDoesNotQuery() {
+        // Act
+        detector.checkAssignment(Set.of(1, 2), new Event());
+
+        // Assert
+        verifyNoInteractions(participantRepository);
+    }
+
+    @Test
+    void testCheckAssignmentOnlyWarnsWhenNotRejecting() {
+        // Arrange
+        Event event = new Event();
+        event.setDateDebut(DAY_ZERO);
+        when(participantRepository.findBookingsOverlapping(anyCollection(), anyCollection(), anyInt(), any(), any()))
+                .thenReturn(List.of(new Booking(1, 7, DAY_ZERO, DAY_ZERO)));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> detector.checkAssignment(Set.of(1), event));
+        verify(participantRepository).findBookingsOverlapping(Set.of(1), EnumSet.of(Tache.ORGANISATEUR, Tache.SERVEUR),
+                0, DAY_ZERO, DAY_ZERO);
+    }
+
+    @Test
+    void testSweepMatchesPairwiseComparison() {
+        // Arrange
+        Random random = new Random(3);
+        List<int[]> bookings = new ArrayList<>();
+        for (int idPart = 1; idPart <= 300; idPart++) {
+            for (int i = 0; i < 1 + random.nextInt(15); i++) {
+                int start = random.nextInt(200);
+                bookings.add(new int[]{idPart, idPart * 100 + i, start, start + random.nextInt(10)});
+            }
+        }
+        bookings.sort(Comparator.<int[]>comparingInt(b -> b[0]).thenComparingInt(b -> b[2]));
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            for (int j = i + 1; j < bookings.size() && bookings.get(j)[0] == bookings.get(i)[0]; j++) {
+                int[] a = bookings.get(i);
+                int[] b = bookings.get(j);
+                if (a[2] <= b[3] && b[2] <= a[3]) {
+                    expected.add(a[0] + ":" + Math.min(a[1], b[1]) + ":" + Math.max(a[1], b[1]));
+                }
+            }
+        }
+        Set<String> found = new HashSet<>();
+        ScheduleSweep sweep = new ScheduleSweep((idPart, first, second, from, to) -> {
+            assertTrue(from <= to);
+            assertTrue(found.add(idPart + ":" + Math.min(first, second) + ":" + Math.max(first, second)));
+        });
+
+        // Act
+        bookings.forEach(b -> sweep.add(b[0], b[1], b[2], b[3]));
+
+        // Assert
+        assertEquals(expected, found);
+        assertEquals(300, sweep.getParticipants());
+    }
+
+    @Test
+    void testSweepRejectsUnsortedInput() {
+        ScheduleSweep sweep = new ScheduleSweep((idPart, first, second, from, to) -> { });
+        sweep.add(1, 10, 5, 6);
+
+        assertThrows(IllegalArgumentException.class, () -> sweep.add(1, 11, 4, 6));
+    }
+}
@@ -0,0 +1,42 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.dto.ConflictReport;
+import tn.esprit.eventsproject.controllers.ScheduleConflictRestController;
+import tn.esprit.eventsproject.services.ScheduleConflictService;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ScheduleConflictRestController.class)
+ class ScheduleConflictRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ScheduleConflictService scheduleConflictService;
+
+    @Test
+     void testGetScheduleConflicts() throws Exception {
+        // Arrange
+        ConflictReport report = new ConflictReport(10);
+        report.addConflict(1, 10, 11, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3));
+        report.record(1, 2);
+        Mockito.when(scheduleConflictService.getScheduleConflicts(10)).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(get("/event/conflicts").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conflictCount").value(1))
+                .andExpect(jsonPath("$.conflicts[0].idPart").value(1))
+                .andExpect(jsonPath("$.conflicts[0].secondEvent").value(11));
+    }
+}
@@ -0,0 +1,146 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import tn.esprit.eventsproject.changes.EventChange;
+import tn.esprit.eventsproject.changes.ParticipantChange;
+import tn.esprit.eventsproject.dto.SearchDocument;
+import tn.esprit.eventsproject.dto.SearchResult;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.SearchIndex;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchIndexTest {
+
+    private EventRepository eventRepository;
+    private ParticipantRepository participantRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        participantRepository = mock(ParticipantRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new SearchIndex(eventRepository, participantRepository, TransactionOperations.withoutTransaction(),
+                meterRegistry);
+        when(eventRepository.streamDescriptions()).thenReturn(Stream.empty());
+        when(participantRepository.streamNames()).thenReturn(Stream.empty());
+    }
+
+    @Test
+    void testEmptyUntilLoaded() {
+        // Act
+        SearchResult result = index.searchEvents("gala", 10);
+
+        // Assert
+        assertFalse(result.isLoaded());
+        assertTrue(result.getHits().isEmpty());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testRebuild_ExactThenPrefixThenTypos() {
+        // Arrange
+        when(eventRepository.streamDescriptions()).thenReturn(Stream.of(
+                new SearchDocument(1, "Galaxy tour"),
+                new SearchDocument(2, "Charity Gala"),
+                new SearchDocument(3, "Gala de fin d'année"),
+                new SearchDocument(4, "Gaal night"),
+                new SearchDocument(5, "Workshop")));
+
+        // Act
+        index.rebuild();
+        SearchResult result = index.searchEvents("GALA", 10);
+
+        // Assert: "gaal" is one transposition away, "galaxy" starts with the query
+        assertTrue(result.isLoaded());
+        assertEquals(List.of(2, 3, 1, 4), ids(result));
+        assertEquals(List.of(SearchResult.Match.EXACT, SearchResult.Match.EXACT, SearchResult.Match.PREFIX,
+                SearchResult.Match.FUZZY), result.getHits().stream().map(SearchResult.Hit::getMatch).collect(Collectors.toList()));
+        assertEquals("Charity Gala", result.getHits().get(0).getText());
+        assertEquals(List.of(3), ids(index.searchEvents("annee", 10)));
+        assertEquals(List.of(2), ids(index.searchEvents("gala ch", 10)));
+        assertEquals(List.of(2), ids(index.searchEvents("gala ch", 1)));
+        assertEquals(List.of(5), ids(index.searchEvents("wokrshop", 10)));
+        // Too short to allow a typo
+        assertTrue(index.searchEvents("fim", 10).getHits().isEmpty());
+        assertEquals(11, meterRegistry.get("events.index.search.words").tag("corpus", "events").gauge().value());
+    }
+
+    @Test
+    void testChangesUpdateTheIndex() {
+        // Arrange
+        when(participantRepository.streamNames()).thenReturn(Stream.of(new SearchDocument(1, "Tounsi Ahmed")));
+        index.rebuild();
+
+        // Act
+        index.onParticipantChange(new ParticipantChange(2, "Ben Salah", "Amira", null, Set.of()));
+        index.onParticipantChange(new ParticipantChange(1, "Trabelsi", "Ahmed", null, Set.of()));
+        index.onEventChange(new EventChange(7, "Conférence Java", null, null));
+
+        // Assert
+        assertEquals(List.of(2), ids(index.searchParticipants("salah am", 10)));
+        assertEquals(List.of(1), ids(index.searchParticipants("ahmed", 10)));
+        assertTrue(index.searchParticipants("tounsi", 10).getHits().isEmpty());
+        assertTrue(index.searchParticipants("tou", 10).getHits().isEmpty());
+        assertEquals(List.of(7), ids(index.searchEvents("conference", 10)));
+        assertTrue(index.searchEvents("ahmed", 10).getHits().isEmpty());
+    }
+
+    @Test
+    void testChangesMatchBruteForce() {
+        // Arrange
+        index.rebuild();
+        String[] names = {"amine", "amina", "amir", "yassine", "yasmine", "salma", "salem", "sami", "samia", "ali"};
+        Random random = new Random(17);
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            int idPart = random.nextInt(200);
+            String nom = names[random.nextInt(names.length)];
+            String prenom = random.nextInt(10) == 0 ? null : names[random.nextInt(names.length)];
+            index.onParticipantChange(new ParticipantChange(idPart, nom, prenom, null, Set.of()));
+            expected.put(idPart, nom + " " + Objects.toString(prenom, ""));
+        }
+
+        // Act & Assert
+        for (String query : List.of("sam", "amine", "yasine", "sa am", "a")) {
+            List<String> words = List.of(query.split(" "));
+            List<Integer> matching = expected.entrySet().stream()
+                    .filter(entry -> words.stream().allMatch(word -> Arrays.stream(entry.getValue().split(" "))
+                            .anyMatch(name -> name.startsWith(word) || word.length() >= 4
+                                    && SearchIndexTest.distance(word, name) <= 1)))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<Integer> found = ids(index.searchParticipants(query, 1000));
+            Collections.sort(found);
+            assertEquals(matching, found, query);
+        }
+    }
+
+    private static List<Integer> ids(SearchResult result) {
+        return result.getHits().stream().map(SearchResult.Hit::getId).collect(Collectors.toList());
+    }
+
+    // Plain Levenshtein distance; none of the names differ by a transposition only
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
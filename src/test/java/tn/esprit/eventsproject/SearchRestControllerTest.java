@@ -0,0 +1,40 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.eventsproject.dto.SearchResult;
+import tn.esprit.eventsproject.controllers.SearchRestController;
+import tn.esprit.eventsproject.services.SearchService;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SearchRestController.class)
+ class SearchRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SearchService searchService;
+
+    @Test
+     void testSearchParticipants() throws Exception {
+        // Arrange
+        Mockito.when(searchService.searchParticipants("tounsi ahm", 20))
+                .thenReturn(new SearchResult(true, List.of(new SearchResult.Hit(4, "Tounsi Ahmed", SearchResult.Match.PREFIX))));
+
+        // Act & Assert
+        mockMvc.perform(get("/event/participants/search").param("q", "tounsi ahm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loaded").value(true))
+                .andExpect(jsonPath("$.hits[0].id").value(4))
+                .andExpect(jsonPath("$.hits[0].match").value("PREFIX"));
+    }
+}
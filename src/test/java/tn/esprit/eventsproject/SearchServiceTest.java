@@ -0,0 +1,36 @@
+package tn.esprit.eventsproject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import tn.esprit.eventsproject.services.SearchIndex;
+import tn.esprit.eventsproject.services.SearchService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+ class SearchServiceTest {
+
+   @Mock
+   private SearchIndex searchIndex;
+
+   @InjectMocks
+   private SearchService searchService;
+
+   @BeforeEach
+   public void setUp() {
+     MockitoAnnotations.openMocks(this);
+   }
+
+   // Test for searchEvents with an empty query or a limit out of range
+   @Test
+    void testSearchEvents_InvalidInput() {
+      // Act & Assert
+      assertThrows(IllegalArgumentException.class, () -> searchService.searchEvents(" ", 10));
+      assertThrows(IllegalArgumentException.class, () -> searchService.searchEvents("gala", 0));
+      assertThrows(IllegalArgumentException.class, () -> searchService.searchParticipants("ahmed", 1001));
+      verifyNoInteractions(searchIndex);
+   }
+}
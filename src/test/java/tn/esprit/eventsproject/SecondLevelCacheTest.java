@@ -0,0 +1,205 @@
+package tn.esprit.eventsproject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.eventsproject.changes.LogisticsChange;
+import tn.esprit.eventsproject.config.SecondLevelCacheConfig;
+import tn.esprit.eventsproject.dto.CacheStatistics;
+import tn.esprit.eventsproject.entities.Event;
+import tn.esprit.eventsproject.entities.Logistics;
+import tn.esprit.eventsproject.entities.Participant;
+import tn.esprit.eventsproject.entities.Tache;
+import tn.esprit.eventsproject.repositories.EventRepository;
+import tn.esprit.eventsproject.repositories.ParticipantRepository;
+import tn.esprit.eventsproject.services.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the service writes with the second-level and query caches on, and checks that what they write
+ * through JDBC is never read back stale from the cache.
+ */
+// Each call commits, as in production, so that the cache sees the transactions complete
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("h2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({EventServicesSlice.class, SecondLevelCacheConfig.class, SecondLevelCacheEviction.class, SecondLevelCacheStats.class,
+        ChangeOutbox.class, SecondLevelCacheTest.CacheConfig.class})
+class SecondLevelCacheTest {
+
+    private static final String EVENT_REGION = Event.class.getName();
+
+    @Autowired
+    private IEventServices eventServices;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SecondLevelCacheEviction eviction;
+
+    @Autowired
+    private SecondLevelCacheStats cacheStats;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from outbox_record");
+        jdbcTemplate.update("delete from participant_events");
+        jdbcTemplate.update("delete from event_logistics");
+        jdbcTemplate.update("delete from logistics");
+        jdbcTemplate.update("delete from event");
+        jdbcTemplate.update("delete from participant");
+        // Deleted behind Hibernate's back
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testFindById_SecondReadIsAHit() {
+        // Arrange
+        Event saved = eventServices.addAffectEvenParticipant(event("Cached", LocalDate.of(2030, 1, 10)));
+        entityManagerFactory.getCache().evictAll();
+        eventRepository.findById(saved.getIdEvent());
+        CacheStatistics.Region before = region(EVENT_REGION);
+
+        // Act
+        Event read = eventRepository.findById(saved.getIdEvent()).orElseThrow();
+
+        // Assert
+        CacheStatistics.Region after = region(EVENT_REGION);
+        assertEquals("Cached", read.getDescription());
+        assertEquals(before.getHits() + 1, after.getHits());
+        assertEquals(before.getMisses(), after.getMisses());
+        assertEquals(1, after.getSize());
+        assertTrue(cacheStats.statistics().isEnabled());
+        assertTrue(cacheStats.statistics().getHitRatio() > 0);
+    }
+
+    @Test
+    void testAddAffectLog_CostAndQueriesNotStale() {
+        // Arrange: the event, its logistics and the date query are all cached
+        LocalDate day = LocalDate.of(2030, 2, 10);
+        Event saved = eventServices.addAffectEvenParticipant(event("Gala", day));
+        assertEquals(0f, eventRepository.findById(saved.getIdEvent()).orElseThrow().getCout());
+        assertEquals(0, logisticsCount(saved.getIdEvent()));
+        assertTrue(eventServices.getLogisticsDates(day, day).isEmpty());
+        long queryHits = region("default-query-results-region").getHits();
+        assertTrue(eventServices.getLogisticsDates(day, day).isEmpty());
+        assertEquals(queryHits + 1, region("default-query-results-region").getHits());
+
+        // Act
+        eventServices.addAffectLog(new Logistics(0, "Stage", true, 10f, 2), "Gala");
+
+        // Assert
+        assertEquals(20f, eventRepository.findById(saved.getIdEvent()).orElseThrow().getCout());
+        assertEquals(1, logisticsCount(saved.getIdEvent()));
+        assertEquals(1, eventServices.getLogisticsDates(day, day).size());
+    }
+
+    @Test
+    void testParticipationInsert_CollectionsNotStale() {
+        // Arrange: the participant's empty event set is cached
+        Participant participant = eventServices.addParticipant(
+                new Participant(0, "Tounsi", "Ahmed", Tache.INVITE, new HashSet<>()));
+        assertEquals(0, eventCount(participant.getIdPart()));
+
+        Event event = event("Workshop", LocalDate.of(2030, 3, 10));
+        Participant stub = new Participant();
+        stub.setIdPart(participant.getIdPart());
+        event.setParticipants(Set.of(stub));
+
+        // Act: the participation row goes through JDBC
+        Event saved = eventServices.addAffectEvenParticipant(event);
+
+        // Assert
+        assertEquals(1, eventCount(participant.getIdPart()));
+        assertEquals(1, (int) transactionTemplate.execute(status ->
+                eventRepository.findById(saved.getIdEvent()).orElseThrow().getParticipants().size()));
+    }
+
+    @Test
+    void testOtherNodesChange_EvictsTheEntries() {
+        // Arrange: the event and the date query are cached, then another node adds logistics to it
+        LocalDate day = LocalDate.of(2030, 4, 10);
+        Event saved = eventServices.addAffectEvenParticipant(event("Remote", day));
+        assertEquals(0f, eventRepository.findById(saved.getIdEvent()).orElseThrow().getCout());
+        assertTrue(eventServices.getLogisticsDates(day, day).isEmpty());
+        jdbcTemplate.update("insert into logistics (id_log, description, reserve, prix_unit, quantite) values (900, 'Stage', true, 15, 2)");
+        jdbcTemplate.update("insert into event_logistics (event_id_event, logistics_id_log) values (?, 900)", saved.getIdEvent());
+        jdbcTemplate.update("update event set cout = 30, version = version + 1 where id_event = ?", saved.getIdEvent());
+        assertEquals(0f, eventRepository.findById(saved.getIdEvent()).orElseThrow().getCout());
+
+        // Act: the relay hands the change over
+        eviction.onLogisticsChange(new LogisticsChange(saved.getIdEvent(), 900, true, 15f, 2));
+
+        // Assert
+        assertEquals(30f, eventRepository.findById(saved.getIdEvent()).orElseThrow().getCout());
+        assertEquals(1, logisticsCount(saved.getIdEvent()));
+        assertEquals(1, eventServices.getLogisticsDates(day, day).size());
+    }
+
+    private int logisticsCount(int idEvent) {
+        return transactionTemplate.execute(status ->
+                eventRepository.findById(idEvent).orElseThrow().getLogistics().size());
+    }
+
+    private int eventCount(int idPart) {
+        return transactionTemplate.execute(status ->
+                participantRepository.findById(idPart).orElseThrow().getEvents().size());
+    }
+
+    private CacheStatistics.Region region(String name) {
+        return cacheStats.statistics().getRegions().stream()
+                .filter(region -> region.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Event event(String description, LocalDate day) {
+        Event event = new Event();
+        event.setDescription(description);
+        event.setDateDebut(day);
+        event.setParticipants(new HashSet<>());
+        return event;
+    }
+
+    @TestConfiguration
+    static class CacheConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}